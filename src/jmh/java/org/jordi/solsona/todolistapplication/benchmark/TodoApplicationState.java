@@ -0,0 +1,49 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.jordi.solsona.todolistapplication.TodoListApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+
+/**
+ * The application, without the web server, running against an embedded PostgreSQL that is started for the fork and
+ * migrated by Flyway like a real database. The cache and the sql logging are off so the database work is measured.
+ */
+@State(Scope.Benchmark)
+public class TodoApplicationState {
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        this.postgres = EmbeddedPostgres.builder().start();
+        this.context = new SpringApplicationBuilder(TodoListApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + this.postgres.getJdbcUrl("postgres", "postgres"),
+                        "spring.datasource.username=postgres",
+                        "spring.datasource.password=postgres",
+                        "spring.jpa.show-sql=false",
+                        "spring.cache.type=none")
+                .run();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        this.context.close();
+        this.postgres.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return this.context.getBean(type);
+    }
+}
@@ -0,0 +1,66 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Jackson serialization of the responses, with an {@link ObjectMapper} built the way Spring MVC builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoJsonBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private TodoResponse response;
+
+    @Setup
+    public void setUp() {
+        this.response = new TodoResponse(UUID.randomUUID(), "Benchmark todo", "A description", Instant.now(), TodoStatus.NOT_STARTED, 0);
+    }
+
+    @Benchmark
+    public byte[] todoResponse() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.response);
+    }
+
+    @Benchmark
+    public byte[] todoResponsePage(PageState state) throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(state.page);
+    }
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+
+        @Param({"10", "100"})
+        private int pageSize;
+
+        private Page<TodoResponse> page;
+
+        @Setup
+        public void setUp() {
+            Instant now = Instant.now();
+            List<TodoResponse> content = IntStream.range(0, this.pageSize)
+                    .mapToObj(i -> new TodoResponse(UUID.randomUUID(), "Benchmark todo " + i, "A description", now.plusSeconds(i), TodoStatus.IN_PROGRESS, 0))
+                    .toList();
+            this.page = new PageImpl<>(content, PageRequest.of(0, this.pageSize, Sort.by("dueDate")), 10_000);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.commons.mappers.TodoMapper;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.CountMode;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoSpecifications;
+import org.jordi.solsona.todolistapplication.service.TodoListService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * A list page loaded as managed {@link Todo} entities and mapped afterwards, against the same page read straight into
+ * {@link TodoResponse} projections by {@link TodoListService#list}. Run with {@code -prof gc} to compare the allocations
+ * per page ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoListQueryBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private TodoListService service;
+    private TodoRepository repository;
+    private TodoMapper mapper;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp(TodoApplicationState application) {
+        this.service = application.getBean(TodoListService.class);
+        this.repository = application.getBean(TodoRepository.class);
+        this.mapper = application.getBean(TodoMapper.class);
+        JdbcTemplate jdbcTemplate = application.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM todo_lists");
+
+        Instant now = Instant.now();
+        List<Object[]> fixture = IntStream.range(0, 10_000)
+                .mapToObj(i -> new Object[]{UUID.randomUUID(), "todo " + i, "A description of todo " + i, TodoStatus.values()[i % 3].name(),
+                        Timestamp.from(now.plusSeconds(i)), Timestamp.from(now), Timestamp.from(now)})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO todo_lists (id, name, description, status, due_date, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", fixture);
+        jdbcTemplate.execute("ANALYZE todo_lists");
+
+        this.pageable = PageRequest.of(1, this.pageSize, Sort.by("dueDate"));
+    }
+
+    @Benchmark
+    public Page<TodoResponse> entities() {
+        Specification<Todo> specification = Specification.where(TodoSpecifications.hasStatus(TodoStatus.IN_PROGRESS));
+        return this.repository.findAll(specification, this.pageable).map(this.mapper::toResponse);
+    }
+
+    @Benchmark
+    public Page<TodoResponse> projections() {
+        return this.service.list(TodoStatus.IN_PROGRESS, null, false, this.pageable, CountMode.EXACT);
+    }
+}
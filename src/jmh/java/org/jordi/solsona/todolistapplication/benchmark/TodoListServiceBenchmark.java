@@ -0,0 +1,87 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.CountMode;
+import org.jordi.solsona.todolistapplication.service.TodoListService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@link TodoListService} CRUD against the embedded PostgreSQL of {@link TodoApplicationState}, over a table of
+ * {@code rows} todos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoListServiceBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private TodoListService service;
+    private List<UUID> ids;
+    private CreateTodoRequest createRequest;
+    private UpdateTodoRequest updateRequest;
+
+    @Setup
+    public void setUp(TodoApplicationState application) {
+        this.service = application.getBean(TodoListService.class);
+        JdbcTemplate jdbcTemplate = application.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM todo_lists");
+
+        Instant now = Instant.now();
+        this.ids = IntStream.range(0, this.rows).mapToObj(i -> UUID.randomUUID()).toList();
+        List<Object[]> fixture = IntStream.range(0, this.rows)
+                .mapToObj(i -> new Object[]{this.ids.get(i), "todo " + i, TodoStatus.values()[i % 3].name(), Timestamp.from(now.plusSeconds(i))})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO todo_lists (id, name, status, due_date) VALUES (?, ?, ?, ?)", fixture);
+        jdbcTemplate.execute("ANALYZE todo_lists");
+
+        this.createRequest = new CreateTodoRequest("Benchmark todo", "A description", now, TodoStatus.NOT_STARTED);
+        this.updateRequest = new UpdateTodoRequest("Updated todo", "A description", now, TodoStatus.IN_PROGRESS);
+    }
+
+    @Benchmark
+    public TodoResponse getTodoById() {
+        return this.service.getTodoById(randomId());
+    }
+
+    @Benchmark
+    public Page<TodoResponse> list() {
+        return this.service.list(TodoStatus.IN_PROGRESS, null, false, PageRequest.of(0, 10, Sort.by("dueDate")), CountMode.EXACT);
+    }
+
+    @Benchmark
+    public Todo update() {
+        return this.service.update(randomId(), this.updateRequest, null);
+    }
+
+    @Benchmark
+    public UUID createAndDelete() {
+        UUID id = this.service.createTodo(this.createRequest).getId();
+        this.service.delete(id);
+        return id;
+    }
+
+    private UUID randomId() {
+        return this.ids.get(ThreadLocalRandom.current().nextInt(this.ids.size()));
+    }
+}
@@ -0,0 +1,46 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.commons.mappers.TodoMapper;
+import org.jordi.solsona.todolistapplication.commons.mappers.TodoMapperImpl;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct mapping between the api records and the {@link Todo} entity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoMapperBenchmark {
+
+    private final TodoMapper mapper = new TodoMapperImpl();
+    private CreateTodoRequest request;
+    private Todo todo;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        this.request = new CreateTodoRequest("Benchmark todo", "A description", now, TodoStatus.NOT_STARTED);
+        this.todo = new Todo(UUID.randomUUID(), "Benchmark todo", "A description", TodoStatus.IN_PROGRESS, now, now, now);
+    }
+
+    @Benchmark
+    public Todo toEntity() {
+        return this.mapper.toEntity(this.request);
+    }
+
+    @Benchmark
+    public TodoResponse toResponse() {
+        return this.mapper.toResponse(this.todo);
+    }
+}
@@ -0,0 +1,68 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoCursor;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoSpecifications;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of the list and scroll predicates from {@link TodoSpecifications}, without running the queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoSpecificationsBenchmark {
+
+    private EntityManager entityManager;
+    private CriteriaBuilder criteriaBuilder;
+    private Instant dueTime;
+    private TodoCursor cursor;
+
+    @Setup
+    public void setUp(TodoApplicationState application) {
+        this.entityManager = application.getBean(EntityManagerFactory.class).createEntityManager();
+        this.criteriaBuilder = this.entityManager.getCriteriaBuilder();
+        this.dueTime = Instant.now();
+        this.cursor = new TodoCursor("dueDate", Sort.Direction.ASC, this.dueTime.toString(), UUID.randomUUID());
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.entityManager.close();
+    }
+
+    @Benchmark
+    public Predicate listFilters() {
+        return toPredicate(Specification
+                .where(TodoSpecifications.hasStatus(TodoStatus.IN_PROGRESS)).and(TodoSpecifications.dueBefore(this.dueTime)));
+    }
+
+    @Benchmark
+    public Predicate scrollFilters() {
+        return toPredicate(Specification
+                .where(TodoSpecifications.hasStatus(TodoStatus.IN_PROGRESS)).and(TodoSpecifications.dueBefore(this.dueTime))
+                .and(TodoSpecifications.after(this.cursor)));
+    }
+
+    private Predicate toPredicate(Specification<Todo> specification) {
+        CriteriaQuery<Todo> query = this.criteriaBuilder.createQuery(Todo.class);
+        Root<Todo> root = query.from(Todo.class);
+        return specification.toPredicate(root, query, this.criteriaBuilder);
+    }
+}
@@ -0,0 +1,97 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.jordi.solsona.todolistapplication.api.dto.PageResponse;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * A list page written and read in each wire format of {@code /api/lists}, against the Spring Data {@link Page} JSON the
+ * endpoint used to send. The payload size of every format is printed once per fork, in the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoWireFormatBenchmark {
+
+    @Param({"SPRING_PAGE_JSON", "JSON", "CBOR", "SMILE"})
+    private WireFormat format;
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private JavaType pageType;
+    private Object page;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        Instant now = Instant.now();
+        List<TodoResponse> content = IntStream.range(0, this.pageSize)
+                .mapToObj(i -> new TodoResponse(UUID.randomUUID(), "Benchmark todo " + i, "A description", now.plusSeconds(i), TodoStatus.IN_PROGRESS, i))
+                .toList();
+        Page<TodoResponse> springPage = new PageImpl<>(content, PageRequest.of(0, this.pageSize, Sort.by("dueDate")), 10_000);
+
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().factory(this.format.factory.get()).build();
+        this.page = this.format == WireFormat.SPRING_PAGE_JSON ? springPage : PageResponse.of(springPage);
+        this.pageType = this.objectMapper.getTypeFactory().constructParametricType(
+                this.format == WireFormat.SPRING_PAGE_JSON ? SpringPage.class : PageResponse.class, TodoResponse.class);
+        this.payload = this.objectMapper.writeValueAsBytes(this.page);
+        System.out.printf("%n%s page of %d todos: %d bytes%n", this.format, this.pageSize, this.payload.length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return this.objectMapper.writeValueAsBytes(this.page);
+    }
+
+    @Benchmark
+    public Object read() throws IOException {
+        //Read into the types a client binds the page to, decoding the todos, their UUIDs and instants
+        return this.objectMapper.readValue(this.payload, this.pageType);
+    }
+
+    /**
+     * The keys of the Spring Data page JSON a client binds, a {@link Page} can't be read back. The {@code pageable} and
+     * {@code sort} details are still parsed, and skipped.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record SpringPage<T>(List<T> content, int number, int size, long totalElements, int totalPages, boolean last) {
+    }
+
+    public enum WireFormat {
+        SPRING_PAGE_JSON(JsonFactory::new),
+        JSON(JsonFactory::new),
+        CBOR(CBORFactory::new),
+        SMILE(SmileFactory::new);
+
+        private final Supplier<JsonFactory> factory;
+
+        WireFormat(Supplier<JsonFactory> factory) {
+            this.factory = factory;
+        }
+    }
+}
@@ -2,11 +2,17 @@
     
     import org.springframework.boot.SpringApplication;
     import org.springframework.boot.autoconfigure.SpringBootApplication;
+    import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
     import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
     import org.springframework.context.annotation.ComponentScan;
+    import org.springframework.context.annotation.FilterType;
     
-    @SpringBootApplication
-    @ComponentScan("org.jordi.solsona.todolistapplication")
+    //The reactive variant, built with -Preactive, is an application of its own: its components and its R2DBC connection
+    //factory are left out of this one
+    @SpringBootApplication(excludeName = "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration")
+    @ComponentScan(value = "org.jordi.solsona.todolistapplication",
+            excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = "org\\.jordi\\.solsona\\.todolistapplication\\.reactive\\..*"))
+    @ConfigurationPropertiesScan("org.jordi.solsona.todolistapplication.config")
     @EnableJpaRepositories("org.jordi.solsona.todolistapplication.domain.repository")
     public class TodoListApplication {
     
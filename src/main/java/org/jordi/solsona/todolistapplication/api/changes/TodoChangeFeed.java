@@ -0,0 +1,367 @@
+package org.jordi.solsona.todolistapplication.api.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.jordi.solsona.todolistapplication.api.dto.TodoChangeMessage;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TooManySubscribersException;
+import org.jordi.solsona.todolistapplication.config.TodoChangeFeedProperties;
+import org.jordi.solsona.todolistapplication.service.TodoChangeEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fans the committed {@link TodoChangeEvent} out to Server-Sent Events subscribers.
+ * <p>
+ * Changes are serialized once and stored in a ring buffer of the last {@code todo.changes.buffer-size} ones: a writer
+ * claims the next sequence, stores the change in its slot and wakes the dispatcher, without taking a lock. Every slot
+ * tells the sequence it holds, so readers poll the ring by sequence and see when a change was overwritten.
+ * <p>
+ * The dispatcher is a single virtual thread that never writes to a connection. It schedules the subscribers that have
+ * changes or a heartbeat to send on a few platform threads, each subscriber sending from its own position in the ring.
+ * The sends hold the monitor of the emitter, which would pin the carrier of a virtual thread while the connection
+ * blocks. A subscriber with more than {@code todo.changes.queue-size} changes left to send, or that resumes from an
+ * event the ring no longer has, gets a {@code RESYNC} event and is disconnected a check later: it has to reload its
+ * view and reconnect from the id of that event. A subscriber whose send takes longer than
+ * {@code todo.changes.write-timeout} is dropped; its connection is released when the container fails the write.
+ * <p>
+ * Event ids are {@code <epoch>-<sequence>}, the epoch changes with every start of the node, so ids from before a
+ * restart are answered with a resync as well.
+ */
+@Component
+public class TodoChangeFeed {
+
+    static final String RESYNC_EVENT = "RESYNC";
+    private static final int MAX_EVENTS_PER_SEND = 256;
+    private static final long NO_RESYNC = -1;
+
+    private final TodoChangeFeedProperties properties;
+    private final ObjectMapper objectMapper;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter resyncs;
+    private final Counter drops;
+
+    private final AtomicReferenceArray<Change> ring;
+    private final AtomicLong head = new AtomicLong();
+    //The last sequence whose change, and every one before, is stored in the ring, advanced by the dispatcher only
+    private volatile long published;
+    private final int maxBacklog;
+
+    private final ExecutorService senders;
+    private final Thread dispatcher;
+    private final long tick;
+    private volatile boolean running = true;
+
+    @Autowired
+    public TodoChangeFeed(TodoChangeFeedProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.ring = new AtomicReferenceArray<>(properties.bufferSize());
+        this.maxBacklog = Math.min(properties.queueSize(), properties.bufferSize());
+        Gauge.builder("todo.changes.subscribers", this.subscribers, Set::size)
+                .description("Open change feed subscriptions").register(meterRegistry);
+        this.resyncs = Counter.builder("todo.changes.resyncs")
+                .description("Subscribers told to resync because they fell behind the change buffer").register(meterRegistry);
+        this.drops = Counter.builder("todo.changes.drops")
+                .description("Subscribers dropped because a send took longer than the write timeout").register(meterRegistry);
+        this.tick = Math.min(properties.heartbeat().toNanos(), properties.writeTimeout().toNanos()) / 2;
+        this.senders = Executors.newFixedThreadPool(properties.senderThreads(),
+                Thread.ofPlatform().name("todo-changes-send-", 0).daemon(true).factory());
+        this.dispatcher = Thread.ofVirtual().name("todo-changes-dispatcher").start(this::dispatch);
+    }
+
+    /**
+     * Stores a committed change in the ring and wakes the dispatcher.
+     * @param event the {@link TodoChangeEvent} of the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChange(TodoChangeEvent event) {
+        String data;
+        try {
+            data = this.objectMapper.writeValueAsString(new TodoChangeMessage(event.type(), event.id(), event.current()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        long sequence = this.head.incrementAndGet();
+        this.ring.set(slot(sequence), new Change(sequence, event.type().name(), data));
+        LockSupport.unpark(this.dispatcher);
+    }
+
+    /**
+     * Opens a subscription to the changes committed from now on, or after the given event.
+     * @param lastEventId the id of the last event the client received, {@code null} to only receive new changes
+     * @return the {@link SseEmitter} the changes are sent to.
+     * @throws TooManySubscribersException if the node already has {@code todo.changes.max-subscribers} subscribers.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (this.subscribers.size() >= this.properties.maxSubscribers()) {
+            throw new TooManySubscribersException(this.properties.maxSubscribers());
+        }
+        SseEmitter emitter = new SseEmitter(this.properties.timeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        long last = this.published;
+        long next = resumeFrom(lastEventId, last);
+        if (next < 0) {
+            subscriber.resyncAt = last;
+        } else {
+            subscriber.next = next;
+        }
+        this.subscribers.add(subscriber);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        //Commits the response right away, instead of on the first change or heartbeat
+        subscriber.schedule();
+        return emitter;
+    }
+
+    /**
+     * Disconnects every subscriber, they reconnect to another node or once this one is back.
+     */
+    @PreDestroy
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.dispatcher);
+        for (Subscriber subscriber : this.subscribers) {
+            //Completing takes the monitor a blocked send holds, those are released when the container fails the write
+            if (!subscriber.sending) {
+                subscriber.emitter.complete();
+            }
+            subscriber.close();
+        }
+        this.senders.shutdown();
+    }
+
+    /**
+     * Advances {@link #published} over the changes stored by the writers, and schedules the subscribers that have
+     * something to send. Every half heartbeat or write timeout it also checks for idle and stuck subscribers.
+     */
+    private void dispatch() {
+        long nextCheck = System.nanoTime() + this.tick;
+        while (this.running) {
+            long dispatched = this.published;
+            long claimed = this.head.get();
+            while (dispatched < claimed) {
+                Change change = this.ring.get(slot(dispatched + 1));
+                if (change == null || change.sequence() <= dispatched) {
+                    //Claimed by a writer that hasn't stored it yet, it is about to
+                    Thread.yield();
+                    continue;
+                }
+                dispatched++;
+            }
+            this.published = dispatched;
+
+            long now = System.nanoTime();
+            boolean check = now - nextCheck >= 0;
+            if (check) {
+                nextCheck = now + this.tick;
+            }
+            for (Subscriber subscriber : this.subscribers) {
+                subscriber.poll(dispatched, now, check);
+            }
+
+            long wait = nextCheck - System.nanoTime();
+            if (wait > 0 && this.head.get() == dispatched) {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+
+    /**
+     * @return the sequence of the first change to send after the given event id, or -1 if it can't be resumed.
+     */
+    private long resumeFrom(String lastEventId, long last) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return last + 1;
+        }
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !this.epoch.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            long sequence = Long.parseLong(lastEventId.substring(separator + 1));
+            if (sequence > last) {
+                return -1;
+            }
+            //A change overwritten from now on is told by its slot, once the subscriber reads it
+            Change next = sequence < last ? this.ring.get(slot(sequence + 1)) : null;
+            return next == null || next.sequence() == sequence + 1 ? sequence + 1 : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % this.ring.length());
+    }
+
+    private String eventId(long sequence) {
+        return this.epoch + "-" + sequence;
+    }
+
+    private record Change(long sequence, String type, String data) {
+    }
+
+    /**
+     * A subscription, polled by the dispatcher and run on a sender thread whenever it has something to send. It is
+     * never run by two senders at once.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long next;
+        private volatile long resyncAt = NO_RESYNC;
+        private volatile long resyncedAt;
+        private volatile boolean resynced;
+        private volatile boolean heartbeatDue = true;
+        private volatile boolean sending;
+        private volatile long sendingSince;
+        private volatile long lastSent = System.nanoTime();
+        private volatile boolean open = true;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Called by the dispatcher: tells a subscriber too far behind to resync, completes a resynced one, drops a
+         * stuck one, and schedules it if it has something to send.
+         */
+        private void poll(long published, long now, boolean check) {
+            if (!this.open) {
+                return;
+            }
+            if (this.resynced) {
+                //Not completed as soon as the resync is sent: right after subscribing, that could race with the request
+                //thread still starting the asynchronous response
+                if (check && now - this.resyncedAt >= tick) {
+                    this.emitter.complete();
+                    close();
+                }
+                return;
+            }
+            if (check) {
+                if (this.sending && now - this.sendingSince > properties.writeTimeout().toNanos()) {
+                    drops.increment();
+                    close();
+                    return;
+                }
+                if (now - this.lastSent >= properties.heartbeat().toNanos()) {
+                    this.heartbeatDue = true;
+                }
+            }
+            if (this.resyncAt == NO_RESYNC && published - this.next + 1 > maxBacklog) {
+                this.resyncAt = published;
+            }
+            if (this.next <= published || this.heartbeatDue || this.resyncAt != NO_RESYNC) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (this.open && this.scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this);
+                } catch (RejectedExecutionException e) {
+                    //The feed is closing
+                    this.scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                send();
+            } catch (IOException | IllegalStateException e) {
+                //The client is gone, or the emitter already completed. The container reports a failed write itself:
+                //completing the emitter from here could dispatch a request the container already recycled
+                close();
+            } finally {
+                this.sending = false;
+                this.scheduled.set(false);
+            }
+            //A change may have been published while sending, after the dispatcher found this subscriber scheduled
+            if (!this.resynced && (this.next <= published || this.resyncAt != NO_RESYNC)) {
+                schedule();
+            }
+        }
+
+        /**
+         * Sends the resync event if one is due, otherwise up to {@link #MAX_EVENTS_PER_SEND} changes from {@link #next},
+         * or a heartbeat if there are none.
+         */
+        private void send() throws IOException {
+            if (!this.open || this.resynced) {
+                return;
+            }
+            long resyncAt = this.resyncAt;
+            if (resyncAt != NO_RESYNC) {
+                resync(resyncAt);
+                return;
+            }
+            long last = published;
+            List<Change> changes = new ArrayList<>();
+            for (long sequence = this.next; sequence <= last && changes.size() < MAX_EVENTS_PER_SEND; sequence++) {
+                Change change = ring.get(slot(sequence));
+                if (change.sequence() != sequence) {
+                    //Overwritten, the subscriber is further behind than the ring holds
+                    resync(last);
+                    return;
+                }
+                changes.add(change);
+            }
+            if (changes.isEmpty() && this.heartbeatDue) {
+                send(SseEmitter.event().comment("heartbeat"));
+            }
+            for (Change change : changes) {
+                send(SseEmitter.event().id(eventId(change.sequence())).name(change.type()).data(change.data()));
+                this.next = change.sequence() + 1;
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            this.sendingSince = System.nanoTime();
+            this.sending = true;
+            this.emitter.send(event);
+            this.sending = false;
+            this.lastSent = System.nanoTime();
+            this.heartbeatDue = false;
+        }
+
+        private void resync(long at) throws IOException {
+            resyncs.increment();
+            send(SseEmitter.event().id(eventId(at)).name(RESYNC_EVENT).data("{}"));
+            //Completed by the dispatcher
+            this.resyncedAt = System.nanoTime();
+            this.resynced = true;
+        }
+
+        private void close() {
+            this.open = false;
+            subscribers.remove(this);
+        }
+    }
+}
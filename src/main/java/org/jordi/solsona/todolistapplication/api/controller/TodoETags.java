@@ -0,0 +1,121 @@
+package org.jordi.solsona.todolistapplication.api.controller;
+
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Strong entity tags of the todo resources. A todo is tagged with its version, which every update increments, so the
+ * tag can be computed from a cached {@link TodoResponse} without reading the database. A list page is tagged with a
+ * digest of the ids and versions of its todos and of its position, which changes whenever any of them does.
+ * <p>
+ * A strong tag stands for the bytes of one representation, so the CBOR and Smile bodies get the tag of the JSON body
+ * with a suffix, e.g. {@code "3-cbor"}, picked from the {@code Accept} header the way the body format is. The responses
+ * tagged this way vary by {@code Accept}.
+ */
+public final class TodoETags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final String CBOR_SUFFIX = "-cbor";
+    private static final String SMILE_SUFFIX = "-smile";
+
+    private TodoETags() {
+    }
+
+    /**
+     * @param todo the todo to tag
+     * @param accept the {@code Accept} header of the request, may be null
+     * @return the strong entity tag of the todo, in the representation the request gets.
+     */
+    public static String of(TodoResponse todo, String accept) {
+        return "\"" + todo.version() + suffix(accept) + "\"";
+    }
+
+    /**
+     * @param page the list page to tag
+     * @param accept the {@code Accept} header of the request, may be null
+     * @return the strong entity tag of the page, in the representation the request gets.
+     */
+    public static String of(Slice<TodoResponse> page, String accept) {
+        StringBuilder state = new StringBuilder()
+                .append(page.getNumber()).append('/').append(page.getSize()).append('/').append(page.getSort()).append('/')
+                .append(page.hasNext());
+        if (page instanceof Page<TodoResponse> totalPage) {
+            state.append('/').append(totalPage.getTotalElements());
+        }
+        for (TodoResponse todo : page) {
+            state.append('|').append(todo.id()).append(':').append(todo.version());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + suffix(accept) + "\"";
+    }
+
+    /**
+     * Reads the versions a client expects from an {@code If-Match} header, a list of tags of which any may match. Only
+     * strong tags match, as required for {@code If-Match}; weak or malformed tags are left out. The tags of every
+     * representation match, whatever the format of the request body.
+     * @param ifMatch the header value, may be null
+     * @return the expected versions, {@code null} when any version is accepted, or an empty set when none can match.
+     */
+    public static Set<Long> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        Set<Long> versions = new LinkedHashSet<>();
+        for (String element : ifMatch.split(",")) {
+            String tag = element.trim();
+            if (tag.startsWith(WEAK_PREFIX) || tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+                continue;
+            }
+            String opaque = tag.substring(1, tag.length() - 1);
+            if (opaque.endsWith(CBOR_SUFFIX) || opaque.endsWith(SMILE_SUFFIX)) {
+                opaque = opaque.substring(0, opaque.lastIndexOf('-'));
+            }
+            try {
+                versions.add(Long.parseLong(opaque));
+            } catch (NumberFormatException e) {
+                //An opaque tag this server never sent, it can't match any version
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Picks the format of the body like the content negotiation does: the most specific accepted type, with the highest
+     * quality, that one of the formats is compatible with, JSON first.
+     * @return the suffix of the tags of that format, none for JSON.
+     */
+    private static String suffix(String accept) {
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            //The request is answered with 406 anyway
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return "";
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR)) {
+                return CBOR_SUFFIX;
+            }
+            if (type.includes(SMILE)) {
+                return SMILE_SUFFIX;
+            }
+        }
+        return "";
+    }
+}
@@ -1,23 +1,55 @@
 package org.jordi.solsona.todolistapplication.api.controller;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.jordi.solsona.todolistapplication.api.changes.TodoChangeFeed;
+import org.jordi.solsona.todolistapplication.api.dto.BatchItemResult;
+import org.jordi.solsona.todolistapplication.api.dto.BatchUpdateTodoRequest;
 import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.CursorPageResponse;
+import org.jordi.solsona.todolistapplication.api.dto.ImportReport;
+import org.jordi.solsona.todolistapplication.api.dto.PageResponse;
 import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.api.dto.TodoStatsResponse;
 import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.export.ExportFormat;
+import org.jordi.solsona.todolistapplication.api.export.TodoExportWriter;
+import org.jordi.solsona.todolistapplication.api.imports.ImportFormat;
+import org.jordi.solsona.todolistapplication.api.imports.TodoImportReader;
+import org.jordi.solsona.todolistapplication.commons.exceptions.WriteTimeoutException;
 import org.jordi.solsona.todolistapplication.commons.mappers.TodoMapper;
+import org.jordi.solsona.todolistapplication.config.TodoImportProperties;
 import org.jordi.solsona.todolistapplication.domain.model.Todo;
 import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.CountMode;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoCursor;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoSearchCursor;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoSearchHit;
 import org.jordi.solsona.todolistapplication.service.TodoListService;
+import org.jordi.solsona.todolistapplication.service.TodoStatisticsService;
+import org.jordi.solsona.todolistapplication.service.TodoWriteBehindService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/lists")
@@ -25,50 +57,195 @@ public class TodoListController {
 
     private final TodoListService todoListService;
     private final TodoMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final TodoStatisticsService todoStatisticsService;
+    private final TodoChangeFeed todoChangeFeed;
+    private final TodoWriteBehindService todoWriteBehindService;
+    private final TodoQueryGuard queryGuard;
+    private final TodoImportProperties importProperties;
 
     @Autowired
-    public TodoListController(TodoListService todoListService, TodoMapper mapper) {
+    public TodoListController(TodoListService todoListService, TodoMapper mapper, ObjectMapper objectMapper,
+                              TodoStatisticsService todoStatisticsService, TodoChangeFeed todoChangeFeed,
+                              TodoWriteBehindService todoWriteBehindService, TodoQueryGuard queryGuard,
+                              TodoImportProperties importProperties) {
         this.todoListService = todoListService;
         this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.todoStatisticsService = todoStatisticsService;
+        this.todoChangeFeed = todoChangeFeed;
+        this.todoWriteBehindService = todoWriteBehindService;
+        this.queryGuard = queryGuard;
+        this.importProperties = importProperties;
     }
 
     @PostMapping
     public ResponseEntity<TodoResponse> create(@RequestBody @Valid CreateTodoRequest request) {
+        if (this.todoWriteBehindService.isEnabled()) {
+            return new ResponseEntity<>(await(this.todoWriteBehindService.create(request)), HttpStatus.CREATED);
+        }
         Todo todo = this.todoListService.createTodo(request);
         TodoResponse response = this.mapper.toResponse(todo);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> createBatch(@RequestBody List<CreateTodoRequest> requests) {
+        return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(this.todoListService.createTodos(requests));
+    }
+
+    @PostMapping(value = "/import", consumes = {ImportFormat.NDJSON_VALUE, ImportFormat.CSV_VALUE})
+    public ResponseEntity<ImportReport> importTodos(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                    InputStream body) throws IOException, HttpMediaTypeNotSupportedException {
+
+        //The body is parsed as it is read, never buffered as a whole, nor any of its rows beyond todo.import.max-row-length
+        try (TodoImportReader reader = ImportFormat.of(contentType)
+                .reader(body, contentType.getCharset(), this.objectMapper, this.importProperties.maxRowLength())) {
+            return ResponseEntity.ok(this.todoListService.importTodos(reader));
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<TodoStatsResponse> stats() {
+        return ResponseEntity.ok(this.todoStatisticsService.stats());
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return this.todoChangeFeed.subscribe(lastEventId);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<TodoResponse> get(@PathVariable UUID id) {
-        Todo response = this.todoListService.getTodoById(id);
+    public ResponseEntity<TodoResponse> get(@PathVariable UUID id,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        TodoResponse response = this.todoListService.getTodoById(id);
         if (response == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(mapper.toResponse(response));
+        //The response comes from the cache when it can, so a matching If-None-Match is answered with a 304 without a query
+        return ResponseEntity.ok().eTag(TodoETags.of(response, accept)).varyBy(HttpHeaders.ACCEPT).body(response);
     }
 
     @GetMapping
-    public  ResponseEntity<Page<TodoResponse>> list(@RequestParam(required = false) TodoStatus status,
-                                                    @RequestParam(required = false) Instant dueTime,
-                                                    @RequestParam(defaultValue = "0") int page,
-                                                    @RequestParam(defaultValue = "10") int size,
-                                                    @RequestParam(defaultValue = "dueDate") String sortBy,
-                                                    @RequestParam(defaultValue = "ASC") Sort.Direction orderDirection) {
+    public ResponseEntity<PageResponse<TodoResponse>> list(@RequestParam(required = false) TodoStatus status,
+                                                           @RequestParam(required = false) Instant dueTime,
+                                                           @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "10") int size,
+                                                           @RequestParam(defaultValue = "dueDate") String sortBy,
+                                                           @RequestParam(defaultValue = "ASC") Sort.Direction orderDirection,
+                                                           @RequestParam(defaultValue = "EXACT") CountMode count,
+                                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        Pageable pageable = this.queryGuard.pageable(page, size, sortBy, orderDirection);
+        Page<TodoResponse> todoListPage = this.todoListService.list(status, dueTime, includeArchived, pageable, count);
+
+        return ResponseEntity.ok().eTag(TodoETags.of(todoListPage, accept)).varyBy(HttpHeaders.ACCEPT).body(PageResponse.of(todoListPage));
+    }
+
+    @GetMapping(params = {"count=NONE", "!cursor"})
+    public ResponseEntity<PageResponse<TodoResponse>> listSlice(@RequestParam(required = false) TodoStatus status,
+                                                                @RequestParam(required = false) Instant dueTime,
+                                                                @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                                @RequestParam(defaultValue = "0") int page,
+                                                                @RequestParam(defaultValue = "10") int size,
+                                                                @RequestParam(defaultValue = "dueDate") String sortBy,
+                                                                @RequestParam(defaultValue = "ASC") Sort.Direction orderDirection,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(orderDirection, sortBy));
-        Page<Todo> todoListPage = this.todoListService.list(status, dueTime, pageable);
+        //Without a count the response is a slice: the same page, but with no totalElements nor totalPages
+        Pageable pageable = this.queryGuard.pageable(page, size, sortBy, orderDirection);
+        Slice<TodoResponse> todoListSlice = this.todoListService.listSlice(status, dueTime, includeArchived, pageable);
 
-        return ResponseEntity.ok(todoListPage.map(this.mapper::toResponse));
+        return ResponseEntity.ok().eTag(TodoETags.of(todoListSlice, accept)).varyBy(HttpHeaders.ACCEPT).body(PageResponse.of(todoListSlice));
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<TodoResponse>> scroll(@RequestParam(required = false) TodoStatus status,
+                                                                   @RequestParam(required = false) Instant dueTime,
+                                                                   @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                                   @RequestParam String cursor,
+                                                                   @RequestParam(defaultValue = "10") int size,
+                                                                   @RequestParam(defaultValue = "dueDate") String sortBy,
+                                                                   @RequestParam(defaultValue = "ASC") Sort.Direction orderDirection) {
+
+        //An empty cursor starts a new scroll with the requested sort, later pages keep the sort encoded in the cursor
+        TodoCursor position = cursor.isBlank() ? TodoCursor.initial(sortBy, orderDirection) : TodoCursor.decode(cursor);
+        this.queryGuard.sortBy(position.sortBy());
+        Slice<Todo> todoSlice = this.todoListService.scroll(status, dueTime, includeArchived, position, this.queryGuard.size(size));
+
+        String nextCursor = todoSlice.hasNext()
+                ? position.next(todoSlice.getContent().get(todoSlice.getNumberOfElements() - 1)).encode()
+                : null;
+        List<TodoResponse> content = todoSlice.getContent().stream().map(this.mapper::toResponse).toList();
+
+        return ResponseEntity.ok(new CursorPageResponse<>(content, size, todoSlice.hasNext(), nextCursor));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageResponse<TodoResponse>> search(@RequestParam String q,
+                                                                   @RequestParam(required = false) TodoStatus status,
+                                                                   @RequestParam(required = false) Instant dueTime,
+                                                                   @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "10") int size) {
+
+        //Hits are ordered by rank, the cursor of the next page carries the rank and id of the last hit
+        TodoSearchCursor position = cursor == null || cursor.isBlank() ? null : TodoSearchCursor.decode(cursor);
+        Slice<TodoSearchHit> hits = this.todoListService.search(q, status, dueTime, includeArchived, position,
+                this.queryGuard.size(size));
+
+        String nextCursor = hits.hasNext()
+                ? TodoSearchCursor.after(hits.getContent().get(hits.getNumberOfElements() - 1)).encode()
+                : null;
+        List<TodoResponse> content = hits.getContent().stream().map(hit -> this.mapper.toResponse(hit.todo())).toList();
+
+        return ResponseEntity.ok(new CursorPageResponse<>(content, size, hits.hasNext(), nextCursor));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) TodoStatus status,
+                                                        @RequestParam(required = false) Instant dueTime,
+                                                        @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                        @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+
+        //Rows are written as they are read from the database, on an async request thread
+        StreamingResponseBody body = outputStream -> {
+            try (TodoExportWriter writer = format.writer(outputStream, this.objectMapper)) {
+                this.todoListService.export(status, dueTime, includeArchived, writer::writeUnchecked);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(format.fileName()).build().toString())
+                .body(body);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<TodoResponse> update(@PathVariable UUID id, @RequestBody @Valid UpdateTodoRequest request) {
-        Todo response =  this.todoListService.update(id, request);
+    public ResponseEntity<TodoResponse> update(@PathVariable UUID id, @RequestBody @Valid UpdateTodoRequest request,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (this.todoWriteBehindService.isEnabled()) {
+            TodoResponse updated = await(this.todoWriteBehindService.update(id, request, TodoETags.expectedVersions(ifMatch)));
+            return ResponseEntity.ok().eTag(TodoETags.of(updated, accept)).varyBy(HttpHeaders.ACCEPT).body(updated);
+        }
+        Todo response =  this.todoListService.update(id, request, TodoETags.expectedVersions(ifMatch));
         if (response == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(mapper.toResponse(response));
+        TodoResponse updated = mapper.toResponse(response);
+        return ResponseEntity.ok().eTag(TodoETags.of(updated, accept)).varyBy(HttpHeaders.ACCEPT).body(updated);
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> updateBatch(@RequestBody List<BatchUpdateTodoRequest> requests) {
+        return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(this.todoListService.updateTodos(requests));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> deleteBatch(@RequestBody List<UUID> ids) {
+        return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(this.todoListService.deleteTodos(ids));
     }
 
     @DeleteMapping("/{id}")
@@ -76,4 +253,23 @@ public class TodoListController {
     public void delete(@PathVariable UUID id) {
         this.todoListService.delete(id);
     }
+
+    /**
+     * Waits for a write-behind write to commit, blocking the request thread, and rethrows its error as is so it is
+     * answered like the same error of {@link TodoListService}. A write that isn't committed within
+     * {@code todo.write-behind.commit-timeout} is answered with 503.
+     */
+    private static TodoResponse await(CompletableFuture<TodoResponse> write) {
+        try {
+            return write.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException timeout) {
+                throw new WriteTimeoutException(timeout);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package org.jordi.solsona.todolistapplication.api.controller;
+
+import org.jordi.solsona.todolistapplication.commons.exceptions.InvalidPageRequestException;
+import org.jordi.solsona.todolistapplication.config.TodoQueryProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks the paging parameters of the list endpoints before any query runs: a page larger than
+ * {@code todo.query.max-page-size}, or sorted by an attribute outside {@code todo.query.sort-fields}, would make the
+ * database sort the whole table and the application hold it, so it is answered with a 400 instead.
+ */
+@Component
+public class TodoQueryGuard {
+
+    private final TodoQueryProperties properties;
+
+    @Autowired
+    public TodoQueryGuard(TodoQueryProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param page the page number
+     * @param size the page size
+     * @param sortBy the attribute to sort by
+     * @param direction the sort direction
+     * @return the checked {@link Pageable}
+     * @throws InvalidPageRequestException if a parameter is out of its limits.
+     */
+    public Pageable pageable(int page, int size, String sortBy, Sort.Direction direction) {
+        if (page < 0) {
+            throw new InvalidPageRequestException("Page " + page + " is negative");
+        }
+        return PageRequest.of(page, size(size), Sort.by(direction, sortBy(sortBy)));
+    }
+
+    /**
+     * @param size the page size
+     * @return the size, if it is between 1 and the maximum
+     * @throws InvalidPageRequestException otherwise.
+     */
+    public int size(int size) {
+        if (size < 1 || size > this.properties.maxPageSize()) {
+            throw new InvalidPageRequestException("Page size " + size + " is not between 1 and " + this.properties.maxPageSize());
+        }
+        return size;
+    }
+
+    /**
+     * @param sortBy the attribute to sort by
+     * @return the attribute, if the lists can be sorted by it
+     * @throws InvalidPageRequestException otherwise.
+     */
+    public String sortBy(String sortBy) {
+        if (!this.properties.sortFields().contains(sortBy)) {
+            throw new InvalidPageRequestException("Todos can't be sorted by " + sortBy + ", only by " + this.properties.sortFields());
+        }
+        return sortBy;
+    }
+}
@@ -0,0 +1,32 @@
+package org.jordi.solsona.todolistapplication.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one item of a batch request.
+ * @param index the position of the item in the request
+ * @param id the id of the todo, when known
+ * @param status the http status the item would have had as a single request
+ * @param error the reason the item failed, if it did
+ * @param todo the resulting todo, for created and updated items
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(
+        int index,
+        UUID id,
+        int status,
+        String error,
+        TodoResponse todo
+) {
+
+    public static BatchItemResult success(int index, HttpStatus status, UUID id, TodoResponse todo) {
+        return new BatchItemResult(index, id, status.value(), null, todo);
+    }
+
+    public static BatchItemResult failure(int index, HttpStatus status, UUID id, String error) {
+        return new BatchItemResult(index, id, status.value(), error, null);
+    }
+}
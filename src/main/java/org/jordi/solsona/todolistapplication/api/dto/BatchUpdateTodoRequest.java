@@ -0,0 +1,16 @@
+package org.jordi.solsona.todolistapplication.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record BatchUpdateTodoRequest(
+        @NotNull UUID id,
+        @NotBlank String name,
+        String description,
+        Instant dueDate,
+        TodoStatus status
+) {}
@@ -0,0 +1,10 @@
+package org.jordi.solsona.todolistapplication.api.dto;
+
+import java.util.List;
+
+public record CursorPageResponse<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {}
@@ -0,0 +1,24 @@
+package org.jordi.solsona.todolistapplication.api.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of an import.
+ * @param rows the number of rows read
+ * @param imported the number of todos created
+ * @param rejected the number of rows skipped because they were invalid
+ * @param errors the first rejected rows and why they were rejected, at most {@code todo.import.max-reported-errors}
+ */
+public record ImportReport(
+        long rows,
+        long imported,
+        long rejected,
+        List<RowError> errors
+) {
+
+    /**
+     * @param line the line of the body the row starts at
+     * @param error why the row was rejected
+     */
+    public record RowError(long line, String error) {}
+}
@@ -0,0 +1,33 @@
+package org.jordi.solsona.todolistapplication.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * A page of a list, with the keys clients read from Spring Data's {@link Page} and none of its {@code pageable} and
+ * {@code sort} details, which repeat the request. The totals are left out of the pages listed without a count.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PageResponse<T>(
+        List<T> content,
+        int number,
+        int size,
+        Long totalElements,
+        Integer totalPages,
+        boolean last
+) {
+
+    /**
+     * @param slice the page or slice to send
+     * @return its {@link PageResponse}, with the totals when it is a {@link Page}.
+     */
+    public static <T> PageResponse<T> of(Slice<T> slice) {
+        if (slice instanceof Page<T> page) {
+            return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages(), page.isLast());
+        }
+        return new PageResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), null, null, slice.isLast());
+    }
+}
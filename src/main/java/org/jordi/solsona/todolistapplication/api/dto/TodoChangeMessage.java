@@ -0,0 +1,14 @@
+package org.jordi.solsona.todolistapplication.api.dto;
+
+import org.jordi.solsona.todolistapplication.service.TodoChangeEvent;
+
+import java.util.UUID;
+
+/**
+ * The data of a change feed event.
+ * @param type the kind of change
+ * @param id the id of the changed todo
+ * @param todo the todo after the change, {@code null} when it was deleted
+ */
+public record TodoChangeMessage(TodoChangeEvent.Type type, UUID id, TodoResponse todo) {
+}
@@ -10,5 +10,6 @@ public record TodoResponse(
         String name,
         String description,
         Instant dueDate,
-        TodoStatus status
+        TodoStatus status,
+        long version
 ) {}
@@ -0,0 +1,18 @@
+package org.jordi.solsona.todolistapplication.api.dto;
+
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Aggregate statistics of the todos.
+ * @param total the number of todos
+ * @param byStatus the number of todos of each status, todos without a status are only part of the total
+ * @param overdue the number of open todos due before the reference time
+ * @param dueWithin the number of open todos due in each window after the reference time, keyed by the ISO-8601 duration
+ * @param reconciledAt the reference time, when the counters were last recomputed from the database
+ */
+public record TodoStatsResponse(long total, Map<TodoStatus, Long> byStatus, long overdue, Map<String, Long> dueWithin,
+                                Instant reconciledAt) {
+}
@@ -0,0 +1,59 @@
+package org.jordi.solsona.todolistapplication.api.export;
+
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a header and one RFC 4180 line per todo. Fields with commas, quotes or line breaks are quoted.
+ */
+class CsvTodoExportWriter implements TodoExportWriter {
+
+    private static final String HEADER = "id,name,description,dueDate,status";
+
+    private final Writer writer;
+
+    CsvTodoExportWriter(OutputStream outputStream) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        this.writer.write(HEADER);
+        this.writer.write("\r\n");
+    }
+
+    @Override
+    public void write(TodoResponse todo) throws IOException {
+        this.writer.write(String.valueOf(todo.id()));
+        this.writer.write(',');
+        writeField(todo.name());
+        this.writer.write(',');
+        writeField(todo.description());
+        this.writer.write(',');
+        writeField(todo.dueDate() == null ? null : todo.dueDate().toString());
+        this.writer.write(',');
+        writeField(todo.status() == null ? null : todo.status().name());
+        this.writer.write("\r\n");
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            this.writer.write(value);
+            return;
+        }
+        this.writer.write('"');
+        this.writer.write(value.replace("\"", "\"\""));
+        this.writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        //Only flushed, the response stream is closed by the container
+        this.writer.flush();
+    }
+}
@@ -0,0 +1,42 @@
+package org.jordi.solsona.todolistapplication.api.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public enum ExportFormat {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return this.mediaType;
+    }
+
+    public String fileName() {
+        return "todos." + this.extension;
+    }
+
+    /**
+     * Creates a writer of this format.
+     * @param outputStream the stream to write to
+     * @param objectMapper the mapper used to write json
+     * @return a {@link TodoExportWriter} writing to {@code outputStream}.
+     */
+    public TodoExportWriter writer(OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        return switch (this) {
+            case NDJSON -> new NdjsonTodoExportWriter(outputStream, objectMapper);
+            case CSV -> new CsvTodoExportWriter(outputStream);
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package org.jordi.solsona.todolistapplication.api.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes one json document per line, the same json {@code GET /api/lists/{id}} returns. The documents are buffered by
+ * the generator and only flushed when its buffer fills or the writer is closed.
+ */
+class NdjsonTodoExportWriter implements TodoExportWriter {
+
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+
+    NdjsonTodoExportWriter(OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(outputStream).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        //The lines are separated by the new line alone, not the space the generator puts between root values by default
+        this.generator.setRootValueSeparator(null);
+        this.writer = objectMapper.writerFor(TodoResponse.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public void write(TodoResponse todo) throws IOException {
+        this.writer.writeValue(this.generator, todo);
+        this.generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.generator.close();
+    }
+}
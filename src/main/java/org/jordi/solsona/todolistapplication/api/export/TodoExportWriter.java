@@ -0,0 +1,29 @@
+package org.jordi.solsona.todolistapplication.api.export;
+
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes exported todos to an output stream, one at a time, in the format of an {@link ExportFormat}. Closing the writer
+ * flushes it without closing the underlying stream.
+ */
+public interface TodoExportWriter extends Closeable {
+
+    void write(TodoResponse todo) throws IOException;
+
+    /**
+     * {@link #write(TodoResponse)} for callers that can't throw checked exceptions, like a stream consumer.
+     * @param todo the todo to write
+     * @throws UncheckedIOException if it can't be written.
+     */
+    default void writeUnchecked(TodoResponse todo) {
+        try {
+            write(todo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
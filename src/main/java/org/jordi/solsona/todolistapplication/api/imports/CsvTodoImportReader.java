@@ -0,0 +1,170 @@
+package org.jordi.solsona.todolistapplication.api.imports;
+
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 csv, the format {@code GET /api/lists/export?format=CSV} writes. The first line is a header naming the
+ * columns, in any order: {@code name} is required, {@code description}, {@code dueDate} and {@code status} are optional
+ * and other columns are ignored. Due dates are ISO-8601 instants or epoch seconds, empty fields are null.
+ * <p>
+ * A record longer than the maximum is skipped to the end of its line and failed, so a quote that is never closed doesn't
+ * read the rest of the body into a single field.
+ */
+class CsvTodoImportReader implements TodoImportReader {
+
+    private final BufferedReader reader;
+    private final int maxRowLength;
+    private long line;
+    private long nextLine = 1;
+    private int nameColumn = -1;
+    private int descriptionColumn = -1;
+    private int dueDateColumn = -1;
+    private int statusColumn = -1;
+    private String headerError;
+    private boolean tooLong;
+
+    CsvTodoImportReader(BufferedReader reader, int maxRowLength) throws IOException {
+        this.reader = reader;
+        this.maxRowLength = maxRowLength;
+        List<String> header = readRecord();
+        for (int i = 0; header != null && i < header.size(); i++) {
+            switch (header.get(i).trim()) {
+                case "name" -> this.nameColumn = i;
+                case "description" -> this.descriptionColumn = i;
+                case "dueDate" -> this.dueDateColumn = i;
+                case "status" -> this.statusColumn = i;
+                default -> {
+                }
+            }
+        }
+        if (this.tooLong) {
+            this.headerError = "The header is longer than " + maxRowLength + " characters";
+        } else if (this.nameColumn < 0) {
+            this.headerError = "The header has no name column";
+        }
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+        } while (record != null && !this.tooLong && record.size() == 1 && record.get(0).isEmpty());
+
+        if (record == null) {
+            return null;
+        }
+        if (this.headerError != null) {
+            return ImportRow.failed(this.line, this.headerError);
+        }
+        if (this.tooLong) {
+            return ImportRow.tooLong(this.line, this.maxRowLength);
+        }
+        try {
+            return ImportRow.parsed(this.line, new CreateTodoRequest(
+                    field(record, this.nameColumn),
+                    field(record, this.descriptionColumn),
+                    parseDueDate(field(record, this.dueDateColumn)),
+                    parseStatus(field(record, this.statusColumn))));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return ImportRow.failed(this.line, e.getMessage());
+        }
+    }
+
+    private static String field(List<String> record, int column) {
+        if (column < 0 || column >= record.size() || record.get(column).isEmpty()) {
+            return null;
+        }
+        return record.get(column);
+    }
+
+    private static Instant parseDueDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.chars().allMatch(Character::isDigit)) {
+            return Instant.ofEpochSecond(Long.parseLong(value));
+        }
+        return Instant.parse(value);
+    }
+
+    private static TodoStatus parseStatus(String value) {
+        return value == null ? null : TodoStatus.valueOf(value);
+    }
+
+    /**
+     * Reads the fields of the next record. Quoted fields can contain commas, escaped quotes and line breaks. Past
+     * {@code maxRowLength} characters the record is read on to the end of the line, quoted or not, and dropped.
+     * @return the fields, or null at the end of the body.
+     */
+    private List<String> readRecord() throws IOException {
+        int c = this.reader.read();
+        if (c < 0) {
+            return null;
+        }
+        this.line = this.nextLine;
+        this.tooLong = false;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (c >= 0) {
+            if (++length > this.maxRowLength && c != '\r' && c != '\n') {
+                this.tooLong = true;
+                skipLine();
+                return List.of();
+            }
+            if (quoted) {
+                if (c == '"') {
+                    this.reader.mark(1);
+                    if (this.reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        this.reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        this.nextLine++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                this.nextLine++;
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = this.reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void skipLine() throws IOException {
+        for (int c = this.reader.read(); c >= 0; c = this.reader.read()) {
+            if (c == '\n') {
+                this.nextLine++;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+}
@@ -0,0 +1,60 @@
+package org.jordi.solsona.todolistapplication.api.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public enum ImportFormat {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    ImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Finds the format of a request body.
+     * @param contentType the content type of the body
+     * @return the matching {@link ImportFormat}
+     * @throws HttpMediaTypeNotSupportedException if no format matches.
+     */
+    public static ImportFormat of(MediaType contentType) throws HttpMediaTypeNotSupportedException {
+        for (ImportFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(contentType)) {
+                return format;
+            }
+        }
+        throw new HttpMediaTypeNotSupportedException(contentType, List.of(NDJSON.mediaType, CSV.mediaType));
+    }
+
+    /**
+     * Creates a reader of this format.
+     * @param inputStream the body to read
+     * @param charset the charset of the body, UTF-8 if null
+     * @param objectMapper the mapper used to read json
+     * @param maxRowLength the maximum length of a row, in characters, longer rows are skipped and failed
+     * @return a {@link TodoImportReader} reading {@code inputStream}.
+     */
+    public TodoImportReader reader(InputStream inputStream, Charset charset, ObjectMapper objectMapper, int maxRowLength)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, charset == null ? StandardCharsets.UTF_8 : charset));
+        return switch (this) {
+            case NDJSON -> new NdjsonTodoImportReader(reader, objectMapper, maxRowLength);
+            case CSV -> new CsvTodoImportReader(reader, maxRowLength);
+        };
+    }
+}
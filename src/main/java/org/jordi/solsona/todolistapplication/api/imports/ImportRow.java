@@ -0,0 +1,24 @@
+package org.jordi.solsona.todolistapplication.api.imports;
+
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+
+/**
+ * One row of an import body.
+ * @param line the line of the body the row starts at, counting from 1
+ * @param request the parsed row, null if it couldn't be parsed
+ * @param error why the row couldn't be parsed, null if it could
+ */
+public record ImportRow(long line, CreateTodoRequest request, String error) {
+
+    public static ImportRow parsed(long line, CreateTodoRequest request) {
+        return new ImportRow(line, request, null);
+    }
+
+    public static ImportRow failed(long line, String error) {
+        return new ImportRow(line, null, error);
+    }
+
+    public static ImportRow tooLong(long line, int maxLength) {
+        return failed(line, "The row is longer than " + maxLength + " characters");
+    }
+}
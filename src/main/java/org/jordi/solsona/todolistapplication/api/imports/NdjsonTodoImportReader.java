@@ -0,0 +1,78 @@
+package org.jordi.solsona.todolistapplication.api.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads one {@link CreateTodoRequest} json document per line. Blank lines are skipped, lines longer than the maximum
+ * are skipped to their end and failed.
+ */
+class NdjsonTodoImportReader implements TodoImportReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private final int maxRowLength;
+    private final StringBuilder json = new StringBuilder();
+    private long line;
+    private boolean tooLong;
+
+    NdjsonTodoImportReader(BufferedReader reader, ObjectMapper objectMapper, int maxRowLength) {
+        this.reader = reader;
+        this.objectReader = objectMapper.readerFor(CreateTodoRequest.class);
+        this.maxRowLength = maxRowLength;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String json;
+        do {
+            json = readLine();
+            this.line++;
+        } while (json != null && !this.tooLong && json.isBlank());
+
+        if (json == null) {
+            return null;
+        }
+        if (this.tooLong) {
+            return ImportRow.tooLong(this.line, this.maxRowLength);
+        }
+        try {
+            return ImportRow.parsed(this.line, this.objectReader.readValue(json));
+        } catch (JsonProcessingException e) {
+            return ImportRow.failed(this.line, e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Reads the next line, unlike {@link BufferedReader#readLine()} keeping at most {@code maxRowLength} characters of
+     * it.
+     * @return the line, or null at the end of the body.
+     */
+    private String readLine() throws IOException {
+        int c = this.reader.read();
+        if (c < 0) {
+            return null;
+        }
+        this.json.setLength(0);
+        this.tooLong = false;
+        while (c >= 0 && c != '\n') {
+            if (this.json.length() < this.maxRowLength) {
+                this.json.append((char) c);
+            } else if (c != '\r') {
+                this.tooLong = true;
+            }
+            c = this.reader.read();
+        }
+        return this.json.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+}
@@ -0,0 +1,21 @@
+package org.jordi.solsona.todolistapplication.api.imports;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the rows of an import body one at a time, so the body is never held in memory. A row that can't be parsed is
+ * returned as a failed {@link ImportRow} and reading carries on with the next one.
+ */
+public interface TodoImportReader extends Closeable {
+
+    /**
+     * @return the next {@link ImportRow}, or null at the end of the body.
+     * @throws IOException if the body can't be read.
+     */
+    ImportRow next() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,26 @@
+package org.jordi.solsona.todolistapplication.commons.datasource;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Carries whether the reads go to the primary, see {@link ReplicaRoutingDataSource#requirePrimary}, from the thread that
+ * submits a task to the thread that runs it. Without it the async part of a request, e.g. the streaming of an export,
+ * would read from a replica right after a write of the same client.
+ */
+public class PrimaryRequirementTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        boolean required = ReplicaRoutingDataSource.isPrimaryRequired();
+        return () -> {
+            //The task may run on the submitting thread, which has to get its own requirement back
+            boolean previous = ReplicaRoutingDataSource.isPrimaryRequired();
+            ReplicaRoutingDataSource.requirePrimary(required);
+            try {
+                runnable.run();
+            } finally {
+                ReplicaRoutingDataSource.requirePrimary(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package org.jordi.solsona.todolistapplication.commons.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Sends the reads of a client to the primary for a short window after one of its writes succeeded, so it never reads a
+ * replica that hasn't replayed them yet. Clients are told apart by their {@value #CLIENT_ID_HEADER} header, or their
+ * address when they don't send one. The recent writers are kept in memory: with several instances behind a load
+ * balancer, only the instance that served the write knows about it.
+ * <p>
+ * The choice is kept in a thread local of the request thread. Work the request hands to another thread only keeps it if
+ * the executor is decorated with a {@link PrimaryRequirementTaskDecorator}, as the async request executor is.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_TRACKED_CLIENTS = 100_000;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    /**
+     * @param window how long the reads of a client go to the primary after its last write
+     */
+    public ReadYourWritesFilter(Duration window) {
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(window).maximumSize(MAX_TRACKED_CLIENTS).build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientOf(request);
+        boolean write = WRITE_METHODS.contains(request.getMethod());
+        boolean recentWriter = this.recentWriters.getIfPresent(client) != null;
+        //The write commits before the response is sent, and the client may read again as soon as it has it, before this
+        //filter gets to run again: the client is recorded up front, and forgotten again if the write failed
+        if (write) {
+            this.recentWriters.put(client, Boolean.TRUE);
+        }
+        ReplicaRoutingDataSource.requirePrimary(write || recentWriter);
+        boolean succeeded = false;
+        try {
+            filterChain.doFilter(request, response);
+            succeeded = response.getStatus() < 400;
+        } finally {
+            ReplicaRoutingDataSource.requirePrimary(false);
+            if (write && succeeded) {
+                //The window starts over from the commit
+                this.recentWriters.put(client, Boolean.TRUE);
+            } else if (write && !recentWriter) {
+                this.recentWriters.invalidate(client);
+            }
+        }
+    }
+
+    private static String clientOf(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,105 @@
+package org.jordi.solsona.todolistapplication.commons.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read replicas, handed out round-robin among the healthy ones. A replica is healthy when it accepts connections and
+ * its replay is no further behind the primary than the allowed lag; {@link #checkHealth()} is run periodically to take
+ * replicas out of the rotation and back in.
+ */
+public class ReplicaPool implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaPool.class);
+
+    //A replica that replayed everything it received is caught up, however long ago the last write on the primary was
+    private static final String LAG_SQL = """
+            select case when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end""";
+
+    private final List<HikariDataSource> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<HikariDataSource> healthy;
+
+    /**
+     * @param replicas the connection pools of the replicas, all considered healthy until the first check
+     * @param maxLag how far behind the primary a healthy replica can be
+     */
+    public ReplicaPool(List<HikariDataSource> replicas, Duration maxLag) {
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+        this.healthy = this.replicas;
+    }
+
+    /**
+     * @return the next healthy replica, or {@code null} if there is none.
+     */
+    public DataSource next() {
+        List<HikariDataSource> current = this.healthy;
+        if (current.isEmpty()) {
+            return null;
+        }
+        return current.get(Math.floorMod(this.next.getAndIncrement(), current.size()));
+    }
+
+    /**
+     * @return the number of replicas in the rotation.
+     */
+    public int healthyCount() {
+        return this.healthy.size();
+    }
+
+    /**
+     * Takes a replica that failed to give a connection out of the rotation until the next health check.
+     * @param replica the replica that failed
+     * @param cause the failure
+     */
+    public void markDown(DataSource replica, SQLException cause) {
+        LOGGER.warn("Replica {} is down, reads fall back to the other replicas or the primary", name(replica), cause);
+        this.healthy = this.healthy.stream().filter(healthyReplica -> healthyReplica != replica).toList();
+    }
+
+    /**
+     * Checks every replica and replaces the rotation with the healthy ones.
+     */
+    public void checkHealth() {
+        this.healthy = this.replicas.stream().filter(this::isHealthy).toList();
+    }
+
+    private boolean isHealthy(HikariDataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet lag = statement.executeQuery(LAG_SQL)) {
+            lag.next();
+            double lagSeconds = lag.getDouble(1);
+            if (lagSeconds * 1000 > this.maxLag.toMillis()) {
+                LOGGER.warn("Replica {} lags {}s behind the primary, out of the rotation", name(replica), lagSeconds);
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            LOGGER.warn("Replica {} failed its health check, out of the rotation: {}", name(replica), e.getMessage());
+            return false;
+        }
+    }
+
+    private static String name(DataSource replica) {
+        return replica instanceof HikariDataSource hikari ? hikari.getPoolName() : replica.toString();
+    }
+
+    @Override
+    public void close() {
+        this.replicas.forEach(HikariDataSource::close);
+    }
+}
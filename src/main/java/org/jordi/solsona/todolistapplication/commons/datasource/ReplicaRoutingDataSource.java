@@ -0,0 +1,103 @@
+package org.jordi.solsona.todolistapplication.commons.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything else. The transaction
+ * has to be known when the connection is requested, so this data source is meant to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which only fetches the connection on the
+ * first statement, after the transaction manager set the read-only flag.
+ * <p>
+ * A read falls back to the primary when no replica is healthy, when the replica it got fails to give a connection, or
+ * when the current thread {@link #requirePrimary requires the primary}, e.g. to read its own writes.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final ReplicaPool replicas;
+
+    /**
+     * @param primary the data source of the writes, and of the reads when no replica can serve them
+     * @param replicas the replicas of the read-only transactions
+     */
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaPool replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    /**
+     * Sends, or stops sending, the read-only transactions of the current thread to the primary.
+     * @param required true to read from the primary, false to go back to the replicas
+     */
+    public static void requirePrimary(boolean required) {
+        if (required) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    /**
+     * Runs a read on the primary, then gives the current thread its own requirement back. The read-only transaction of
+     * the read can already be open: the connection is only fetched on its first statement.
+     * @param read the read
+     * @return the result of the read
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        boolean previous = isPrimaryRequired();
+        requirePrimary(true);
+        try {
+            return read.get();
+        } finally {
+            requirePrimary(previous);
+        }
+    }
+
+    /**
+     * @return true if the read-only transactions of the current thread go to the primary.
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource replica = replicaForCurrentTransaction();
+        if (replica != null) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                this.replicas.markDown(replica, e);
+            }
+        }
+        return this.primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource replica = replicaForCurrentTransaction();
+        if (replica != null) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                this.replicas.markDown(replica, e);
+            }
+        }
+        return this.primary.getConnection(username, password);
+    }
+
+    private DataSource replicaForCurrentTransaction() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isPrimaryRequired()) {
+            return null;
+        }
+        return this.replicas.next();
+    }
+}
@@ -0,0 +1,12 @@
+package org.jordi.solsona.todolistapplication.commons.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BatchTooLargeException extends RuntimeException{
+
+    public BatchTooLargeException(int size, int maxSize) {
+        super("Batch of " + size + " items exceeds the maximum of " + maxSize);
+    }
+}
@@ -0,0 +1,12 @@
+package org.jordi.solsona.todolistapplication.commons.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSearchQueryException extends RuntimeException{
+
+    public InvalidSearchQueryException(String query) {
+        super("Invalid search query '" + query + "'");
+    }
+}
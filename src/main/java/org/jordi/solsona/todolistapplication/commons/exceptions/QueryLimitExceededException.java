@@ -0,0 +1,12 @@
+package org.jordi.solsona.todolistapplication.commons.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class QueryLimitExceededException extends RuntimeException{
+
+    public QueryLimitExceededException(int limit) {
+        super("The limit of " + limit + " concurrent list queries is reached, retry later");
+    }
+}
@@ -0,0 +1,17 @@
+package org.jordi.solsona.todolistapplication.commons.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class TodoVersionMismatchException extends RuntimeException{
+
+    public TodoVersionMismatchException(UUID listId, Collection<Long> expectedVersions, long version) {
+        super("List " + listId + " is at version " + version + ", not "
+                + (expectedVersions.isEmpty() ? "an expected one" : expectedVersions.stream().map(String::valueOf).collect(Collectors.joining(" or "))));
+    }
+}
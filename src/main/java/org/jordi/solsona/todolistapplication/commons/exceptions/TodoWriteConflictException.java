@@ -0,0 +1,12 @@
+package org.jordi.solsona.todolistapplication.commons.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class TodoWriteConflictException extends RuntimeException{
+
+    public TodoWriteConflictException(Throwable cause) {
+        super("The lists were moved by a concurrent write, e.g. archived or reopened, retry", cause);
+    }
+}
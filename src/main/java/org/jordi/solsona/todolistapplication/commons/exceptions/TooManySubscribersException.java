@@ -0,0 +1,12 @@
+package org.jordi.solsona.todolistapplication.commons.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TooManySubscribersException extends RuntimeException{
+
+    public TooManySubscribersException(int maxSubscribers) {
+        super("The change feed already has " + maxSubscribers + " subscribers");
+    }
+}
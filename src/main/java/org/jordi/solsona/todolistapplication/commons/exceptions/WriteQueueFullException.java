@@ -0,0 +1,12 @@
+package org.jordi.solsona.todolistapplication.commons.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class WriteQueueFullException extends RuntimeException{
+
+    public WriteQueueFullException(int capacity) {
+        super("The write queue already holds " + capacity + " writes, retry later");
+    }
+}
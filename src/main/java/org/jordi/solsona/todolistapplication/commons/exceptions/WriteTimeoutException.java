@@ -0,0 +1,12 @@
+package org.jordi.solsona.todolistapplication.commons.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteTimeoutException extends RuntimeException{
+
+    public WriteTimeoutException(Throwable cause) {
+        super("The write wasn't committed in time, it may still be, read the list before retrying", cause);
+    }
+}
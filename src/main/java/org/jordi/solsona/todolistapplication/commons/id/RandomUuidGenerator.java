@@ -0,0 +1,15 @@
+package org.jordi.solsona.todolistapplication.commons.id;
+
+import java.util.UUID;
+
+/**
+ * Generates random (version 4) UUIDs. Kept for comparison with {@link UuidV7Generator}, random keys spread inserts
+ * across the whole primary key index.
+ */
+public class RandomUuidGenerator implements TodoIdGenerator {
+
+    @Override
+    public UUID generate() {
+        return UUID.randomUUID();
+    }
+}
@@ -0,0 +1,15 @@
+package org.jordi.solsona.todolistapplication.commons.id;
+
+import java.util.UUID;
+
+/**
+ * Strategy generating the ids of new todos. Implementations are called concurrently from every request thread.
+ */
+@FunctionalInterface
+public interface TodoIdGenerator {
+
+    /**
+     * @return a new, unique id.
+     */
+    UUID generate();
+}
@@ -0,0 +1,51 @@
+package org.jordi.solsona.todolistapplication.commons.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates time ordered (version 7) UUIDs as defined by RFC 9562: a 48 bit unix timestamp in milliseconds, a 12 bit
+ * counter and 62 random bits. New ids land at the right edge of the primary key index instead of anywhere in it.
+ * <p>
+ * The timestamp and the counter are kept in a single {@link AtomicLong} updated with a compare-and-set loop, so ids are
+ * strictly increasing across threads without locking. When more than 4096 ids are requested within the same
+ * millisecond the counter carries over into the timestamp, which keeps the order at the cost of running slightly ahead
+ * of the clock. The only allocation per id is the returned {@link UUID}.
+ */
+public class UuidV7Generator implements TodoIdGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+    private final LongSupplier clock;
+
+    public UuidV7Generator() {
+        this(System::currentTimeMillis);
+    }
+
+    UuidV7Generator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public UUID generate() {
+        long now = this.clock.getAsLong() << COUNTER_BITS;
+        long previous;
+        long next;
+        do {
+            previous = this.lastTimestampAndCounter.get();
+            next = Math.max(previous + 1, now);
+        } while (!this.lastTimestampAndCounter.compareAndSet(previous, next));
+
+        long timestamp = next >>> COUNTER_BITS;
+        long mostSignificantBits = (timestamp << 16) | VERSION | (next & COUNTER_MASK);
+        long leastSignificantBits = VARIANT | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
@@ -0,0 +1,80 @@
+package org.jordi.solsona.todolistapplication.commons.limits;
+
+/**
+ * A concurrency limit adjusted like TCP's congestion window: additive increase, multiplicative decrease. While the
+ * queries are fast and the limit is in use, it grows by one for every limit's worth of queries completed. A query slower
+ * than the latency threshold, or failed, cuts it by the backoff ratio, at most once for the queries started before the
+ * last cut, so one burst of slow queries counts as one overload.
+ */
+public class AimdConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+
+    /**
+     * @param initialLimit the limit to start from
+     * @param minLimit the lowest limit
+     * @param maxLimit the highest limit
+     * @param latencyThresholdNanos the latency above which a query signals an overload
+     * @param backoffRatio the factor the limit is multiplied by on overload
+     * @param nowNanos the current {@link System#nanoTime()}
+     */
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio, long nowNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecreaseNanos = nowNanos;
+    }
+
+    /**
+     * @return true if the query can run, and must then be {@link #release released}, false if the limit is reached.
+     */
+    public synchronized boolean tryAcquire() {
+        if (this.inFlight >= limit()) {
+            return false;
+        }
+        this.inFlight++;
+        return true;
+    }
+
+    /**
+     * Ends a query started with a successful {@link #tryAcquire()} and adjusts the limit.
+     * @param startNanos the {@link System#nanoTime()} the query started at
+     * @param endNanos the {@link System#nanoTime()} the query ended at
+     * @param failed true if the query failed
+     */
+    public synchronized void release(long startNanos, long endNanos, boolean failed) {
+        int running = this.inFlight--;
+        if (failed || endNanos - startNanos > this.latencyThresholdNanos) {
+            if (startNanos - this.lastDecreaseNanos > 0) {
+                this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+                this.lastDecreaseNanos = endNanos;
+            }
+        } else if (running * 2 >= this.limit) {
+            //Only grown while at least half of it is used, a mostly idle limit says nothing about the capacity
+            this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+        }
+    }
+
+    /**
+     * @return the current number of concurrent queries allowed.
+     */
+    public synchronized int limit() {
+        return (int) this.limit;
+    }
+
+    /**
+     * @return the number of queries running.
+     */
+    public synchronized int inFlight() {
+        return this.inFlight;
+    }
+}
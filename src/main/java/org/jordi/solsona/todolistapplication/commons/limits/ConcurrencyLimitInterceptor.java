@@ -0,0 +1,50 @@
+package org.jordi.solsona.todolistapplication.commons.limits;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jordi.solsona.todolistapplication.commons.exceptions.QueryLimitExceededException;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Sheds the {@code GET} requests it is mapped to once an {@link AimdConcurrencyLimiter} is full, with a 503, before
+ * their query takes a connection. The latency of the requests it let through, and whether they failed with a server
+ * error, adjust the limit. Only for handlers that complete on the request thread.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final AimdConcurrencyLimiter limiter;
+    private final Counter rejected;
+
+    /**
+     * @param limiter the limit of the mapped requests
+     * @param rejected counts the requests shed
+     */
+    public ConcurrencyLimitInterceptor(AimdConcurrencyLimiter limiter, Counter rejected) {
+        this.limiter = limiter;
+        this.rejected = rejected;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        if (!this.limiter.tryAcquire()) {
+            this.rejected.increment();
+            throw new QueryLimitExceededException(this.limiter.limit());
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+            request.removeAttribute(START_ATTRIBUTE);
+            this.limiter.release(start, System.nanoTime(), ex != null || response.getStatus() >= 500);
+        }
+    }
+}
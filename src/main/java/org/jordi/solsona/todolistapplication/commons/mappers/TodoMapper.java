@@ -3,6 +3,7 @@ package org.jordi.solsona.todolistapplication.commons.mappers;
 import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
 import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
 import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoView;
 import org.mapstruct.Mapper;
 
 @Mapper(componentModel = "spring")
@@ -11,4 +12,6 @@ public interface TodoMapper {
     Todo toEntity(CreateTodoRequest request);
 
     TodoResponse toResponse(Todo todo);
+
+    TodoResponse toResponse(TodoView view);
 }
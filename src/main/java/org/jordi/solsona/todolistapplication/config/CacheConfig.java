@@ -0,0 +1,19 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Enables the todo cache. The caching advice runs outside the transactional one, so evictions happen once the
+ * transaction has committed and a concurrent read can't put back a todo that is still being changed.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    /**
+     * Cache of {@link org.jordi.solsona.todolistapplication.api.dto.TodoResponse} by todo id.
+     */
+    public static final String TODOS_CACHE = "todos";
+}
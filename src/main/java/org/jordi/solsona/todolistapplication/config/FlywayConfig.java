@@ -0,0 +1,21 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Flyway takes its PostgreSQL migration lock inside an open transaction by default, and CREATE INDEX CONCURRENTLY
+     * waits for every open transaction to finish, so it would wait on flyway itself. A session level lock avoids that.
+     * @return the {@link FlywayConfigurationCustomizer} switching to a session level lock.
+     */
+    @Bean
+    public FlywayConfigurationCustomizer sessionLevelMigrationLock() {
+        return configuration -> configuration.configuration(Map.of("flyway.postgresql.transactional.lock", "false"));
+    }
+}
@@ -0,0 +1,32 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.jordi.solsona.todolistapplication.commons.id.RandomUuidGenerator;
+import org.jordi.solsona.todolistapplication.commons.id.TodoIdGenerator;
+import org.jordi.solsona.todolistapplication.commons.id.UuidV7Generator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    /**
+     * Time ordered ids, the default.
+     * @return a {@link UuidV7Generator}
+     */
+    @Bean
+    @ConditionalOnProperty(name = "todo.id.generator", havingValue = "v7", matchIfMissing = true)
+    public TodoIdGenerator uuidV7Generator() {
+        return new UuidV7Generator();
+    }
+
+    /**
+     * Random ids, selected with {@code todo.id.generator=random}.
+     * @return a {@link RandomUuidGenerator}
+     */
+    @Bean
+    @ConditionalOnProperty(name = "todo.id.generator", havingValue = "random")
+    public TodoIdGenerator randomUuidGenerator() {
+        return new RandomUuidGenerator();
+    }
+}
@@ -0,0 +1,12 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * Enables JPA auditing, which fills the {@code createdAt} and {@code updatedAt} of the todos written through JPA.
+ */
+@Configuration
+@EnableJpaAuditing
+public class JpaAuditingConfig {
+}
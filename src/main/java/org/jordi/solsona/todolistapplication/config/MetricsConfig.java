@@ -0,0 +1,21 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Records the methods annotated with {@link io.micrometer.core.annotation.Timed}, like the
+     * {@link org.jordi.solsona.todolistapplication.service.TodoListService} ones. Requests are already timed by Spring MVC.
+     * @param meterRegistry the registry the timers are recorded in
+     * @return a {@link TimedAspect}
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
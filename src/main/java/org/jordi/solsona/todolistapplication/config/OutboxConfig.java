@@ -0,0 +1,38 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jordi.solsona.todolistapplication.service.outbox.FileTodoOutboxSink;
+import org.jordi.solsona.todolistapplication.service.outbox.InMemoryTodoOutboxSink;
+import org.jordi.solsona.todolistapplication.service.outbox.TodoOutboxSink;
+import org.jordi.solsona.todolistapplication.service.outbox.WebhookTodoOutboxSink;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Creates the {@link TodoOutboxSink} picked with {@code todo.outbox.sink}.
+ */
+@Configuration
+public class OutboxConfig {
+
+    /**
+     * @param properties the outbox settings
+     * @param objectMapper the mapper the file and webhook sinks write the messages with
+     * @return the {@link TodoOutboxSink} of {@code todo.outbox.sink}
+     * @throws IOException if the file of the file sink can't be opened.
+     */
+    @Bean
+    public TodoOutboxSink todoOutboxSink(TodoOutboxProperties properties, ObjectMapper objectMapper) throws IOException {
+        return switch (properties.sink()) {
+            case MEMORY -> new InMemoryTodoOutboxSink();
+            case FILE -> new FileTodoOutboxSink(properties.file(), objectMapper);
+            case WEBHOOK -> {
+                if (properties.webhookUrl() == null) {
+                    throw new IllegalStateException("todo.outbox.webhook-url is required by the webhook sink");
+                }
+                yield new WebhookTodoOutboxSink(properties.webhookUrl(), properties.webhookTimeout(), objectMapper);
+            }
+        };
+    }
+}
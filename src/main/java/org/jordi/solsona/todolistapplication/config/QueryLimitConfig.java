@@ -0,0 +1,46 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jordi.solsona.todolistapplication.commons.limits.AimdConcurrencyLimiter;
+import org.jordi.solsona.todolistapplication.commons.limits.ConcurrencyLimitInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts the list and search queries of {@code /api/lists} behind an {@link AimdConcurrencyLimiter}, unless
+ * {@code todo.query.limiter.enabled} is false. When the database slows down the limit drops and the queries above it are
+ * answered with a 503 right away, instead of queueing for a connection until every request times out.
+ */
+@Configuration
+public class QueryLimitConfig implements WebMvcConfigurer {
+
+    private final TodoQueryProperties.Limiter properties;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public QueryLimitConfig(TodoQueryProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.limiter();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!this.properties.enabled()) {
+            return;
+        }
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(this.properties.initialLimit(), this.properties.minLimit(),
+                this.properties.maxLimit(), this.properties.latencyThreshold().toNanos(), this.properties.backoffRatio(), System.nanoTime());
+        Gauge.builder("todo.query.limit", limiter, AimdConcurrencyLimiter::limit)
+                .description("Concurrent list queries currently allowed").register(this.meterRegistry);
+        Gauge.builder("todo.query.in.flight", limiter, AimdConcurrencyLimiter::inFlight)
+                .description("List queries running").register(this.meterRegistry);
+        Counter rejected = Counter.builder("todo.query.rejected")
+                .description("List queries shed because the concurrency limit was reached").register(this.meterRegistry);
+
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(limiter, rejected)).addPathPatterns("/api/lists", "/api/lists/search");
+    }
+}
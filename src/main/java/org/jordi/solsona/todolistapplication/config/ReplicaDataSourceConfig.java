@@ -0,0 +1,134 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jordi.solsona.todolistapplication.commons.datasource.PrimaryRequirementTaskDecorator;
+import org.jordi.solsona.todolistapplication.commons.datasource.ReadYourWritesFilter;
+import org.jordi.solsona.todolistapplication.commons.datasource.ReplicaPool;
+import org.jordi.solsona.todolistapplication.commons.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads the read-only transactions, such as the lists and their counts, over the read replicas listed in
+ * {@code todo.datasource.replicas}, and keeps every other transaction on {@code spring.datasource}. Without replicas
+ * none of this is created and Spring Boot's single data source is used.
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.datasource.replicas[0].url")
+public class ReplicaDataSourceConfig {
+
+    private final TodoDataSourceProperties properties;
+    private final ObjectProvider<ReplicaPool> replicaPool;
+
+    @Autowired
+    public ReplicaDataSourceConfig(TodoDataSourceProperties properties, ObjectProvider<ReplicaPool> replicaPool) {
+        this.properties = properties;
+        this.replicaPool = replicaPool;
+    }
+
+    /**
+     * The primary, configured as Spring Boot would with {@code spring.datasource} and {@code spring.datasource.hikari}.
+     * @param dataSourceProperties the {@code spring.datasource} properties
+     * @return the connection pool of the primary
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * A connection pool for each replica. The pools connect on their first use, so a replica that is down when the
+     * application starts doesn't stop it, it just stays out of the rotation until it passes a health check.
+     * @param dataSourceProperties the {@code spring.datasource} properties, the default credentials of the replicas
+     * @param meterRegistry the registry the pool metrics and the healthy replica gauge are recorded in
+     * @return the {@link ReplicaPool}
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaPool replicaPool(DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (TodoDataSourceProperties.Replica replica : this.properties.replicas()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (replicas.size() + 1));
+            pool.setJdbcUrl(replica.url());
+            pool.setUsername(replica.username() != null ? replica.username() : dataSourceProperties.determineUsername());
+            pool.setPassword(replica.password() != null ? replica.password() : dataSourceProperties.determinePassword());
+            pool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            pool.setMaximumPoolSize(this.properties.replicaPoolSize());
+            pool.setConnectionTimeout(this.properties.connectTimeout().toMillis());
+            pool.setReadOnly(true);
+            //Tells the replica connections apart in pg_stat_activity
+            pool.addDataSourceProperty("ApplicationName", pool.getPoolName());
+            pool.setMetricRegistry(meterRegistry);
+            replicas.add(pool);
+        }
+
+        ReplicaPool replicaPool = new ReplicaPool(replicas, this.properties.maxLag());
+        replicaPool.checkHealth();
+        Gauge.builder("todo.datasource.replicas.healthy", replicaPool, ReplicaPool::healthyCount)
+                .description("Read replicas in the rotation").register(meterRegistry);
+        return replicaPool;
+    }
+
+    /**
+     * The data source of the application, JPA, JDBC and Flyway included. The lazy proxy defers fetching the connection
+     * until the first statement, when the transaction it runs in, and whether it is read-only, is known.
+     * @param primaryDataSource the connection pool of the primary
+     * @param replicaPool the replicas
+     * @return the routing {@link DataSource}
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaPool));
+    }
+
+    /**
+     * @return the {@link ReadYourWritesFilter}, ahead of every other filter so its whole request is routed the same
+     * way, disabled when {@code todo.datasource.read-your-writes} is zero
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(this.properties.readYourWrites()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(!this.properties.readYourWrites().isZero());
+        return registration;
+    }
+
+    /**
+     * Picked up by the async request executor, Spring Boot's or the one of {@link VirtualThreadConfig}, so the async
+     * part of a request, e.g. the streaming of an export, reads from where its request thread would.
+     * @return the {@link PrimaryRequirementTaskDecorator}
+     */
+    @Bean
+    public TaskDecorator primaryRequirementTaskDecorator() {
+        return new PrimaryRequirementTaskDecorator();
+    }
+
+    /**
+     * Takes the replicas that are down or lag too far behind out of the rotation, and back in once they recovered.
+     */
+    @Scheduled(fixedDelayString = "${todo.datasource.health-check-interval:PT5S}",
+            initialDelayString = "${todo.datasource.health-check-interval:PT5S}")
+    public void checkReplicaHealth() {
+        this.replicaPool.getObject().checkHealth();
+    }
+}
@@ -0,0 +1,12 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background jobs, such as the reconciliation of the todo statistics.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
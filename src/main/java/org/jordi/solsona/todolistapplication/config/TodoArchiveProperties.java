@@ -0,0 +1,18 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the archival of completed todos.
+ * @param enabled false to keep every todo in the active partition
+ * @param completedFor how long a todo stays completed, without updates, before it is archived
+ * @param interval how often the archival job runs
+ * @param batchSize the maximum number of todos archived per transaction
+ */
+@ConfigurationProperties(prefix = "todo.archive")
+public record TodoArchiveProperties(@DefaultValue("true") boolean enabled, @DefaultValue("P30D") Duration completedFor,
+                                    @DefaultValue("PT1H") Duration interval, @DefaultValue("1000") int batchSize) {
+}
@@ -0,0 +1,12 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits of the batch endpoints.
+ * @param maxSize the maximum number of items accepted in a single batch request
+ */
+@ConfigurationProperties(prefix = "todo.batch")
+public record TodoBatchProperties(@DefaultValue("1000") int maxSize) {
+}
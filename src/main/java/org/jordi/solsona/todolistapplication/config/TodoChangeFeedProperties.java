@@ -0,0 +1,24 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the change feed.
+ * @param bufferSize the number of recent changes kept for subscribers to resume from
+ * @param queueSize the number of changes a subscriber can have left to send before it is told to resync, bounded by
+ *                  {@code bufferSize}
+ * @param maxSubscribers the maximum number of concurrent subscribers of this node
+ * @param heartbeat how long a subscriber can go without a change before a comment is sent to keep the connection open
+ * @param timeout how long a subscription lasts before the client has to reconnect
+ * @param writeTimeout how long a send to a subscriber can take before the subscriber is dropped
+ * @param senderThreads the number of platform threads sending the changes to the subscribers
+ */
+@ConfigurationProperties(prefix = "todo.changes")
+public record TodoChangeFeedProperties(@DefaultValue("10000") int bufferSize, @DefaultValue("1000") int queueSize,
+                                       @DefaultValue("10000") int maxSubscribers, @DefaultValue("PT15S") Duration heartbeat,
+                                       @DefaultValue("PT30M") Duration timeout, @DefaultValue("PT10S") Duration writeTimeout,
+                                       @DefaultValue("4") int senderThreads) {
+}
@@ -0,0 +1,32 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the read replicas. Without replicas every query goes to {@code spring.datasource}.
+ * @param replicas the replicas read-only transactions are spread over
+ * @param replicaPoolSize the maximum number of connections of the pool of each replica
+ * @param connectTimeout how long to wait for a replica connection before falling back to the primary
+ * @param healthCheckInterval how often the replicas are checked, and taken out of or back in the rotation
+ * @param maxLag how far behind the primary a replica can replay before it is taken out of the rotation
+ * @param readYourWrites how long the reads of a client go to the primary after one of its writes, zero to disable
+ */
+@ConfigurationProperties(prefix = "todo.datasource")
+public record TodoDataSourceProperties(@DefaultValue List<Replica> replicas, @DefaultValue("10") int replicaPoolSize,
+                                       @DefaultValue("PT2S") Duration connectTimeout,
+                                       @DefaultValue("PT5S") Duration healthCheckInterval,
+                                       @DefaultValue("PT10S") Duration maxLag, @DefaultValue("PT5S") Duration readYourWrites) {
+
+    /**
+     * A read replica.
+     * @param url the JDBC url of the replica
+     * @param username the user, {@code spring.datasource.username} if not set
+     * @param password the password, {@code spring.datasource.password} if not set
+     */
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,16 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the import endpoint.
+ * @param chunkSize the number of rows sent to the database in each COPY
+ * @param maxReportedErrors the maximum number of rejected rows listed in the import report
+ * @param maxRowLength the maximum length of a row, in characters, well above a valid row, whose name and description
+ *                     are 255 characters at most: a longer row is rejected without being held in memory
+ */
+@ConfigurationProperties(prefix = "todo.import")
+public record TodoImportProperties(@DefaultValue("5000") int chunkSize, @DefaultValue("100") int maxReportedErrors,
+                                   @DefaultValue("4096") int maxRowLength) {
+}
@@ -0,0 +1,32 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of the transactional outbox of todo changes.
+ * @param enabled true to record every change in {@code todo_outbox} and relay it to the sink
+ * @param sink where the changes are relayed to
+ * @param batchSize the maximum number of changes relayed per transaction
+ * @param interval how often the relay looks for new changes
+ * @param file the file the {@link Sink#FILE} sink appends to
+ * @param webhookUrl the URL the {@link Sink#WEBHOOK} sink posts to
+ * @param webhookTimeout how long the {@link Sink#WEBHOOK} sink waits for an answer
+ */
+@ConfigurationProperties(prefix = "todo.outbox")
+public record TodoOutboxProperties(@DefaultValue("false") boolean enabled, @DefaultValue("MEMORY") Sink sink,
+                                   @DefaultValue("500") int batchSize, @DefaultValue("PT1S") Duration interval,
+                                   @DefaultValue("todo-outbox.ndjson") Path file, URI webhookUrl,
+                                   @DefaultValue("PT5S") Duration webhookTimeout) {
+
+    /**
+     * The destinations of the relayed changes.
+     */
+    public enum Sink {
+        MEMORY, FILE, WEBHOOK
+    }
+}
@@ -0,0 +1,33 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Limits of the list queries.
+ * @param maxPageSize the largest page the list, scroll and search endpoints return
+ * @param sortFields the {@code Todo} attributes the lists can be sorted by, those an index returns in order
+ * @param limiter the adaptive concurrency limit of the list and search queries
+ */
+@ConfigurationProperties(prefix = "todo.query")
+public record TodoQueryProperties(@DefaultValue("100") int maxPageSize, @DefaultValue({"dueDate", "id"}) Set<String> sortFields,
+                                  @DefaultValue Limiter limiter) {
+
+    /**
+     * An AIMD concurrency limit: it grows by one every limit's worth of fast queries while it is in use, and is cut by
+     * {@code backoffRatio} when a query is slower than {@code latencyThreshold} or fails.
+     * @param enabled false to run every query however many are already running
+     * @param initialLimit the number of concurrent queries allowed at startup
+     * @param minLimit the limit is never cut below it
+     * @param maxLimit the limit never grows above it
+     * @param latencyThreshold the latency above which a query is taken as a sign of overload
+     * @param backoffRatio the factor the limit is multiplied by on overload
+     */
+    public record Limiter(@DefaultValue("true") boolean enabled, @DefaultValue("20") int initialLimit,
+                          @DefaultValue("2") int minLimit, @DefaultValue("100") int maxLimit,
+                          @DefaultValue("PT0.5S") Duration latencyThreshold, @DefaultValue("0.9") double backoffRatio) {
+    }
+}
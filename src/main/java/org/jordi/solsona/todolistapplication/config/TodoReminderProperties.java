@@ -0,0 +1,24 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the due date reminders.
+ * @param enabled true to fire the reminders
+ * @param tick the resolution of the reminders, a reminder fires at most this late
+ * @param window how far ahead the due dates are loaded in memory
+ * @param overdueAfter how long after its due date an open todo gets its overdue reminder
+ * @param refreshInterval how often the window is moved ahead, the leases renewed and the changes of the other nodes read
+ * @param leaseTtl how long a slot stays owned by a node that stopped renewing its lease
+ * @param slots the number of slots the todos are spread over, the same on every node
+ * @param maxOwnedSlots the maximum number of slots a node owns, e.g. the slots over the number of nodes, rounded up
+ */
+@ConfigurationProperties(prefix = "todo.reminders")
+public record TodoReminderProperties(@DefaultValue("false") boolean enabled, @DefaultValue("PT1S") Duration tick,
+                                     @DefaultValue("PT1H") Duration window, @DefaultValue("PT1H") Duration overdueAfter,
+                                     @DefaultValue("PT10S") Duration refreshInterval, @DefaultValue("PT30S") Duration leaseTtl,
+                                     @DefaultValue("16") int slots, @DefaultValue("16") int maxOwnedSlots) {
+}
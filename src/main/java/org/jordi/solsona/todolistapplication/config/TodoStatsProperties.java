@@ -0,0 +1,17 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the stats endpoint.
+ * @param reconcileInterval how often the in-memory counters are recomputed from the database
+ * @param dueSoon the windows, from now, the open todos due soon are counted in
+ */
+@ConfigurationProperties(prefix = "todo.stats")
+public record TodoStatsProperties(@DefaultValue("PT1M") Duration reconcileInterval,
+                                  @DefaultValue({"PT24H", "PT168H"}) List<Duration> dueSoon) {
+}
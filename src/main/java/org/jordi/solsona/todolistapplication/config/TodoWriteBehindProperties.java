@@ -0,0 +1,22 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the write-behind mode of creates and updates.
+ * @param enabled true to queue the creates and updates and commit them in groups, false to commit each on its own
+ * @param capacity the maximum number of queued writes, past it writes are rejected with 429
+ * @param maxBatchSize the maximum number of writes committed together
+ * @param maxDelay how long the writer waits for more writes before committing a group that isn't full, zero to only
+ *                 group the writes queued while the previous group was committing
+ * @param shutdownTimeout how long the queued writes are given to commit on shutdown
+ * @param commitTimeout how long a request waits for its write to commit before it is answered with 503
+ */
+@ConfigurationProperties(prefix = "todo.write-behind")
+public record TodoWriteBehindProperties(@DefaultValue("false") boolean enabled, @DefaultValue("10000") int capacity,
+                                        @DefaultValue("500") int maxBatchSize, @DefaultValue("PT0.002S") Duration maxDelay,
+                                        @DefaultValue("PT30S") Duration shutdownTimeout, @DefaultValue("PT10S") Duration commitTimeout) {
+}
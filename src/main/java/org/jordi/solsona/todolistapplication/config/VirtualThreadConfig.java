@@ -0,0 +1,56 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every request, and the service and JDBC calls it makes, on its own virtual thread instead of Tomcat's platform
+ * thread pool. Enabled with {@code todo.threads.virtual=true}, or the {@code virtual-threads} profile which also resizes
+ * the connection pool: with no thread limit in front of it, the Hikari pool is what bounds the database concurrency.
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * The executor of the requests and of the async tasks. Tomcat doesn't shut down an executor it was given, so the
+     * context does it once the web server has stopped: no new task is accepted, the running ones finish.
+     * @return a virtual thread per task {@link ExecutorService}
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * @param virtualThreadExecutor the virtual thread executor
+     * @return a customizer replacing the Tomcat connector executor with the virtual thread executor
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Async request processing and @Async methods also run on virtual threads.
+     * @param virtualThreadExecutor the virtual thread executor
+     * @param taskDecorator the {@link TaskDecorator} Spring Boot would apply to its own executor, if any
+     * @return an {@link AsyncTaskExecutor} over the virtual thread executor
+     */
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor, ObjectProvider<TaskDecorator> taskDecorator) {
+        TaskExecutorAdapter executor = new TaskExecutorAdapter(virtualThreadExecutor);
+        taskDecorator.ifUnique(executor::setTaskDecorator);
+        return executor;
+    }
+}
@@ -0,0 +1,41 @@
+package org.jordi.solsona.todolistapplication.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Serves the same bodies as JSON in CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) for
+ * the clients asking for them with {@code Accept}, and reads request bodies sent in them. Both are binary encodings of the
+ * JSON model, so they need no schema: they save the quoting and number formatting, and UUIDs are written as 16 raw
+ * bytes. JSON stays the default for any other {@code Accept}.
+ * <p>
+ * The mappers are built from Spring Boot's {@link Jackson2ObjectMapperBuilder}, so the {@code spring.jackson} settings and
+ * modules apply to all three formats alike; these beans replace the converters Spring MVC would otherwise add with its
+ * own defaults.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * @param builder Spring Boot's mapper builder, a new one for every injection point
+     * @return the CBOR converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * @param builder Spring Boot's mapper builder, a new one for every injection point
+     * @return the Smile converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -1,15 +1,23 @@
 package org.jordi.solsona.todolistapplication.domain.model;
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Table(name = "todo_lists")
+@EntityListeners(AuditingEntityListener.class)
 public class Todo {
 
+    //The primary key of todo_lists is (id, archived), as a partitioned table can't have a unique key without the partition
+    //key: an insert trigger keeps the ids unique across the partitions, and a todo moves between them with an update
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "todo-id")
+    @GenericGenerator(name = "todo-id", type = TodoIdentifierGenerator.class)
     private UUID id;
 
     private String name;
@@ -21,16 +29,28 @@ public class Todo {
 
     private Instant dueDate;
 
+    @CreatedDate
+    @Column(updatable = false)
     private Instant createdAt;
 
+    @LastModifiedDate
     private Instant updatedAt;
 
+    @Version
+    private long version;
+
+    //Set by the archival job only, it moves the row to the archive partition. Reopening the todo moves it back
+    @Column(insertable = false)
+    private boolean archived;
+
     public Todo(UUID id, String name, String description, TodoStatus status, Instant dueDate, Instant createdAt, Instant updatedAt) {
         this.id = id;
         this.name = name;
         this.description = description;
         this.status = status;
         this.dueDate = dueDate;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
     }
 
     public Todo() {
@@ -70,6 +90,9 @@ public class Todo {
 
     public void setStatus(TodoStatus status) {
         this.status = status;
+        if (status != TodoStatus.COMPLETED) {
+            this.archived = false;
+        }
     }
 
     public Instant getDueDate() {
@@ -95,4 +118,16 @@ public class Todo {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,50 @@
+package org.jordi.solsona.todolistapplication.domain.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.resource.beans.container.spi.BeanContainer;
+import org.hibernate.resource.beans.internal.FallbackBeanInstanceProducer;
+import org.hibernate.resource.beans.spi.ManagedBeanRegistry;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+import org.jordi.solsona.todolistapplication.commons.id.TodoIdGenerator;
+import org.jordi.solsona.todolistapplication.commons.id.UuidV7Generator;
+
+import java.util.Properties;
+
+/**
+ * Hibernate generator of the {@link Todo} id. It delegates to the {@link TodoIdGenerator} bean of the application, looked
+ * up through the bean container Hibernate shares with Spring, and falls back to UUIDv7 when there is no bean container.
+ */
+public class TodoIdentifierGenerator implements IdentifierGenerator, Configurable {
+
+    private static final BeanContainer.LifecycleOptions SHARED_BEAN = new BeanContainer.LifecycleOptions() {
+        @Override
+        public boolean canUseCachedReferences() {
+            return true;
+        }
+
+        @Override
+        public boolean useJpaCompliantCreation() {
+            return false;
+        }
+    };
+
+    private TodoIdGenerator idGenerator = new UuidV7Generator();
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        ManagedBeanRegistry beanRegistry = serviceRegistry.getService(ManagedBeanRegistry.class);
+        BeanContainer beanContainer = beanRegistry == null ? null : beanRegistry.getBeanContainer();
+        if (beanContainer != null) {
+            this.idGenerator = beanContainer.getBean(TodoIdGenerator.class, SHARED_BEAN, FallbackBeanInstanceProducer.INSTANCE)
+                    .getBeanInstance();
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return this.idGenerator.generate();
+    }
+}
@@ -0,0 +1,37 @@
+package org.jordi.solsona.todolistapplication.domain.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The attributes of a {@link Todo} its aggregate statistics and conditional writes depend on.
+ * @param id the todo id
+ * @param status the status, may be null
+ * @param dueDate the due date, may be null
+ * @param version the optimistic locking version
+ * @param archived true when the todo is in the archive partition
+ */
+public record TodoState(UUID id, TodoStatus status, Instant dueDate, long version, boolean archived) {
+
+    /**
+     * The state of a todo that isn't archived.
+     */
+    public TodoState(UUID id, TodoStatus status, Instant dueDate, long version) {
+        this(id, status, dueDate, version, false);
+    }
+
+    /**
+     * @param todo the todo to take the state of
+     * @return the current {@link TodoState} of the todo.
+     */
+    public static TodoState of(Todo todo) {
+        return new TodoState(todo.getId(), todo.getStatus(), todo.getDueDate(), todo.getVersion(), todo.isArchived());
+    }
+
+    /**
+     * @return true when the todo has a status, and it isn't {@link TodoStatus#COMPLETED}.
+     */
+    public boolean isOpen() {
+        return this.status != null && this.status != TodoStatus.COMPLETED;
+    }
+}
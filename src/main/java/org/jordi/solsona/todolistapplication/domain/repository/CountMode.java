@@ -0,0 +1,23 @@
+package org.jordi.solsona.todolistapplication.domain.repository;
+
+/**
+ * How the total of a paginated list is computed.
+ */
+public enum CountMode {
+
+    /**
+     * An exact count of the matching todos, served from the per-status counters when only the status is filtered.
+     */
+    EXACT,
+
+    /**
+     * The row estimate of the PostgreSQL planner, or {@code pg_class.reltuples} when nothing is filtered. It is cheap
+     * but only as accurate as the table statistics.
+     */
+    ESTIMATE,
+
+    /**
+     * No count at all, only whether there is a next page.
+     */
+    NONE
+}
@@ -0,0 +1,84 @@
+package org.jordi.solsona.todolistapplication.domain.repository;
+
+import org.jordi.solsona.todolistapplication.commons.id.TodoIdGenerator;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Inserts todos with PostgreSQL COPY, which streams the rows in a single statement instead of one INSERT each. Runs on
+ * the connection of the current transaction, and failures are translated like any other {@link JdbcTemplate} call.
+ */
+@Repository
+public class TodoCopyRepository {
+
+    private static final String COPY_SQL = "COPY todo_lists (id, name, description, status, due_date) FROM STDIN";
+    private static final String NULL = "\\N";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TodoIdGenerator idGenerator;
+
+    @Autowired
+    public TodoCopyRepository(JdbcTemplate jdbcTemplate, TodoIdGenerator idGenerator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Inserts the todos, generating their ids. If the copy fails none of them are inserted.
+     * @param todos the todos to insert
+     * @return the number of inserted rows.
+     */
+    public long copy(List<Todo> todos) {
+        Long copied = this.jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder row = new StringBuilder();
+                for (Todo todo : todos) {
+                    todo.setId(this.idGenerator.generate());
+                    row.setLength(0);
+                    row.append(todo.getId()).append('\t');
+                    appendText(row, todo.getName()).append('\t');
+                    appendText(row, todo.getDescription()).append('\t');
+                    row.append(todo.getStatus() == null ? NULL : todo.getStatus().name()).append('\t');
+                    row.append(todo.getDueDate() == null ? NULL : todo.getDueDate().toString()).append('\n');
+                    byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                }
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+        return copied == null ? 0 : copied;
+    }
+
+    /**
+     * Appends a value escaped for the COPY text format.
+     */
+    private static StringBuilder appendText(StringBuilder row, String value) {
+        if (value == null) {
+            return row.append(NULL);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> row.append("\\\\");
+                case '\t' -> row.append("\\t");
+                case '\n' -> row.append("\\n");
+                case '\r' -> row.append("\\r");
+                default -> row.append(c);
+            }
+        }
+        return row;
+    }
+}
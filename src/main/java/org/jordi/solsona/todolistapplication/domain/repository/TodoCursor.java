@@ -0,0 +1,93 @@
+package org.jordi.solsona.todolistapplication.domain.repository;
+
+import org.jordi.solsona.todolistapplication.commons.exceptions.InvalidCursorException;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of a keyset (seek) scroll over {@link Todo}. It keeps the sort used to build the page together with the sort
+ * value and id of the last row returned, so the next page can be fetched with a range predicate instead of an OFFSET.
+ * @param sortBy the {@link Todo} attribute the scroll is sorted by
+ * @param direction the sort direction, also applied to the id tie-breaker
+ * @param value the sort value of the last row returned, {@code null} for the first page or a null column value
+ * @param id the id of the last row returned, {@code null} for the first page
+ */
+public record TodoCursor(String sortBy, Sort.Direction direction, String value, UUID id) {
+
+    private static final String SEPARATOR = "|";
+    private static final String NULL_VALUE = "N";
+    private static final String PRESENT_VALUE = "V";
+
+    /**
+     * Creates the cursor of the first page of a scroll.
+     * @param sortBy the {@link Todo} attribute to sort by
+     * @param direction the sort direction
+     * @return a cursor positioned before the first row.
+     */
+    public static TodoCursor initial(String sortBy, Sort.Direction direction) {
+        return new TodoCursor(sortBy, direction, null, null);
+    }
+
+    /**
+     * Decodes a cursor previously returned by {@link #encode()}.
+     * @param cursor the opaque cursor sent by the client
+     * @return the decoded {@link TodoCursor}
+     * @throws InvalidCursorException if the cursor is malformed.
+     */
+    public static TodoCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4 || parts[0].isEmpty()) {
+                throw new InvalidCursorException(cursor);
+            }
+            String value = switch (parts[3].substring(0, 1)) {
+                case NULL_VALUE -> null;
+                case PRESENT_VALUE -> parts[3].substring(1);
+                default -> throw new InvalidCursorException(cursor);
+            };
+            return new TodoCursor(parts[0], Sort.Direction.fromString(parts[1]), value, UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * @return true when the cursor points at the start of the scroll.
+     */
+    public boolean isInitial() {
+        return this.id == null;
+    }
+
+    /**
+     * @return the {@link Sort} of the scroll, with the id as a unique tie-breaker.
+     */
+    public Sort sort() {
+        Sort sort = Sort.by(this.direction, this.sortBy);
+        return "id".equals(this.sortBy) ? sort : sort.and(Sort.by(this.direction, "id"));
+    }
+
+    /**
+     * Creates the cursor that continues the scroll after the given row.
+     * @param last the last {@link Todo} of the current page
+     * @return a cursor positioned after {@code last}.
+     */
+    public TodoCursor next(Todo last) {
+        Object sortValue = new BeanWrapperImpl(last).getPropertyValue(this.sortBy);
+        return new TodoCursor(this.sortBy, this.direction, sortValue == null ? null : sortValue.toString(), last.getId());
+    }
+
+    /**
+     * @return the opaque, url-safe representation of this cursor.
+     */
+    public String encode() {
+        String value = this.value == null ? NULL_VALUE : PRESENT_VALUE + this.value;
+        String raw = String.join(SEPARATOR, this.sortBy, this.direction.name(), String.valueOf(this.id), value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,206 @@
+package org.jordi.solsona.todolistapplication.domain.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The queries of the due date reminders: the slot leases in {@code todo_reminder_leases}, and the open todos of the
+ * owned slots read from {@code todo_lists} by due date, which the partial index over the open todos serves. The slot of
+ * a todo is the last 16 bits of its id modulo the number of slots, computed the same way here and by {@link #slotOf}.
+ */
+@Repository
+public class TodoReminderRepository {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final String SLOT = "mod(cast(cast('x' || right(cast(id as varchar), 4) as bit(16)) as integer), ?)";
+
+    private static final String OPEN_DUE_BETWEEN = """
+            select id, due_date, %d as stage
+              from todo_lists
+             where not archived
+               and status <> 'COMPLETED'
+               and due_date >= ? and due_date < ?
+               and %s = any(?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TodoReminderRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param id the todo id
+     * @param slots the number of slots
+     * @return the slot of the todo.
+     */
+    public static int slotOf(UUID id, int slots) {
+        return (int) ((id.getLeastSignificantBits() & 0xFFFF) % slots);
+    }
+
+    /**
+     * Creates the lease rows of the slots that don't have one yet.
+     * @param slots the number of slots
+     */
+    public void createSlots(int slots) {
+        this.jdbcTemplate.update("insert into todo_reminder_leases (slot) select generate_series(0, ? - 1) on conflict do nothing", slots);
+    }
+
+    /**
+     * Takes up to {@code limit} slots that have no owner or whose lease expired, skipping those another node is taking.
+     * @param owner the id of this node
+     * @param slots the number of slots
+     * @param limit the maximum number of slots to take
+     * @param ttl how long the leases last
+     * @return the point the reminders of every slot taken were fired until, by slot.
+     */
+    public Map<Integer, Instant> acquire(String owner, int slots, int limit, Duration ttl) {
+        Map<Integer, Instant> acquired = new HashMap<>();
+        if (limit <= 0) {
+            return acquired;
+        }
+        this.jdbcTemplate.query("""
+                        update todo_reminder_leases
+                           set owner = ?, expires_at = now() + make_interval(secs => ?)
+                         where slot in (select slot
+                                          from todo_reminder_leases
+                                         where slot < ? and (owner is null or expires_at < now())
+                                         order by slot
+                                         limit ?
+                                           for update skip locked)
+                        returning slot, fired_until""",
+                row -> {
+                    acquired.put(row.getInt("slot"), row.getTimestamp("fired_until").toInstant());
+                },
+                owner, ttl.toMillis() / 1000.0, slots, limit);
+        return acquired;
+    }
+
+    /**
+     * Extends the leases this node still owns and records how far their reminders were fired.
+     * @param owner the id of this node
+     * @param slots the slots this node believes it owns
+     * @param ttl how long the leases last from now
+     * @param firedUntil the point the reminders were fired until
+     * @return the slots this node still owns.
+     */
+    public Set<Integer> renew(String owner, Collection<Integer> slots, Duration ttl, Instant firedUntil) {
+        Set<Integer> renewed = new HashSet<>();
+        this.jdbcTemplate.query("""
+                        update todo_reminder_leases
+                           set expires_at = now() + make_interval(secs => ?), fired_until = greatest(fired_until, ?)
+                         where owner = ? and slot = any(?)
+                        returning slot""",
+                statement -> {
+                    statement.setDouble(1, ttl.toMillis() / 1000.0);
+                    statement.setTimestamp(2, Timestamp.from(firedUntil));
+                    statement.setString(3, owner);
+                    statement.setArray(4, integers(statement, slots));
+                },
+                row -> {
+                    renewed.add(row.getInt("slot"));
+                });
+        return renewed;
+    }
+
+    /**
+     * Gives up every lease of this node, so other nodes can take the slots right away.
+     * @param owner the id of this node
+     * @param firedUntil the point the reminders were fired until
+     */
+    public void release(String owner, Instant firedUntil) {
+        this.jdbcTemplate.update("""
+                update todo_reminder_leases
+                   set owner = null, expires_at = null, fired_until = greatest(fired_until, ?)
+                 where owner = ?""", Timestamp.from(firedUntil), owner);
+    }
+
+    /**
+     * Reads the reminders of the open todos of the given slots whose time falls in the range: the due date for the due
+     * reminders, stage 0, and the due date plus the overdue delay for the overdue reminders, stage 1.
+     * @param slots the slots
+     * @param slotCount the number of slots
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @param overdueAfter the delay of the overdue reminders
+     * @param consumer receives the id, the due date and the stage of every reminder
+     */
+    public void findReminders(Collection<Integer> slots, int slotCount, Instant from, Instant to, Duration overdueAfter,
+                              ReminderConsumer consumer) {
+        findReminders(slots, slotCount, from, to, overdueAfter, null, consumer);
+    }
+
+    /**
+     * As {@link #findReminders(Collection, int, Instant, Instant, Duration, ReminderConsumer)}, only for the todos
+     * created or updated since the given time, on any node.
+     */
+    public void findReminders(Collection<Integer> slots, int slotCount, Instant from, Instant to, Duration overdueAfter,
+                              Instant changedSince, ReminderConsumer consumer) {
+        if (slots.isEmpty() || !from.isBefore(to)) {
+            return;
+        }
+        String changed = changedSince == null ? "" : " and updated_at >= ?";
+        String sql = OPEN_DUE_BETWEEN.formatted(0, SLOT) + changed + "\nunion all\n" + OPEN_DUE_BETWEEN.formatted(1, SLOT) + changed;
+        this.jdbcTemplate.query(sql,
+                statement -> {
+                    //Streamed from a cursor when run in a transaction, the window of a busy slot can be large
+                    statement.setFetchSize(FETCH_SIZE);
+                    int index = 1;
+                    for (Duration offset : new Duration[]{Duration.ZERO, overdueAfter}) {
+                        statement.setTimestamp(index++, Timestamp.from(from.minus(offset)));
+                        statement.setTimestamp(index++, Timestamp.from(to.minus(offset)));
+                        statement.setInt(index++, slotCount);
+                        statement.setArray(index++, integers(statement, slots));
+                        if (changedSince != null) {
+                            statement.setTimestamp(index++, Timestamp.from(changedSince));
+                        }
+                    }
+                },
+                row -> {
+                    consumer.accept(row.getObject("id", UUID.class), row.getTimestamp("due_date").toInstant(), row.getByte("stage"));
+                });
+    }
+
+    /**
+     * @param ids the todo ids
+     * @return the due date of the given todos that are still open, by id.
+     */
+    public Map<UUID, Instant> findOpenDueDates(Collection<UUID> ids) {
+        Map<UUID, Instant> dueDates = new HashMap<>();
+        this.jdbcTemplate.query("""
+                        select id, due_date
+                          from todo_lists
+                         where id = any(?) and not archived and status <> 'COMPLETED' and due_date is not null""",
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("uuid", ids.toArray())),
+                row -> {
+                    dueDates.put(row.getObject("id", UUID.class), row.getTimestamp("due_date").toInstant());
+                });
+        return dueDates;
+    }
+
+    private static Array integers(PreparedStatement statement, Collection<Integer> values) throws SQLException {
+        return statement.getConnection().createArrayOf("integer", values.toArray());
+    }
+
+    /**
+     * Receives the reminders read by {@link #findReminders}.
+     */
+    @FunctionalInterface
+    public interface ReminderConsumer {
+        void accept(UUID id, Instant dueDate, byte stage);
+    }
+}
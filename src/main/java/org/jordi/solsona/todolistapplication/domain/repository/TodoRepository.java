@@ -1,10 +1,99 @@
 package org.jordi.solsona.todolistapplication.domain.repository;
 
+import jakarta.persistence.LockModeType;
 import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoState;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface TodoRepository extends JpaRepository<Todo, UUID>, JpaSpecificationExecutor<Todo> {
+public interface TodoRepository extends JpaRepository<Todo, UUID>, JpaSpecificationExecutor<Todo>, TodoRepositoryCustom {
+
+    /**
+     * Returns the state of the todos with the given ids, without loading the todos, and locks their rows until the end
+     * of the transaction.
+     * @param ids the ids to look up
+     * @return the {@link TodoState} of the {@code ids} that exist.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new org.jordi.solsona.todolistapplication.domain.model.TodoState(t.id, t.status, t.dueDate, t.version, t.archived) from Todo t where t.id in :ids")
+    List<TodoState> findStatesForUpdate(Collection<UUID> ids);
+
+    /**
+     * Returns the state of a todo, without loading it.
+     * @param id the id to look up
+     * @return the {@link TodoState} of the todo, or empty if there is no todo with that id.
+     */
+    @Query("select new org.jordi.solsona.todolistapplication.domain.model.TodoState(t.id, t.status, t.dueDate, t.version, t.archived) from Todo t where t.id = :id")
+    Optional<TodoState> findStateById(UUID id);
+
+    /**
+     * Returns the exact number of todos with a status, summed from the per-status counters that the triggers on
+     * {@code todo_lists} keep current, instead of counting the rows.
+     * @param status the status to count, or {@code null} to count all the todos
+     * @return the number of todos with that status.
+     */
+    @Query(value = """
+            select cast(coalesce(sum(todos), 0) as bigint)
+              from todo_status_counts
+             where cast(:status as varchar) is null or status = cast(:status as varchar)""", nativeQuery = true)
+    long countByStatusFromCounters(String status);
+
+    /**
+     * Deletes a todo in a single statement, without loading it first, and returns the row as it was before the delete.
+     * @param id the id of the todo to delete
+     * @return the deleted {@link Todo}, or empty if there is no todo with that id.
+     */
+    @Transactional
+    @Query(value = "delete from todo_lists where id = :id returning *", nativeQuery = true)
+    Optional<Todo> deleteReturning(UUID id);
+
+    /**
+     * Archives a batch of the todos completed before a time, moving their rows from the active partition of
+     * {@code todo_lists} to the archive one. The oldest are archived first; rows locked by another transaction are
+     * skipped, so concurrent archivers work on different batches and never wait on a user's update.
+     * @param before the exclusive upper bound of the last update of the todos to archive
+     * @param limit the maximum number of todos to archive
+     * @return the number of todos archived.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            update todo_lists
+               set archived = true
+             where not archived
+               and id in (select id
+                            from todo_lists_active
+                           where status = 'COMPLETED' and updated_at < :before
+                           order by updated_at, id
+                           limit :limit
+                             for update skip locked)""", nativeQuery = true)
+    int archiveCompletedBefore(Instant before, int limit);
+
+    /**
+     * Counts the open todos, with a status other than completed, due before a time. Archived todos are left out, like
+     * in the status counters, which also prunes the archive partition.
+     * @param before the exclusive upper bound of the due date
+     * @return the number of open todos due before {@code before}.
+     */
+    @Query(value = "select count(*) from todo_lists where not archived and status <> 'COMPLETED' and due_date < :before", nativeQuery = true)
+    long countOpenDueBefore(Instant before);
+
+    /**
+     * Counts the open todos, with a status other than completed, due in a time range. Archived todos are left out.
+     * @param from the inclusive lower bound of the due date
+     * @param to the exclusive upper bound of the due date
+     * @return the number of open todos due from {@code from} to {@code to}.
+     */
+    @Query(value = "select count(*) from todo_lists where not archived and status <> 'COMPLETED' and due_date >= :from and due_date < :to", nativeQuery = true)
+    long countOpenDueBetween(Instant from, Instant to);
 }
@@ -0,0 +1,99 @@
+package org.jordi.solsona.todolistapplication.domain.repository;
+
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Queries of {@link TodoRepository} that Spring Data can't derive, implemented in {@link TodoRepositoryImpl}.
+ */
+public interface TodoRepositoryCustom {
+
+    /**
+     * Returns a page of the todos matching the specification, selecting only the columns of {@link TodoView} and
+     * building the views straight from the result set, without loading managed {@link Todo} entities.
+     * @param specification the criteria the todos must match
+     * @param pageable the page and sort to return
+     * @return a {@link Page} of {@link TodoView}.
+     */
+    Page<TodoView> findViews(Specification<Todo> specification, Pageable pageable);
+
+    /**
+     * Returns a page of the todos matching the specification like {@link #findViews(Specification, Pageable)}, with
+     * the total computed by the given supplier instead of a count query. The supplier is only called when the page
+     * itself doesn't tell the total, and a total lower than the rows already seen is raised to them.
+     * @param specification the criteria the todos must match
+     * @param pageable the page and sort to return
+     * @param total computes the total number of matching todos
+     * @return a {@link Page} of {@link TodoView}.
+     */
+    Page<TodoView> findViews(Specification<Todo> specification, Pageable pageable, LongSupplier total);
+
+    /**
+     * Returns a slice of the todos matching the specification as {@link TodoView} projections. No count is issued:
+     * one extra row is fetched to know if there is a next slice.
+     * @param specification the criteria the todos must match
+     * @param pageable the page and sort to return
+     * @return a {@link Slice} of {@link TodoView}.
+     */
+    Slice<TodoView> findViewSlice(Specification<Todo> specification, Pageable pageable);
+
+    /**
+     * Returns the todos matching the specification ranked by how well they match the search text, best first and then
+     * by id, as {@link TodoSearchHit} projections.
+     * @param text the search text to rank by
+     * @param specification the criteria the todos must match, including the search text itself
+     * @param limit the maximum number of hits to return
+     * @return the {@link List} of {@link TodoSearchHit}.
+     */
+    List<TodoSearchHit> search(String text, Specification<Todo> specification, int limit);
+
+    /**
+     * Updates a todo in a single statement, without loading it first, and returns the row as stored after the update
+     * along with the state it had before. The old row is read by a subquery that locks it, so it is the row the update
+     * applied to even when another transaction changed it in between. The version is incremented, and an archived todo
+     * that is no longer completed is moved back to the active todos.
+     * @param id the id of the todo to update
+     * @param name the new name
+     * @param description the new description
+     * @param dueDate the new due date
+     * @param status the new status
+     * @param expectedVersions the versions the todo may be at, or {@code null} to update whatever its version
+     * @return the {@link TodoUpdate}, or empty if there is no todo with that id at an expected version.
+     */
+    Optional<TodoUpdate> updateReturning(UUID id, String name, String description, Instant dueDate, TodoStatus status,
+                                         Set<Long> expectedVersions);
+
+    /**
+     * Estimates the number of todos matching the filters without counting them. With no filter it reads the row count
+     * the last vacuum or analyze stored in {@code pg_class} for the partition, otherwise the row estimate of the planner
+     * for the filtered query, so the accuracy depends on how recent the table statistics are.
+     * @param status the status criteria, or {@code null}
+     * @param dueTime the due time criteria, or {@code null}
+     * @param includeArchived true to include the archived todos
+     * @return the estimated number of matching todos.
+     */
+    long estimateCount(TodoStatus status, Instant dueTime, boolean includeArchived);
+
+    /**
+     * Streams the todos matching the specification as {@link TodoView} projections, read through a server side
+     * cursor in chunks of the fetch size, so memory use doesn't grow with the number of rows. It must be called in a
+     * transaction, and the stream closed.
+     * @param specification the criteria the todos must match
+     * @param sort the order of the todos
+     * @return a {@link Stream} of {@link TodoView}.
+     */
+    Stream<TodoView> streamViews(Specification<Todo> specification, Sort sort);
+}
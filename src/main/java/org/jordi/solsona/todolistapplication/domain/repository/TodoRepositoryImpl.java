@@ -0,0 +1,209 @@
+package org.jordi.solsona.todolistapplication.domain.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoState;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class TodoRepositoryImpl implements TodoRepositoryCustom {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<TodoView> findViews(Specification<Todo> specification, Pageable pageable) {
+        return findViews(specification, pageable, () -> countMatching(specification));
+    }
+
+    @Override
+    public Page<TodoView> findViews(Specification<Todo> specification, Pageable pageable, LongSupplier total) {
+        TypedQuery<TodoView> typedQuery = createViewQuery(specification, pageable.getSort());
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        List<TodoView> content = typedQuery.getResultList();
+
+        //The total is skipped when the page itself tells it, e.g. a first page that isn't full
+        return PageableExecutionUtils.getPage(content, pageable, total);
+    }
+
+    @Override
+    public Slice<TodoView> findViewSlice(Specification<Todo> specification, Pageable pageable) {
+        TypedQuery<TodoView> typedQuery = createViewQuery(specification, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+        List<TodoView> content = typedQuery.setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1).getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public List<TodoSearchHit> search(String text, Specification<Todo> specification, int limit) {
+        CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<TodoSearchHit> query = criteriaBuilder.createQuery(TodoSearchHit.class);
+        Root<Todo> root = query.from(Todo.class);
+        Expression<Float> rank = TodoSearchFunctions.rank(criteriaBuilder, root, text);
+        query.select(criteriaBuilder.construct(TodoSearchHit.class, root.get("id"), root.get("name"), root.get("description"),
+                root.get("dueDate"), root.get("status"), root.get("version"), rank));
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(criteriaBuilder.desc(rank), criteriaBuilder.asc(root.get("id")));
+
+        return this.entityManager.createQuery(query).setMaxResults(limit).setHint(HibernateHints.HINT_READ_ONLY, true).getResultList();
+    }
+
+    @Override
+    public Optional<TodoUpdate> updateReturning(UUID id, String name, String description, Instant dueDate, TodoStatus status,
+                                                Set<Long> expectedVersions) {
+        //The subquery locks the row before reading it, so the old values are those of the row the update applies to: a
+        //plain subquery would read the snapshot of the statement, missing an update committed while it waited on the lock
+        Query query = this.entityManager.createNativeQuery("""
+                        update todo_lists t
+                           set name = :name,
+                               description = cast(:description as varchar),
+                               due_date = cast(:dueDate as timestamptz),
+                               status = cast(:status as varchar),
+                               updated_at = now(),
+                               version = t.version + 1,
+                               archived = t.archived and coalesce(cast(:status as varchar) = 'COMPLETED', false)
+                          from (select id, status, due_date, version, archived from todo_lists where id = :id for update) old
+                         where t.id = old.id
+                           and (cast(:expectedVersions as text) is null
+                                or old.version = any(cast(cast(:expectedVersions as text) as bigint[])))
+                        returning t.*, old.status as old_status, old.due_date as old_due_date, old.version as old_version,
+                                  old.archived as old_archived""")
+                .setParameter("id", id)
+                .setParameter("name", name)
+                .setParameter("description", description)
+                .setParameter("dueDate", dueDate)
+                .setParameter("status", status == null ? null : status.name())
+                .setParameter("expectedVersions", expectedVersions == null ? null
+                        : expectedVersions.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}")));
+        List<?> rows = query.unwrap(NativeQuery.class)
+                .addEntity(Todo.class)
+                .addScalar("old_status", StandardBasicTypes.STRING)
+                .addScalar("old_due_date", StandardBasicTypes.INSTANT)
+                .addScalar("old_version", StandardBasicTypes.LONG)
+                .addScalar("old_archived", StandardBasicTypes.BOOLEAN)
+                .getResultList();
+
+        return rows.stream().findFirst().map(Object[].class::cast).map(row -> {
+            Todo todo = (Todo) row[0];
+            TodoStatus previousStatus = row[1] == null ? null : TodoStatus.valueOf((String) row[1]);
+            return new TodoUpdate(todo, new TodoState(todo.getId(), previousStatus, (Instant) row[2], (Long) row[3], (Boolean) row[4]));
+        });
+    }
+
+    @Override
+    public long estimateCount(TodoStatus status, Instant dueTime, boolean includeArchived) {
+        if (status == null && dueTime == null) {
+            //A partitioned table has no rows of its own, the row counts are kept for each partition
+            String partitions = includeArchived ? "{todo_lists_active,todo_lists_archive}" : "{todo_lists_active}";
+            List<?> reltuples = this.entityManager
+                    .createNativeQuery("select reltuples from pg_class where oid = any(cast(cast(:partitions as text) as regclass[]))")
+                    .setParameter("partitions", partitions).getResultList();
+            //A partition never vacuumed nor analyzed has no row count yet, the planner still estimates one from its size
+            if (reltuples.stream().allMatch(rows -> ((Number) rows).longValue() >= 0)) {
+                return reltuples.stream().mapToLong(rows -> ((Number) rows).longValue()).sum();
+            }
+        }
+
+        List<String> conditions = new ArrayList<>();
+        if (!includeArchived) {
+            conditions.add("not archived");
+        }
+        if (status != null) {
+            conditions.add("status = :status");
+        }
+        if (dueTime != null) {
+            conditions.add("due_date <= :dueTime");
+        }
+        String where = conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+        Query query = this.entityManager.createNativeQuery("explain select 1 from todo_lists" + where);
+        if (status != null) {
+            query.setParameter("status", status.name());
+        }
+        if (dueTime != null) {
+            query.setParameter("dueTime", dueTime);
+        }
+
+        //The first line of the plan is its root node, which carries the estimate of the whole query
+        Matcher rows = PLAN_ROWS.matcher((String) query.getResultList().get(0));
+        return rows.find() ? Long.parseLong(rows.group(1)) : 0;
+    }
+
+    @Override
+    public Stream<TodoView> streamViews(Specification<Todo> specification, Sort sort) {
+        return createViewQuery(specification, sort).setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE).getResultStream();
+    }
+
+    private TypedQuery<TodoView> createViewQuery(Specification<Todo> specification, Sort sort) {
+        CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<TodoView> query = criteriaBuilder.createQuery(TodoView.class);
+        Root<Todo> root = query.from(Todo.class);
+        query.select(criteriaBuilder.construct(TodoView.class,
+                root.get("id"), root.get("name"), root.get("description"), root.get("dueDate"), root.get("status"), root.get("version")));
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(sort, root, criteriaBuilder));
+
+        return this.entityManager.createQuery(query).setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    private long countMatching(Specification<Todo> specification) {
+        CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Todo> root = query.from(Todo.class);
+        query.select(criteriaBuilder.count(root));
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return this.entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,55 @@
+package org.jordi.solsona.todolistapplication.domain.repository;
+
+import org.jordi.solsona.todolistapplication.commons.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of a keyset scroll over search results, which are ordered by descending rank and then by id. It keeps the
+ * rank and id of the last hit returned, so the next page is fetched with a range predicate instead of an OFFSET.
+ * @param rank the rank of the last hit returned
+ * @param id the id of the last hit returned
+ */
+public record TodoSearchCursor(float rank, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Creates the cursor that continues the scroll after the given hit.
+     * @param last the last {@link TodoSearchHit} of the current page
+     * @return a cursor positioned after {@code last}.
+     */
+    public static TodoSearchCursor after(TodoSearchHit last) {
+        return new TodoSearchCursor(last.rank(), last.todo().id());
+    }
+
+    /**
+     * Decodes a cursor previously returned by {@link #encode()}.
+     * @param cursor the opaque cursor sent by the client
+     * @return the decoded {@link TodoSearchCursor}
+     * @throws InvalidCursorException if the cursor is malformed.
+     */
+    public static TodoSearchCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new TodoSearchCursor(Float.parseFloat(parts[0]), UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * @return the opaque, url-safe representation of this cursor. The rank is written in full so it compares equal to
+     * the rank the database computes for the same hit.
+     */
+    public String encode() {
+        String raw = Float.toString(this.rank) + SEPARATOR + this.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,91 @@
+package org.jordi.solsona.todolistapplication.domain.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.sqm.function.AbstractSqmSelfRenderingFunctionDescriptor;
+import org.hibernate.query.sqm.produce.function.StandardArgumentsValidators;
+import org.hibernate.query.sqm.produce.function.StandardFunctionReturnTypeResolvers;
+import org.hibernate.query.sqm.sql.internal.SqmPathInterpretation;
+import org.hibernate.sql.ast.SqlAstNodeRenderingMode;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.sql.ast.tree.expression.ColumnReference;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+
+import java.util.List;
+
+/**
+ * Registers the PostgreSQL full-text search operators as functions Hibernate queries can call, since criteria queries
+ * can't express the {@code @@} operator. They are rendered as the plain operator, not a function call, so the GIN index
+ * of {@code todo_lists.search_vector} is eligible. Registered through {@code META-INF/services}.
+ * <p>
+ * The search vector isn't mapped by {@link Todo}, it would be read with every todo: the functions take the id of the
+ * todo instead and render the {@code search_vector} column of the same table.
+ */
+public class TodoSearchFunctions implements FunctionContributor {
+
+    static final String MATCHES = "todo_search_matches";
+    static final String RANK = "todo_search_rank";
+
+    private static final String SEARCH_VECTOR = "search_vector";
+    //Must be the text search configuration the search_vector column is generated with
+    private static final String TS_QUERY = "websearch_to_tsquery('english', ";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry basicTypes = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry().register(MATCHES,
+                new SearchVectorFunction(MATCHES, "(", " @@ " + TS_QUERY, "))", basicTypes.resolve(StandardBasicTypes.BOOLEAN)));
+        functionContributions.getFunctionRegistry().register(RANK,
+                new SearchVectorFunction(RANK, "ts_rank(", ", " + TS_QUERY, "))", basicTypes.resolve(StandardBasicTypes.FLOAT)));
+    }
+
+    /**
+     * @return an {@link Expression} that is true when the todo matches the search text.
+     */
+    static Expression<Boolean> matches(CriteriaBuilder criteriaBuilder, Path<Todo> todo, String text) {
+        return criteriaBuilder.function(MATCHES, Boolean.class, todo.get("id"), criteriaBuilder.literal(text));
+    }
+
+    /**
+     * @return an {@link Expression} of how well the todo matches the search text, higher is better.
+     */
+    static Expression<Float> rank(CriteriaBuilder criteriaBuilder, Path<Todo> todo, String text) {
+        return criteriaBuilder.function(RANK, Float.class, todo.get("id"), criteriaBuilder.literal(text));
+    }
+
+    /**
+     * A function of the search vector of a todo, given by its id column, and a search text. It renders the prefix, the
+     * search vector, the infix, the text and the suffix.
+     */
+    private static final class SearchVectorFunction extends AbstractSqmSelfRenderingFunctionDescriptor {
+
+        private final String prefix;
+        private final String infix;
+        private final String suffix;
+
+        private SearchVectorFunction(String name, String prefix, String infix, String suffix, BasicType<?> type) {
+            super(name, StandardArgumentsValidators.exactly(2), StandardFunctionReturnTypeResolvers.invariant(type), null);
+            this.prefix = prefix;
+            this.infix = infix;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public void render(SqlAppender sqlAppender, List<? extends SqlAstNode> sqlAstArguments, SqlAstTranslator<?> walker) {
+            ColumnReference id = ((SqmPathInterpretation<?>) sqlAstArguments.get(0)).getSqlExpression().getColumnReference();
+            sqlAppender.appendSql(this.prefix);
+            sqlAppender.appendSql(id.getQualifier() == null ? SEARCH_VECTOR : id.getQualifier() + "." + SEARCH_VECTOR);
+            sqlAppender.appendSql(this.infix);
+            walker.render(sqlAstArguments.get(1), SqlAstNodeRenderingMode.DEFAULT);
+            sqlAppender.appendSql(this.suffix);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.jordi.solsona.todolistapplication.domain.repository;
+
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A todo found by a full-text search.
+ * @param todo the {@link TodoView} of the matching todo
+ * @param rank how well the todo matches the search text, higher is better
+ */
+public record TodoSearchHit(TodoView todo, float rank) {
+
+    /**
+     * Creates a hit from the selected columns, used by the criteria query of the search.
+     */
+    public TodoSearchHit(UUID id, String name, String description, Instant dueDate, TodoStatus status, long version, float rank) {
+        this(new TodoView(id, name, description, dueDate, status, version), rank);
+    }
+}
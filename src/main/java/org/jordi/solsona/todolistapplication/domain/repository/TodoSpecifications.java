@@ -1,10 +1,17 @@
 package org.jordi.solsona.todolistapplication.domain.repository;
 
+import org.jordi.solsona.todolistapplication.commons.exceptions.InvalidCursorException;
 import org.jordi.solsona.todolistapplication.domain.model.Todo;
 import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
 
 public class TodoSpecifications {
 
@@ -28,4 +35,101 @@ public class TodoSpecifications {
                     timestamp == null ? null : criteriaBuilder.lessThanOrEqualTo(root.get("dueDate"), timestamp);
     }
 
+    /**
+     * Creates a {@link Specification} that restricts {@link Todo} results to the active ones, those not archived, so
+     * the queries only scan the active partition of {@code todo_lists}.
+     * @param includeArchived true to include the archived todos too, which doesn't restrict the results
+     * @return a {@link Specification} that matches the active {@link Todo}, or all of them.
+     */
+    public static Specification<Todo> active(boolean includeArchived) {
+        return (root, query, criteriaBuilder) ->
+                    includeArchived ? null : criteriaBuilder.isFalse(root.get("archived"));
+    }
+
+    /**
+     * Creates a {@link Specification} that restricts {@link Todo} results to those whose name or description match the
+     * search text, in the web search syntax: words, "quoted phrases", {@code or} and {@code -excluded} words.
+     * @param text the search text
+     * @return a {@link Specification} that matches {@link Todo} with the given text.
+     */
+    public static Specification<Todo> matches(String text) {
+        return (root, query, criteriaBuilder) ->
+                    text == null ? null : criteriaBuilder.isTrue(TodoSearchFunctions.matches(criteriaBuilder, root, text));
+    }
+
+    /**
+     * Creates a {@link Specification} that restricts {@link Todo} search results to those ranked after the position of
+     * the cursor, in descending rank and then ascending id order.
+     * @param text the search text the results are ranked by
+     * @param cursor the position to continue from
+     * @return a {@link Specification} that matches {@link Todo} after the given cursor.
+     */
+    public static Specification<Todo> rankedAfter(String text, TodoSearchCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            if (cursor == null) {
+                return null;
+            }
+            Expression<Float> rank = TodoSearchFunctions.rank(criteriaBuilder, root, text);
+            Predicate sameRank = criteriaBuilder.and(criteriaBuilder.equal(rank, cursor.rank()),
+                    criteriaBuilder.greaterThan(root.get("id"), cursor.id()));
+            return criteriaBuilder.or(criteriaBuilder.lessThan(rank, cursor.rank()), sameRank);
+        };
+    }
+
+    /**
+     * Creates a {@link Specification} that restricts {@link Todo} results to those sorted after the position of the cursor,
+     * using the sort value and the id of the last row seen. Null sort values follow the PostgreSQL ordering, where nulls
+     * sort after any other value: last in ascending order and first in descending order.
+     * @param cursor the position to continue from
+     * @return a {@link Specification} that matches {@link Todo} after the given cursor.
+     */
+    public static Specification<Todo> after(TodoCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            if (cursor == null || cursor.isInitial()) {
+                return null;
+            }
+            boolean ascending = cursor.direction().isAscending();
+            Predicate idAfter = isAfter(criteriaBuilder, root.<UUID>get("id"), cursor.id(), ascending);
+            if ("id".equals(cursor.sortBy())) {
+                return idAfter;
+            }
+
+            Path<Comparable<Object>> path = root.get(cursor.sortBy());
+            Comparable<Object> value = toSortValue(path.getJavaType(), cursor);
+            if (value == null) {
+                Predicate sameNullValue = criteriaBuilder.and(criteriaBuilder.isNull(path), idAfter);
+                return ascending ? sameNullValue : criteriaBuilder.or(criteriaBuilder.isNotNull(path), sameNullValue);
+            }
+            Predicate sameValue = criteriaBuilder.and(criteriaBuilder.equal(path, value), idAfter);
+            Predicate after = criteriaBuilder.or(isAfter(criteriaBuilder, path, value, ascending), sameValue);
+            return ascending ? criteriaBuilder.or(after, criteriaBuilder.isNull(path)) : after;
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate isAfter(CriteriaBuilder criteriaBuilder, Expression<? extends T> path,
+                                                                       T value, boolean ascending) {
+        return ascending ? criteriaBuilder.greaterThan(path, value) : criteriaBuilder.lessThan(path, value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparable<Object> toSortValue(Class<?> type, TodoCursor cursor) {
+        String value = cursor.value();
+        try {
+            if (value == null) {
+                return null;
+            }
+            if (Instant.class.equals(type)) {
+                return (Comparable) Instant.parse(value);
+            }
+            if (UUID.class.equals(type)) {
+                return (Comparable) UUID.fromString(value);
+            }
+            if (type.isEnum()) {
+                return (Comparable) Enum.valueOf((Class<? extends Enum>) type, value);
+            }
+            return (Comparable) value;
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor.encode());
+        }
+    }
 }
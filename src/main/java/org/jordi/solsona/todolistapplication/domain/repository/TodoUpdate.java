@@ -0,0 +1,11 @@
+package org.jordi.solsona.todolistapplication.domain.repository;
+
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoState;
+
+/**
+ * A todo updated by {@link TodoRepositoryCustom#updateReturning}, with the state it had before the update.
+ * @param todo the todo as stored after the update
+ * @param previous the {@link TodoState} of the todo before the update
+ */
+public record TodoUpdate(Todo todo, TodoState previous) {}
@@ -0,0 +1,17 @@
+package org.jordi.solsona.todolistapplication.domain.repository;
+
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns of a todo read by the projection queries of {@link TodoRepositoryCustom}, without loading the entity.
+ * @param id the todo id
+ * @param name the name
+ * @param description the description, may be null
+ * @param dueDate the due date, may be null
+ * @param status the status, may be null
+ * @param version the optimistic locking version
+ */
+public record TodoView(UUID id, String name, String description, Instant dueDate, TodoStatus status, long version) {}
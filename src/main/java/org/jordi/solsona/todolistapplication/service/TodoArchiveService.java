@@ -0,0 +1,61 @@
+package org.jordi.solsona.todolistapplication.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jordi.solsona.todolistapplication.config.TodoArchiveProperties;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Moves the todos completed for longer than {@code todo.archive.completed-for} to the archive partition of
+ * {@code todo_lists}, so the queries over active work don't scan past them. The todos are moved in batches of
+ * {@code todo.archive.batch-size}, each in its own short transaction, so the job never holds many row locks nor a long
+ * transaction, and several nodes can run it at once.
+ */
+@Service
+public class TodoArchiveService {
+
+    private final TodoRepository todoRepository;
+    private final TodoStatisticsService todoStatisticsService;
+    private final TodoArchiveProperties properties;
+    private final Counter archived;
+
+    @Autowired
+    public TodoArchiveService(TodoRepository todoRepository, TodoStatisticsService todoStatisticsService,
+                              TodoArchiveProperties properties, MeterRegistry meterRegistry) {
+        this.todoRepository = todoRepository;
+        this.todoStatisticsService = todoStatisticsService;
+        this.properties = properties;
+        this.archived = Counter.builder("todo.archive.archived")
+                .description("Completed todos moved to the archive partition").register(meterRegistry);
+    }
+
+    /**
+     * Archives the todos completed before the configured age, batch after batch until a batch comes back short.
+     * @return the number of todos archived.
+     */
+    @Scheduled(fixedDelayString = "${todo.archive.interval:PT1H}", initialDelayString = "${todo.archive.interval:PT1H}")
+    public int archive() {
+        if (!this.properties.enabled()) {
+            return 0;
+        }
+        Instant before = Instant.now().minus(this.properties.completedFor());
+        int total = 0;
+        int batch;
+        do {
+            batch = this.todoRepository.archiveCompletedBefore(before, this.properties.batchSize());
+            this.archived.increment(batch);
+            total += batch;
+        } while (batch == this.properties.batchSize());
+
+        //Archiving isn't a change of the todos, no event is published: the statistics are recounted without them instead
+        if (total > 0) {
+            this.todoStatisticsService.reconcile();
+        }
+        return total;
+    }
+}
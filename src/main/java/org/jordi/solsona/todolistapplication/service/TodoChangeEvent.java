@@ -0,0 +1,74 @@
+package org.jordi.solsona.todolistapplication.service;
+
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.domain.model.TodoState;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+
+import java.util.UUID;
+
+/**
+ * Published by {@link TodoListService} for every todo it creates, updates or deletes. Listeners should use
+ * {@link org.springframework.transaction.event.TransactionalEventListener}, so a change is only seen once committed.
+ * @param previous the state before the change, {@code null} when the todo was created
+ * @param current the todo after the change, {@code null} when the todo was deleted
+ */
+public record TodoChangeEvent(TodoState previous, TodoResponse current) {
+
+    /**
+     * The kind of change.
+     */
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    /**
+     * @param todo the created todo
+     * @return the {@link TodoChangeEvent} of a creation.
+     */
+    public static TodoChangeEvent created(TodoResponse todo) {
+        return new TodoChangeEvent(null, todo);
+    }
+
+    /**
+     * @param previous the state before the update
+     * @param todo the updated todo
+     * @return the {@link TodoChangeEvent} of an update.
+     */
+    public static TodoChangeEvent updated(TodoState previous, TodoResponse todo) {
+        return new TodoChangeEvent(previous, todo);
+    }
+
+    /**
+     * @param previous the state before the deletion
+     * @return the {@link TodoChangeEvent} of a deletion.
+     */
+    public static TodoChangeEvent deleted(TodoState previous) {
+        return new TodoChangeEvent(previous, null);
+    }
+
+    /**
+     * @return the {@link Type} of the change.
+     */
+    public Type type() {
+        return this.previous == null ? Type.CREATED : this.current == null ? Type.DELETED : Type.UPDATED;
+    }
+
+    /**
+     * @return the id of the changed todo.
+     */
+    public UUID id() {
+        return this.current != null ? this.current.id() : this.previous.id();
+    }
+
+    /**
+     * @return the state after the change, {@code null} when the todo was deleted. An archived todo stays archived as long
+     * as it is completed, the writes move it back to the active todos when it is reopened.
+     */
+    public TodoState currentState() {
+        if (this.current == null) {
+            return null;
+        }
+        boolean archived = this.previous != null && this.previous.archived() && this.current.status() == TodoStatus.COMPLETED;
+        return new TodoState(this.current.id(), this.current.status(), this.current.dueDate(), this.current.version(), archived);
+    }
+}
@@ -1,32 +1,97 @@
 package org.jordi.solsona.todolistapplication.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.jordi.solsona.todolistapplication.api.dto.BatchItemResult;
+import org.jordi.solsona.todolistapplication.api.dto.BatchUpdateTodoRequest;
 import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.ImportReport;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
 import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.imports.ImportRow;
+import org.jordi.solsona.todolistapplication.api.imports.TodoImportReader;
+import org.jordi.solsona.todolistapplication.commons.datasource.ReplicaRoutingDataSource;
+import org.jordi.solsona.todolistapplication.commons.exceptions.BatchTooLargeException;
+import org.jordi.solsona.todolistapplication.commons.exceptions.InvalidSearchQueryException;
 import org.jordi.solsona.todolistapplication.commons.mappers.TodoMapper;
+import org.jordi.solsona.todolistapplication.config.CacheConfig;
+import org.jordi.solsona.todolistapplication.config.TodoBatchProperties;
+import org.jordi.solsona.todolistapplication.config.TodoImportProperties;
 import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoState;
 import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.CountMode;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoCopyRepository;
 import org.jordi.solsona.todolistapplication.domain.repository.TodoSpecifications;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoUpdate;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoView;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoCursor;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoSearchCursor;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoSearchHit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.jordi.solsona.todolistapplication.commons.exceptions.TodoNotFoundException;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TodoVersionMismatchException;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TodoWriteConflictException;
 import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "todo.service", description = "Time spent in TodoListService, tagged by method")
 public class TodoListService {
 
+    private static final int MAX_TEXT_LENGTH = 255;
+
     private final TodoRepository todoRepository;
     private final TodoMapper mapper;
+    private final Validator validator;
+    private final TodoBatchProperties batchProperties;
+    private final TodoCopyRepository todoCopyRepository;
+    private final TodoImportProperties importProperties;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public TodoListService(TodoRepository todoRepository, TodoMapper mapper) {
+    public TodoListService(TodoRepository todoRepository, TodoMapper mapper, Validator validator, TodoBatchProperties batchProperties,
+                           TodoCopyRepository todoCopyRepository, TodoImportProperties importProperties,
+                           ApplicationEventPublisher eventPublisher) {
         this.todoRepository = todoRepository;
         this.mapper = mapper;
+        this.validator = validator;
+        this.batchProperties = batchProperties;
+        this.todoCopyRepository = todoCopyRepository;
+        this.importProperties = importProperties;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -34,67 +99,420 @@ public class TodoListService {
      * @param request the {@link CreateTodoRequest} to be created
      * @return the created {@link Todo}
      */
+    @Transactional
     public Todo createTodo(CreateTodoRequest request) {
 
         //For a distributed system, the id would ideally be generated by the client as sent as part of the request. Since there is no client for this
-        //exercise, I am generating the on the server side to simplify the execution, and not have to manually generate new uuid for each request sent
-        UUID id = UUID.randomUUID();
-
+        //exercise, the id is left empty and generated on persist by the TodoIdentifierGenerator, which keeps it time ordered. Leaving it empty also
+        //lets save() persist directly, instead of merging and selecting the row first
         Todo todoEntity = this.mapper.toEntity(request);
-        todoEntity.setId(id);
-        return this.todoRepository.save(todoEntity);
+        Todo created = this.todoRepository.save(todoEntity);
+        this.eventPublisher.publishEvent(TodoChangeEvent.created(this.mapper.toResponse(created)));
+        return created;
     }
 
     /**
-     * Get a todo by its id.
+     * Get a todo by its id. The response is cached, and evicted when the todo is updated or deleted.
      * @param id the todo id
-     * @return the {@link Todo} with the parameter id.
+     * @return the {@link TodoResponse} of the todo with the parameter id.
      */
-    public Todo getTodoById(UUID id) {
-        return this.todoRepository.findById(id).orElseThrow(() -> new TodoNotFoundException(id));
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TODOS_CACHE, key = "#id")
+    public TodoResponse getTodoById(UUID id) {
+        //A miss fills the cache for every client until the todo changes again, so it's read from the primary: a lagging
+        //replica would cache the todo as it was before the write that evicted it
+        return ReplicaRoutingDataSource.onPrimary(() ->
+                this.todoRepository.findById(id).map(this.mapper::toResponse).orElseThrow(() -> new TodoNotFoundException(id)));
+    }
+
+    /**
+     * Returns a list of todos matching the parameter criteria, and pagination. The todos are read straight into
+     * {@link TodoView} projections, in a read-only transaction, so no entity is loaded or tracked.
+     * @param status the status criteria
+     * @param dueTime the due time criteria
+     * @param includeArchived true to include the archived todos
+     * @param pageable the page criteria
+     * @param countMode how the total is computed, {@link CountMode#NONE} is served by {@link #listSlice}
+     * @return the {@link TodoResponse} of all the todos matching the criteria.
+     */
+    @Transactional(readOnly = true)
+    public Page<TodoResponse> list(TodoStatus status, Instant dueTime, boolean includeArchived, Pageable pageable, CountMode countMode) {
+
+        Specification<Todo> specification = Specification
+                .where(TodoSpecifications.hasStatus(status)).and(TodoSpecifications.dueBefore(dueTime))
+                .and(TodoSpecifications.active(includeArchived));
+
+        //Without a due time filter the exact count of the active todos is a sum over the per-status counters, not a scan
+        //of the matching rows
+        String statusName = status == null ? null : status.name();
+        LongSupplier total = switch (countMode) {
+            case EXACT -> dueTime == null && !includeArchived
+                    ? () -> this.todoRepository.countByStatusFromCounters(statusName)
+                    : () -> this.todoRepository.count(specification);
+            case ESTIMATE -> () -> this.todoRepository.estimateCount(status, dueTime, includeArchived);
+            case NONE -> throw new IllegalArgumentException("A page without count is a slice, use listSlice");
+        };
+
+        return this.todoRepository.findViews(specification, pageable, total).map(this.mapper::toResponse);
     }
 
     /**
-     * Returns a list of todos matching the parameter criteria, and pagination.
+     * Returns a list of todos matching the parameter criteria, and pagination, without counting them. One extra todo is
+     * read to know if there is a next page.
      * @param status the status criteria
      * @param dueTime the due time criteria
+     * @param includeArchived true to include the archived todos
      * @param pageable the page criteria
-     * @return all the {@link Todo} matching the criteria.
+     * @return a {@link Slice} of the {@link TodoResponse} matching the criteria.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TodoResponse> listSlice(TodoStatus status, Instant dueTime, boolean includeArchived, Pageable pageable) {
+
+        Specification<Todo> specification = Specification
+                .where(TodoSpecifications.hasStatus(status)).and(TodoSpecifications.dueBefore(dueTime))
+                .and(TodoSpecifications.active(includeArchived));
+
+        return this.todoRepository.findViewSlice(specification, pageable).map(this.mapper::toResponse);
+    }
+
+    /**
+     * Exports all the todos matching the parameter criteria, ordered by due date. The todos are read from a server side
+     * cursor and handed to the consumer one by one, so they are never all held in memory.
+     * @param status the status criteria
+     * @param dueTime the due time criteria
+     * @param includeArchived true to include the archived todos
+     * @param consumer receives the {@link TodoResponse} of every todo matching the criteria
+     */
+    @Transactional(readOnly = true)
+    public void export(TodoStatus status, Instant dueTime, boolean includeArchived, Consumer<TodoResponse> consumer) {
+
+        Specification<Todo> specification = Specification
+                .where(TodoSpecifications.hasStatus(status)).and(TodoSpecifications.dueBefore(dueTime))
+                .and(TodoSpecifications.active(includeArchived));
+
+        try (Stream<TodoView> todos = this.todoRepository.streamViews(specification, Sort.by("dueDate", "id"))) {
+            todos.map(this.mapper::toResponse).forEach(consumer);
+        }
+    }
+
+    /**
+     * Returns the todos matching the parameter criteria that come after the cursor position, using keyset pagination.
+     * Unlike {@link #list(TodoStatus, Instant, boolean, Pageable, CountMode)} no count query is issued: one extra row is fetched to know if
+     * there is a next page.
+     * @param status the status criteria
+     * @param dueTime the due time criteria
+     * @param includeArchived true to include the archived todos
+     * @param cursor the position to continue from
+     * @param size the maximum number of todos to return
+     * @return a {@link Slice} of the {@link Todo} matching the criteria after the cursor.
      */
-    public Page<Todo> list(TodoStatus status, Instant dueTime, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Slice<Todo> scroll(TodoStatus status, Instant dueTime, boolean includeArchived, TodoCursor cursor, int size) {
 
         Specification<Todo> specification = Specification
-                .where(TodoSpecifications.hasStatus(status)).and(TodoSpecifications.dueBefore(dueTime));
+                .where(TodoSpecifications.hasStatus(status)).and(TodoSpecifications.dueBefore(dueTime))
+                .and(TodoSpecifications.active(includeArchived)).and(TodoSpecifications.after(cursor));
 
-        return this.todoRepository.findAll(specification, pageable);
+        List<Todo> todos = this.todoRepository.findBy(specification, query -> query.sortBy(cursor.sort()).limit(size + 1).all());
+        boolean hasNext = todos.size() > size;
+
+        return new SliceImpl<>(hasNext ? todos.subList(0, size) : todos, PageRequest.ofSize(size), hasNext);
+    }
+
+    /**
+     * Searches the todos whose name or description match the text, best matches first, combined with the parameter
+     * criteria. Pages are fetched after the cursor position, using keyset pagination over the rank and id: one extra
+     * hit is fetched to know if there is a next page.
+     * @param text the search text, in the web search syntax
+     * @param status the status criteria
+     * @param dueTime the due time criteria
+     * @param includeArchived true to include the archived todos
+     * @param cursor the position to continue from, or {@code null} for the first page
+     * @param size the maximum number of hits to return
+     * @return a {@link Slice} of the {@link TodoSearchHit} matching the criteria after the cursor.
+     * @throws InvalidSearchQueryException if the text is blank.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TodoSearchHit> search(String text, TodoStatus status, Instant dueTime, boolean includeArchived,
+                                      TodoSearchCursor cursor, int size) {
+        if (text == null || text.isBlank()) {
+            throw new InvalidSearchQueryException(text);
+        }
+
+        Specification<Todo> specification = Specification
+                .where(TodoSpecifications.matches(text)).and(TodoSpecifications.hasStatus(status))
+                .and(TodoSpecifications.dueBefore(dueTime)).and(TodoSpecifications.active(includeArchived))
+                .and(TodoSpecifications.rankedAfter(text, cursor));
+
+        List<TodoSearchHit> hits = this.todoRepository.search(text, specification, size + 1);
+        boolean hasNext = hits.size() > size;
+
+        return new SliceImpl<>(hasNext ? hits.subList(0, size) : hits, PageRequest.ofSize(size), hasNext);
     }
 
     /**
      * Deletes a todo.
      * @param id the id of the {@link Todo} to be deleted.
+     * @throws TodoWriteConflictException if the todo is moved to or from the archive while the delete waits on it.
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TODOS_CACHE, key = "#id")
     public void delete(UUID id) {
+        Todo deleted;
         try {
-            this.todoRepository.deleteById(id);
-        } catch (IllegalArgumentException e) {
-            throw new TodoNotFoundException(id);
+            deleted = this.todoRepository.deleteReturning(id).orElseThrow(() -> new TodoNotFoundException(id));
+        } catch (CannotAcquireLockException e) {
+            throw new TodoWriteConflictException(e);
         }
+        this.eventPublisher.publishEvent(TodoChangeEvent.deleted(TodoState.of(deleted)));
     }
 
     /**
-     * Updates an existing todo with the values sent in the request.
+     * Updates an existing todo with the values sent in the request, in a single statement that also checks the version
+     * and returns the state the todo had before. When nothing is updated the todo is read again, only to tell a missing
+     * todo from a version mismatch.
      * @param id the Id of the {@link Todo} to update.
      * @param request the request payload containing the new values.
+     * @param expectedVersions the versions the todo may be at, or {@code null} to update whatever its version
      * @return the updated {@link Todo}
+     * @throws TodoVersionMismatchException if the todo is not at an expected version.
+     * @throws TodoWriteConflictException if the todo is moved to or from the archive while the update waits on it.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TODOS_CACHE, key = "#id")
+    public Todo update(UUID id, UpdateTodoRequest request, Set<Long> expectedVersions) {
+        TodoUpdate update;
+        try {
+            update = this.todoRepository
+                    .updateReturning(id, request.name(), request.description(), request.dueDate(), request.status(), expectedVersions)
+                    .orElseThrow(() -> updateFailure(id, expectedVersions));
+        } catch (CannotAcquireLockException e) {
+            //PostgreSQL can't follow a row that a concurrent update moved to another partition, the client has to retry
+            throw new TodoWriteConflictException(e);
+        }
+        this.eventPublisher.publishEvent(TodoChangeEvent.updated(update.previous(), this.mapper.toResponse(update.todo())));
+        return update.todo();
+    }
+
+    /**
+     * @param id the id of a todo that wasn't updated
+     * @param expectedVersions the versions the todo could be at, or {@code null}
+     * @return a {@link TodoVersionMismatchException} if the todo exists at another version, a {@link TodoNotFoundException}
+     * otherwise.
      */
-    public Todo update(UUID id, UpdateTodoRequest request) {
+    private RuntimeException updateFailure(UUID id, Set<Long> expectedVersions) {
+        if (expectedVersions == null) {
+            return new TodoNotFoundException(id);
+        }
+        return this.todoRepository.findStateById(id)
+                .<RuntimeException>map(current -> new TodoVersionMismatchException(id, expectedVersions, current.version()))
+                .orElseGet(() -> new TodoNotFoundException(id));
+    }
+
+    /**
+     * Creates several todos in one transaction. Invalid items are reported and skipped, the valid ones are inserted
+     * with batched statements when the transaction commits.
+     * @param requests the {@link CreateTodoRequest} of each todo to be created
+     * @return a {@link BatchItemResult} per request, in the same order.
+     */
+    @Transactional
+    public List<BatchItemResult> createTodos(List<CreateTodoRequest> requests) {
+        checkBatchSize(requests);
+
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        Map<Integer, Todo> toCreate = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateTodoRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                results[i] = BatchItemResult.failure(i, HttpStatus.BAD_REQUEST, null, error);
+            } else {
+                toCreate.put(i, this.mapper.toEntity(request));
+            }
+        }
+
+        this.todoRepository.saveAll(new ArrayList<>(toCreate.values()));
+        toCreate.forEach((index, todo) -> {
+            TodoResponse response = this.mapper.toResponse(todo);
+            results[index] = BatchItemResult.success(index, HttpStatus.CREATED, todo.getId(), response);
+            this.eventPublisher.publishEvent(TodoChangeEvent.created(response));
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Updates several todos in one transaction. The todos are loaded with a single query and written back with batched
+     * statements when the transaction commits. Invalid and missing items are reported and skipped.
+     * @param requests the {@link BatchUpdateTodoRequest} of each todo to be updated
+     * @return a {@link BatchItemResult} per request, in the same order.
+     * @throws TodoWriteConflictException if a todo is moved to or from the archive while the batch waits on it.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TODOS_CACHE, allEntries = true)
+    public List<BatchItemResult> updateTodos(List<BatchUpdateTodoRequest> requests) {
+        checkBatchSize(requests);
+
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BatchUpdateTodoRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                results[i] = BatchItemResult.failure(i, HttpStatus.BAD_REQUEST, request == null ? null : request.id(), error);
+            } else {
+                ids.add(request.id());
+            }
+        }
+
+        Map<UUID, Todo> todos = new HashMap<>();
+        this.todoRepository.findAllById(ids).forEach(todo -> todos.put(todo.getId(), todo));
+        Map<Integer, TodoState> updated = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            BatchUpdateTodoRequest request = requests.get(i);
+            Todo todo = todos.get(request.id());
+            if (todo == null) {
+                results[i] = BatchItemResult.failure(i, HttpStatus.NOT_FOUND, request.id(), new TodoNotFoundException(request.id()).getMessage());
+                continue;
+            }
+            TodoState previous = TodoState.of(todo);
+            todo.setName(request.name());
+            todo.setDescription(request.description());
+            todo.setDueDate(request.dueDate());
+            todo.setStatus(request.status());
+            updated.put(i, previous);
+        }
+
+        //The batched updates would be sent on commit anyway, flushing them here makes the responses carry the new versions
+        try {
+            this.todoRepository.flush();
+        } catch (CannotAcquireLockException e) {
+            throw new TodoWriteConflictException(e);
+        }
+        updated.forEach((index, previous) -> {
+            Todo todo = todos.get(requests.get(index).id());
+            TodoResponse response = this.mapper.toResponse(todo);
+            results[index] = BatchItemResult.success(index, HttpStatus.OK, todo.getId(), response);
+            this.eventPublisher.publishEvent(TodoChangeEvent.updated(previous, response));
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Deletes several todos in one transaction, with a single query to find which ones exist, locking them, and a
+     * single delete statement. Missing ids are reported.
+     * @param ids the ids of the {@link Todo} to be deleted
+     * @return a {@link BatchItemResult} per id, in the same order.
+     * @throws TodoWriteConflictException if a todo is moved to or from the archive while the batch waits on it.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TODOS_CACHE, allEntries = true)
+    public List<BatchItemResult> deleteTodos(List<UUID> ids) {
+        checkBatchSize(ids);
+
+        Map<UUID, TodoState> existing;
+        try {
+            existing = this.todoRepository.findStatesForUpdate(ids.stream().filter(Objects::nonNull).toList())
+                    .stream().collect(Collectors.toMap(TodoState::id, Function.identity()));
+            this.todoRepository.deleteAllByIdInBatch(existing.keySet());
+        } catch (CannotAcquireLockException e) {
+            throw new TodoWriteConflictException(e);
+        }
+        existing.values().forEach(state -> this.eventPublisher.publishEvent(TodoChangeEvent.deleted(state)));
 
-        Todo toBeUpdated = getTodoById(id);
-        toBeUpdated.setName(request.name());
-        toBeUpdated.setDescription(request.description());
-        toBeUpdated.setDueDate(request.dueDate());
-        toBeUpdated.setStatus(request.status());
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            UUID id = ids.get(i);
+            results.add(existing.containsKey(id)
+                    ? BatchItemResult.success(i, HttpStatus.NO_CONTENT, id, null)
+                    : BatchItemResult.failure(i, HttpStatus.NOT_FOUND, id, id == null ? "Missing id" : new TodoNotFoundException(id).getMessage()));
+        }
+        return results;
+    }
 
-        return this.todoRepository.save(toBeUpdated);
+    /**
+     * Imports todos read one at a time from the reader. Each row is validated like a {@link CreateTodoRequest} and the
+     * valid ones are inserted with COPY in chunks of {@code todo.import.chunk-size}, so memory use doesn't depend on
+     * the size of the import. Invalid rows are skipped and reported, a database error rolls back the whole import.
+     * @param reader the rows to import
+     * @return the {@link ImportReport} of the import.
+     * @throws IOException if the rows can't be read.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public ImportReport importTodos(TodoImportReader reader) throws IOException {
+        int chunkSize = this.importProperties.chunkSize();
+        List<Todo> chunk = new ArrayList<>(chunkSize);
+        List<ImportReport.RowError> errors = new ArrayList<>();
+        long rows = 0;
+        long imported = 0;
+        long rejected = 0;
+
+        for (ImportRow row = reader.next(); row != null; row = reader.next()) {
+            rows++;
+            String error = row.error() != null ? row.error() : validateImport(row.request());
+            if (error != null) {
+                rejected++;
+                if (errors.size() < this.importProperties.maxReportedErrors()) {
+                    errors.add(new ImportReport.RowError(row.line(), error));
+                }
+                continue;
+            }
+            chunk.add(this.mapper.toEntity(row.request()));
+            if (chunk.size() == chunkSize) {
+                imported += copy(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            imported += copy(chunk);
+        }
+        return new ImportReport(rows, imported, rejected, errors);
+    }
+
+    private long copy(List<Todo> todos) {
+        long copied = this.todoCopyRepository.copy(todos);
+        todos.forEach(todo -> this.eventPublisher.publishEvent(TodoChangeEvent.created(this.mapper.toResponse(todo))));
+        return copied;
+    }
+
+    /**
+     * The bean validation of {@link #validate(Object)}, plus the column lengths: a COPY fails as a whole, so rows that
+     * the database would reject must be caught here.
+     */
+    private String validateImport(CreateTodoRequest request) {
+        String error = validate(request);
+        if (error == null && request.name().length() > MAX_TEXT_LENGTH) {
+            return "name must not be longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (error == null && request.description() != null && request.description().length() > MAX_TEXT_LENGTH) {
+            return "description must not be longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        return error;
+    }
+
+    private void checkBatchSize(List<?> items) {
+        if (items.size() > this.batchProperties.maxSize()) {
+            throw new BatchTooLargeException(items.size(), this.batchProperties.maxSize());
+        }
+    }
+
+    /**
+     * Applies the bean validation constraints of a batch item, the same ones @Valid applies to single requests.
+     * @return the violations joined in a message, or null if the item is valid.
+     */
+    private String validate(Object request) {
+        if (request == null) {
+            return "Missing item";
+        }
+        Set<ConstraintViolation<Object>> violations = this.validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
     }
 }
@@ -0,0 +1,149 @@
+package org.jordi.solsona.todolistapplication.service;
+
+import org.jordi.solsona.todolistapplication.api.dto.TodoStatsResponse;
+import org.jordi.solsona.todolistapplication.config.TodoStatsProperties;
+import org.jordi.solsona.todolistapplication.domain.model.TodoState;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves the aggregate statistics of the todos from in-memory counters, so reading them costs the same whatever the size
+ * of the table. The counters are recomputed from the database at startup and every {@code todo.stats.reconcile-interval},
+ * and kept current in between by the {@link TodoChangeEvent} of every committed write. Like the list queries, they only
+ * count the active todos: archived todos are left out both when reconciling and when applying the changes.
+ * <p>
+ * Overdue and due soon are relative to the time of the last reconciliation, a todo crossing its due date is only moved
+ * by the next one. Writes committed while a reconciliation runs may be missed or counted twice until the next one.
+ */
+@Service
+public class TodoStatisticsService {
+
+    private final TodoRepository todoRepository;
+    private final TodoStatsProperties properties;
+    private final AtomicReference<Counters> counters = new AtomicReference<>();
+
+    @Autowired
+    public TodoStatisticsService(TodoRepository todoRepository, TodoStatsProperties properties) {
+        this.todoRepository = todoRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the aggregate statistics of the todos, reconciling the counters first if they were never computed.
+     * @return the {@link TodoStatsResponse} read from the counters.
+     */
+    public TodoStatsResponse stats() {
+        Counters current = this.counters.get();
+        if (current == null) {
+            reconcile();
+            current = this.counters.get();
+        }
+        return current.toResponse();
+    }
+
+    /**
+     * Applies a committed change to the counters. Changes of rolled back transactions never reach it.
+     * @param event the {@link TodoChangeEvent} of the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChange(TodoChangeEvent event) {
+        Counters current = this.counters.get();
+        if (current != null) {
+            current.add(event.previous(), -1);
+            current.add(event.currentState(), 1);
+        }
+    }
+
+    /**
+     * Recomputes the counters from the database, replacing the current ones. The status counts are read from the
+     * per-status counter table, and the due date windows with range counts over the index of the open todos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${todo.stats.reconcile-interval:PT1M}", initialDelayString = "${todo.stats.reconcile-interval:PT1M}")
+    public void reconcile() {
+        Counters reconciled = new Counters(Instant.now(), this.properties.dueSoon());
+        reconciled.total.add(this.todoRepository.countByStatusFromCounters(null));
+        for (TodoStatus status : TodoStatus.values()) {
+            reconciled.byStatus.get(status).add(this.todoRepository.countByStatusFromCounters(status.name()));
+        }
+        reconciled.overdue.add(this.todoRepository.countOpenDueBefore(reconciled.reference));
+        for (int i = 0; i < reconciled.dueWithinEnds.length; i++) {
+            reconciled.dueWithin[i].add(this.todoRepository.countOpenDueBetween(reconciled.reference, reconciled.dueWithinEnds[i]));
+        }
+        this.counters.set(reconciled);
+    }
+
+    /**
+     * One generation of counters, all relative to the same reference time.
+     */
+    private static final class Counters {
+
+        private final Instant reference;
+        private final List<Duration> windows;
+        private final Instant[] dueWithinEnds;
+        private final LongAdder total = new LongAdder();
+        private final Map<TodoStatus, LongAdder> byStatus = new EnumMap<>(TodoStatus.class);
+        private final LongAdder overdue = new LongAdder();
+        private final LongAdder[] dueWithin;
+
+        private Counters(Instant reference, List<Duration> windows) {
+            this.reference = reference;
+            this.windows = windows;
+            this.dueWithinEnds = windows.stream().map(reference::plus).toArray(Instant[]::new);
+            this.dueWithin = new LongAdder[windows.size()];
+            for (int i = 0; i < this.dueWithin.length; i++) {
+                this.dueWithin[i] = new LongAdder();
+            }
+            for (TodoStatus status : TodoStatus.values()) {
+                this.byStatus.put(status, new LongAdder());
+            }
+        }
+
+        private void add(TodoState state, int delta) {
+            if (state == null || state.archived()) {
+                return;
+            }
+            this.total.add(delta);
+            if (state.status() != null) {
+                this.byStatus.get(state.status()).add(delta);
+            }
+            if (!state.isOpen() || state.dueDate() == null) {
+                return;
+            }
+            if (state.dueDate().isBefore(this.reference)) {
+                this.overdue.add(delta);
+                return;
+            }
+            for (int i = 0; i < this.dueWithinEnds.length; i++) {
+                if (state.dueDate().isBefore(this.dueWithinEnds[i])) {
+                    this.dueWithin[i].add(delta);
+                }
+            }
+        }
+
+        private TodoStatsResponse toResponse() {
+            Map<TodoStatus, Long> statusCounts = new EnumMap<>(TodoStatus.class);
+            this.byStatus.forEach((status, count) -> statusCounts.put(status, count.sum()));
+            Map<String, Long> dueWithinCounts = new LinkedHashMap<>();
+            for (int i = 0; i < this.dueWithin.length; i++) {
+                dueWithinCounts.put(this.windows.get(i).toString(), this.dueWithin[i].sum());
+            }
+            return new TodoStatsResponse(this.total.sum(), statusCounts, this.overdue.sum(), dueWithinCounts, this.reference);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package org.jordi.solsona.todolistapplication.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TodoNotFoundException;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TodoVersionMismatchException;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TodoWriteConflictException;
+import org.jordi.solsona.todolistapplication.commons.exceptions.WriteQueueFullException;
+import org.jordi.solsona.todolistapplication.commons.mappers.TodoMapper;
+import org.jordi.solsona.todolistapplication.config.CacheConfig;
+import org.jordi.solsona.todolistapplication.config.TodoWriteBehindProperties;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoState;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The write-behind mode of {@link TodoListService#createTodo} and {@link TodoListService#update}, enabled with
+ * {@code todo.write-behind.enabled}.
+ * <p>
+ * Writes are appended to a bounded lock-free queue and a single writer thread commits them in groups: it takes what is
+ * queued, waits up to {@code todo.write-behind.max-delay} for more, and writes up to
+ * {@code todo.write-behind.max-batch-size} of them in one transaction, the creates as batched inserts. Every caller gets
+ * a future completed once its write is committed, or with the error of that write alone: a group that fails is written
+ * again one write per transaction. A full queue rejects writes with a {@link WriteQueueFullException}.
+ * <p>
+ * The writer stops after the web server, so the writes of the requests still being served are committed, and waits up
+ * to {@code todo.write-behind.shutdown-timeout} for the queue to drain. Writes left after it are failed.
+ */
+@Service
+public class TodoWriteBehindService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoWriteBehindService.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final TodoRepository todoRepository;
+    private final TodoMapper mapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final TodoWriteBehindProperties properties;
+
+    private final ConcurrentLinkedQueue<Write> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rejected;
+    private final DistributionSummary batchSize;
+
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    @Autowired
+    public TodoWriteBehindService(TodoRepository todoRepository, TodoMapper mapper, PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher, CacheManager cacheManager,
+                                  TodoWriteBehindProperties properties, MeterRegistry meterRegistry) {
+        this.todoRepository = todoRepository;
+        this.mapper = mapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.properties = properties;
+        Gauge.builder("todo.writebehind.queued", this.queued, AtomicInteger::get)
+                .description("Writes waiting in the write-behind queue").register(meterRegistry);
+        this.rejected = Counter.builder("todo.writebehind.rejected")
+                .description("Writes rejected because the write-behind queue was full").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("todo.writebehind.batch.size")
+                .description("Writes committed together by the write-behind writer").register(meterRegistry);
+    }
+
+    /**
+     * @return true if creates and updates should go through this service.
+     */
+    public boolean isEnabled() {
+        return this.properties.enabled();
+    }
+
+    /**
+     * Queues the creation of a todo.
+     * @param request the values of the todo
+     * @return a future of the {@link TodoResponse} of the created todo, completed once it is committed, or with a
+     * {@link TimeoutException} after {@code todo.write-behind.commit-timeout}.
+     * @throws WriteQueueFullException if the queue is full.
+     */
+    public CompletableFuture<TodoResponse> create(CreateTodoRequest request) {
+        return submit(new Write(null, request, null, null));
+    }
+
+    /**
+     * Queues the update of a todo. Updates of the same todo are committed in the order they were queued.
+     * @param id the id of the todo to update
+     * @param request the new values
+     * @param expectedVersions the versions the todo may be at, or {@code null} to update whatever its version
+     * @return a future of the {@link TodoResponse} of the updated todo, completed once it is committed, or with a
+     * {@link TodoNotFoundException}, a {@link TodoVersionMismatchException} or a {@link TodoWriteConflictException}, or
+     * with a {@link TimeoutException} after {@code todo.write-behind.commit-timeout}.
+     * @throws WriteQueueFullException if the queue is full.
+     */
+    public CompletableFuture<TodoResponse> update(UUID id, UpdateTodoRequest request, Set<Long> expectedVersions) {
+        return submit(new Write(id, null, request, expectedVersions));
+    }
+
+    private CompletableFuture<TodoResponse> submit(Write write) {
+        if (!this.accepting) {
+            throw new IllegalStateException("The write-behind queue is not accepting writes");
+        }
+        int size;
+        do {
+            size = this.queued.get();
+            if (size >= this.properties.capacity()) {
+                this.rejected.increment();
+                throw new WriteQueueFullException(this.properties.capacity());
+            }
+        } while (!this.queued.compareAndSet(size, size + 1));
+        this.queue.offer(write);
+
+        //The writer may have drained the queue and stopped in between, then the write is taken back
+        if (!this.accepting && this.queue.remove(write)) {
+            this.queued.decrementAndGet();
+            throw new IllegalStateException("The write-behind queue is not accepting writes");
+        }
+        LockSupport.unpark(this.writer);
+        //A write that times out is still committed when its turn comes, only its caller stops waiting
+        return write.future.orTimeout(this.properties.commitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void start() {
+        this.accepting = true;
+        this.running = true;
+        this.writer = Thread.ofPlatform().name("todo-write-behind").start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        this.accepting = false;
+        this.running = false;
+        Thread thread = this.writer;
+        LockSupport.unpark(thread);
+        try {
+            if (!thread.join(this.properties.shutdownTimeout())) {
+                log.warn("The write-behind queue didn't drain in {}, failing the writes left", this.properties.shutdownTimeout());
+                thread.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Write write = this.queue.poll(); write != null; write = this.queue.poll()) {
+            this.queued.decrementAndGet();
+            write.future.completeExceptionally(new IllegalStateException("The application stopped before the write was committed"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return this.properties.enabled();
+    }
+
+    /**
+     * @return a phase below the web server's, so the writer starts before requests are served and stops after.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void drain() {
+        long maxDelay = this.properties.maxDelay().toNanos();
+        Write carried = null;
+        while ((this.running || this.queued.get() > 0 || carried != null) && !Thread.currentThread().isInterrupted()) {
+            List<Write> batch = new ArrayList<>();
+            Set<UUID> updated = new HashSet<>();
+            Write first = carried != null ? carried : poll();
+            carried = null;
+            if (first == null) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            batch.add(first);
+            if (first.id != null) {
+                updated.add(first.id);
+            }
+
+            long deadline = System.nanoTime() + maxDelay;
+            while (batch.size() < this.properties.maxBatchSize()) {
+                Write next = poll();
+                if (next == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !this.running) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                    continue;
+                }
+                //A todo is updated once per group, so every update sees the version the previous one committed
+                if (next.id != null && !updated.add(next.id)) {
+                    carried = next;
+                    break;
+                }
+                batch.add(next);
+            }
+            write(batch);
+        }
+    }
+
+    private Write poll() {
+        Write write = this.queue.poll();
+        if (write != null) {
+            this.queued.decrementAndGet();
+        }
+        return write;
+    }
+
+    private void write(List<Write> batch) {
+        try {
+            commit(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(conflictOrSelf(e));
+                return;
+            }
+            log.warn("Group commit of {} writes failed, writing them one by one", batch.size(), e);
+            for (Write write : batch) {
+                try {
+                    commit(List.of(write));
+                } catch (RuntimeException writeError) {
+                    write.future.completeExceptionally(conflictOrSelf(writeError));
+                    continue;
+                }
+                committed(List.of(write));
+            }
+            return;
+        }
+        committed(batch);
+    }
+
+    /**
+     * @return a {@link TodoWriteConflictException} when the write failed because its todo was moved to or from the
+     * archive while it waited on it, the error itself otherwise.
+     */
+    private static RuntimeException conflictOrSelf(RuntimeException error) {
+        return error instanceof CannotAcquireLockException ? new TodoWriteConflictException(error) : error;
+    }
+
+    /**
+     * Writes the batch in one transaction.
+     */
+    private void commit(List<Write> batch) {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            List<Write> creates = batch.stream().filter(write -> write.id == null).toList();
+            List<Todo> todos = this.todoRepository.saveAll(creates.stream().map(write -> this.mapper.toEntity(write.create)).toList());
+            this.todoRepository.flush();
+            for (int i = 0; i < creates.size(); i++) {
+                TodoResponse response = this.mapper.toResponse(todos.get(i));
+                creates.get(i).result = response;
+                this.eventPublisher.publishEvent(TodoChangeEvent.created(response));
+            }
+
+            for (Write write : batch) {
+                if (write.id != null) {
+                    update(write);
+                }
+            }
+        });
+    }
+
+    /**
+     * Once the batch is committed, evicts the updated todos from the cache and completes the futures. It runs outside of
+     * the retried {@link #commit}, so a failure here never writes the committed batch again.
+     */
+    private void committed(List<Write> batch) {
+        this.batchSize.record(batch.size());
+        Cache cache = this.cacheManager.getCache(CacheConfig.TODOS_CACHE);
+        for (Write write : batch) {
+            if (write.id != null && cache != null) {
+                try {
+                    cache.evict(write.id);
+                } catch (RuntimeException e) {
+                    log.warn("Couldn't evict the committed todo {} from the cache", write.id, e);
+                }
+            }
+            if (write.error != null) {
+                write.future.completeExceptionally(write.error);
+            } else {
+                write.future.complete(write.result);
+            }
+        }
+    }
+
+    /**
+     * The steps of {@link TodoListService#update}, except that a missing todo or a version mismatch is kept on the write
+     * instead of thrown, so it doesn't roll back the rest of the group.
+     */
+    private void update(Write write) {
+        write.error = null;
+        UpdateTodoRequest request = write.update;
+        TodoUpdate update = this.todoRepository
+                .updateReturning(write.id, request.name(), request.description(), request.dueDate(), request.status(), write.expectedVersions)
+                .orElse(null);
+        if (update == null) {
+            TodoState current = write.expectedVersions == null ? null : this.todoRepository.findStateById(write.id).orElse(null);
+            write.error = current == null
+                    ? new TodoNotFoundException(write.id)
+                    : new TodoVersionMismatchException(write.id, write.expectedVersions, current.version());
+            return;
+        }
+        write.result = this.mapper.toResponse(update.todo());
+        this.eventPublisher.publishEvent(TodoChangeEvent.updated(update.previous(), write.result));
+    }
+
+    /**
+     * A queued create, without id, or update, with the id of the todo.
+     */
+    private static final class Write {
+
+        private final UUID id;
+        private final CreateTodoRequest create;
+        private final UpdateTodoRequest update;
+        private final Set<Long> expectedVersions;
+        private final CompletableFuture<TodoResponse> future = new CompletableFuture<>();
+        private TodoResponse result;
+        private RuntimeException error;
+
+        Write(UUID id, CreateTodoRequest create, UpdateTodoRequest update, Set<Long> expectedVersions) {
+            this.id = id;
+            this.create = create;
+            this.update = update;
+            this.expectedVersions = expectedVersions;
+        }
+    }
+}
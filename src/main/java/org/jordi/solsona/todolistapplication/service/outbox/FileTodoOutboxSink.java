@@ -0,0 +1,46 @@
+package org.jordi.solsona.todolistapplication.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends the relayed messages to a file, one JSON object per line. Every batch is forced to disk before the relay
+ * deletes it from the outbox, so a crash can repeat lines but never lose them.
+ */
+public class FileTodoOutboxSink implements TodoOutboxSink, Closeable {
+
+    private final FileChannel channel;
+    private final ObjectMapper objectMapper;
+
+    public FileTodoOutboxSink(Path file, ObjectMapper objectMapper) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<TodoOutboxMessage> messages) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (TodoOutboxMessage message : messages) {
+            lines.write(this.objectMapper.writeValueAsBytes(message));
+            lines.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        this.channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
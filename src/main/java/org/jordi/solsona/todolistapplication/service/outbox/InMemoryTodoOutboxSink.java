@@ -0,0 +1,28 @@
+package org.jordi.solsona.todolistapplication.service.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the relayed messages in memory, a stand-in for a message broker in tests and local runs.
+ */
+public class InMemoryTodoOutboxSink implements TodoOutboxSink {
+
+    private final List<TodoOutboxMessage> messages = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<TodoOutboxMessage> messages) {
+        this.messages.addAll(messages);
+    }
+
+    /**
+     * @return the messages delivered so far, in delivery order.
+     */
+    public synchronized List<TodoOutboxMessage> messages() {
+        return List.copyOf(this.messages);
+    }
+
+    public synchronized void clear() {
+        this.messages.clear();
+    }
+}
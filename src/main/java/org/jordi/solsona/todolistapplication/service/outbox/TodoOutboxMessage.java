@@ -0,0 +1,18 @@
+package org.jordi.solsona.todolistapplication.service.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A change relayed from {@code todo_outbox}. Delivery is at-least-once, so a consumer may receive a message again, with
+ * the same id, and should skip the ids it already applied.
+ * @param id the position of the change in the outbox, increasing with every change of the same todo
+ * @param todoId the id of the changed todo
+ * @param createdAt when the change was recorded
+ * @param change the change, as the JSON of a {@link org.jordi.solsona.todolistapplication.api.dto.TodoChangeMessage}, or
+ *               of a {@link org.jordi.solsona.todolistapplication.service.reminder.TodoReminderEvent} for a reminder
+ */
+public record TodoOutboxMessage(long id, UUID todoId, Instant createdAt, @JsonRawValue String change) {
+}
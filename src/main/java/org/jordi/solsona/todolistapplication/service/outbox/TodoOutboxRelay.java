@@ -0,0 +1,130 @@
+package org.jordi.solsona.todolistapplication.service.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jordi.solsona.todolistapplication.config.TodoOutboxProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relays the changes recorded in {@code todo_outbox} to the {@link TodoOutboxSink}, at-least-once and in order for
+ * every todo.
+ * <p>
+ * Each batch is a transaction that locks up to {@code todo.outbox.batch-size} rows with {@code FOR UPDATE SKIP LOCKED},
+ * delivers them and deletes them. Only the oldest row left of each todo is taken, so a later change of a todo is never
+ * delivered while an earlier one is still locked by another node's relay, or waiting for a retry. Several nodes can
+ * relay at once, each on its own rows. A batch the sink fails is rolled back and delivered again on the next run.
+ */
+@Service
+public class TodoOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoOutboxRelay.class);
+
+    private static final String SELECT_HEADS = """
+            select o.id, o.todo_id, o.created_at, cast(o.payload as text) as payload
+              from todo_outbox o
+             where not exists (select 1 from todo_outbox earlier where earlier.todo_id = o.todo_id and earlier.id < o.id)
+             order by o.id
+             limit ?
+               for update skip locked""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TodoOutboxSink sink;
+    private final TodoOutboxProperties properties;
+    private final Counter published;
+    private final Counter failures;
+    private final Timer deliveryLag;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestMillis = new AtomicLong();
+
+    @Autowired
+    public TodoOutboxRelay(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, TodoOutboxSink sink,
+                           TodoOutboxProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.properties = properties;
+        this.published = Counter.builder("todo.outbox.published")
+                .description("Changes delivered to the outbox sink").register(meterRegistry);
+        this.failures = Counter.builder("todo.outbox.failures")
+                .description("Outbox batches the sink failed, delivered again on the next run").register(meterRegistry);
+        this.deliveryLag = Timer.builder("todo.outbox.delivery.lag")
+                .description("Time from the commit of a change to its delivery").publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("todo.outbox.pending", this.pending, AtomicLong::get)
+                .description("Changes in the outbox waiting to be delivered, as of the last run").register(meterRegistry);
+        Gauge.builder("todo.outbox.lag", this.oldestMillis, oldest -> oldest.get() == 0 ? 0 : (System.currentTimeMillis() - oldest.get()) / 1000.0)
+                .description("Age of the oldest change waiting to be delivered, as of the last run").baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delivers the waiting changes, batch after batch until a batch comes back empty: a batch holds one change per todo,
+     * so a short one doesn't mean the outbox is drained.
+     * @return the number of changes delivered.
+     */
+    @Scheduled(fixedDelayString = "${todo.outbox.interval:PT1S}", initialDelayString = "${todo.outbox.interval:PT1S}")
+    public int relay() {
+        if (!this.properties.enabled()) {
+            return 0;
+        }
+        int total = 0;
+        try {
+            int batch;
+            do {
+                batch = this.transactionTemplate.execute(status -> relayBatch());
+                total += batch;
+            } while (batch > 0);
+        } catch (UncheckedIOException e) {
+            this.failures.increment();
+            log.warn("The outbox sink failed, the changes are delivered again on the next run", e);
+        }
+
+        this.jdbcTemplate.query("select count(*), min(created_at) from todo_outbox", row -> {
+            this.pending.set(row.getLong(1));
+            this.oldestMillis.set(row.getTimestamp(2) == null ? 0 : row.getTimestamp(2).getTime());
+        });
+        return total;
+    }
+
+    private int relayBatch() {
+        List<TodoOutboxMessage> messages = this.jdbcTemplate.query(SELECT_HEADS,
+                (row, index) -> new TodoOutboxMessage(row.getLong("id"), row.getObject("todo_id", UUID.class),
+                        row.getTimestamp("created_at").toInstant(), row.getString("payload")),
+                this.properties.batchSize());
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            this.sink.publish(messages);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Long[] ids = messages.stream().map(TodoOutboxMessage::id).toArray(Long[]::new);
+        this.jdbcTemplate.update("delete from todo_outbox where id = any(?)",
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("bigint", ids)));
+
+        Instant now = Instant.now();
+        messages.forEach(message -> this.deliveryLag.record(Duration.between(message.createdAt(), now)));
+        this.published.increment(messages.size());
+        return messages.size();
+    }
+}
@@ -0,0 +1,18 @@
+package org.jordi.solsona.todolistapplication.service.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A destination of the changes relayed from {@code todo_outbox}, picked with {@code todo.outbox.sink}.
+ */
+public interface TodoOutboxSink {
+
+    /**
+     * Delivers the messages in order. The relay only deletes them from the outbox when this returns, a sink that fails
+     * part way gets all of them again.
+     * @param messages the messages to deliver, ordered by id
+     * @throws IOException if the messages couldn't be delivered.
+     */
+    void publish(List<TodoOutboxMessage> messages) throws IOException;
+}
@@ -0,0 +1,116 @@
+package org.jordi.solsona.todolistapplication.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jordi.solsona.todolistapplication.api.dto.TodoChangeMessage;
+import org.jordi.solsona.todolistapplication.config.TodoOutboxProperties;
+import org.jordi.solsona.todolistapplication.service.TodoChangeEvent;
+import org.jordi.solsona.todolistapplication.service.reminder.TodoReminderEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records every {@link TodoChangeEvent} in {@code todo_outbox}, in the transaction of the change, so a change is relayed
+ * if and only if it is committed. Fired {@link TodoReminderEvent} are recorded as well. The rows of a transaction are inserted with batched statements, every
+ * {@code todo.outbox.batch-size} changes and before the commit, so a bulk change doesn't send one insert per todo.
+ */
+@Component
+public class TodoOutboxWriter {
+
+    private static final String INSERT = "insert into todo_outbox (todo_id, payload) values (?, cast(? as jsonb))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TodoOutboxProperties properties;
+
+    @Autowired
+    public TodoOutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, TodoOutboxProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Adds the change to the rows of the current transaction, or inserts it right away outside of one.
+     * @param event the {@link TodoChangeEvent} of the change
+     */
+    @EventListener
+    public void onTodoChange(TodoChangeEvent event) {
+        record(event.id(), new TodoChangeMessage(event.type(), event.id(), event.current()));
+    }
+
+    /**
+     * Records a fired reminder, so the downstream services get it with the changes, whichever node fired it.
+     * @param event the {@link TodoReminderEvent} of the reminder
+     */
+    @EventListener
+    public void onTodoReminder(TodoReminderEvent event) {
+        record(event.id(), event);
+    }
+
+    private void record(UUID todoId, Object message) {
+        if (!this.properties.enabled()) {
+            return;
+        }
+        Object[] row;
+        try {
+            row = new Object[]{todoId, this.objectMapper.writeValueAsString(message)};
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.jdbcTemplate.update(INSERT, row);
+            return;
+        }
+        PendingRows pending = (PendingRows) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingRows();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(row);
+    }
+
+    /**
+     * The outbox rows of a transaction not inserted yet.
+     */
+    private final class PendingRows implements TransactionSynchronization {
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        void add(Object[] row) {
+            this.rows.add(row);
+            if (this.rows.size() >= TodoOutboxWriter.this.properties.batchSize()) {
+                flush();
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (!this.rows.isEmpty()) {
+                TodoOutboxWriter.this.jdbcTemplate.batchUpdate(INSERT, this.rows);
+                this.rows.clear();
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flush();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TodoOutboxWriter.this);
+        }
+    }
+}
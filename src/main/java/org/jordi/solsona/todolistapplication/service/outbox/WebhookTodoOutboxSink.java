@@ -0,0 +1,56 @@
+package org.jordi.solsona.todolistapplication.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Posts every batch of relayed messages to a URL as an {@code application/x-ndjson} body, one message per line. Any
+ * answer but a 2xx fails the batch, which is posted again on the next run of the relay.
+ */
+public class WebhookTodoOutboxSink implements TodoOutboxSink {
+
+    private final URI url;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    public WebhookTodoOutboxSink(URI url, Duration timeout, ObjectMapper objectMapper) {
+        this.url = url;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void publish(List<TodoOutboxMessage> messages) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (TodoOutboxMessage message : messages) {
+            body.write(this.objectMapper.writeValueAsBytes(message));
+            body.write('\n');
+        }
+        HttpRequest request = HttpRequest.newBuilder(this.url)
+                .timeout(this.timeout)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+
+        HttpResponse<Void> response;
+        try {
+            response = this.httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while posting the outbox messages to " + this.url, e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("The webhook " + this.url + " answered " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.jordi.solsona.todolistapplication.service.reminder;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel: every level is a ring of {@code 2^bits} buckets, a bucket of level {@code n} spanning
+ * {@code 2^(bits * n)} ticks. An entry is put in the lowest level whose ring still reaches its deadline, and moved down
+ * a level when the ring comes round to its bucket, so adding an entry and advancing a tick are O(1) whatever the number
+ * of pending entries. Buckets are singly linked lists threaded through the entries themselves, so an entry costs one
+ * small object and nothing else. Entries are never removed early: the owner checks them when they expire.
+ * <p>
+ * An entry expires on the first tick at or after its deadline, never before it. Not thread safe.
+ */
+final class HierarchicalTimingWheel {
+
+    private final long tickMillis;
+    private final int bits;
+    private final long mask;
+    private final Entry[][] buckets;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis the length of a tick
+     * @param bits the log2 of the buckets per level
+     * @param levels the number of levels, entries beyond {@code 2^(bits * levels)} ticks are cascaded again until due
+     * @param nowMillis the current time
+     */
+    HierarchicalTimingWheel(long tickMillis, int bits, int levels, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.bits = bits;
+        this.mask = (1L << bits) - 1;
+        this.buckets = new Entry[levels][1 << bits];
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * @param entry the entry to schedule
+     * @return true if the entry was scheduled, false if its deadline is already reached and it should be handled now.
+     */
+    boolean add(Entry entry) {
+        long tick = tickOf(entry);
+        if (tick <= this.currentTick) {
+            return false;
+        }
+        place(entry, tick);
+        this.size++;
+        return true;
+    }
+
+    /**
+     * Advances the wheel tick by tick up to the current time, handing every entry whose deadline is reached to the
+     * consumer.
+     * @param nowMillis the current time
+     * @param expired receives the expired entries
+     */
+    void advanceTo(long nowMillis, Consumer<Entry> expired) {
+        long target = nowMillis / this.tickMillis;
+        while (this.currentTick < target) {
+            this.currentTick++;
+            //A higher level ring comes round to its next bucket whenever all the lower digits of the tick wrap to zero
+            for (int level = 1; level < this.buckets.length; level++) {
+                if ((this.currentTick & ((1L << (this.bits * level)) - 1)) != 0) {
+                    break;
+                }
+                cascade(level, (int) ((this.currentTick >>> (this.bits * level)) & this.mask), expired);
+            }
+            cascade(0, (int) (this.currentTick & this.mask), expired);
+        }
+    }
+
+    /**
+     * @return the time the wheel has advanced to, entries with earlier deadlines have expired.
+     */
+    long currentMillis() {
+        return this.currentTick * this.tickMillis;
+    }
+
+    /**
+     * @return the number of scheduled entries.
+     */
+    int size() {
+        return this.size;
+    }
+
+    private void cascade(int level, int index, Consumer<Entry> expired) {
+        Entry entry = this.buckets[level][index];
+        this.buckets[level][index] = null;
+        while (entry != null) {
+            Entry next = entry.next;
+            entry.next = null;
+            long tick = tickOf(entry);
+            if (tick <= this.currentTick) {
+                this.size--;
+                expired.accept(entry);
+            } else {
+                place(entry, tick);
+            }
+            entry = next;
+        }
+    }
+
+    private void place(Entry entry, long tick) {
+        int level = 0;
+        //The lowest level whose higher digits are the same as the current tick's, the top level takes the rest
+        while (level < this.buckets.length - 1 && (tick >>> (this.bits * (level + 1))) != (this.currentTick >>> (this.bits * (level + 1)))) {
+            level++;
+        }
+        int index = (int) ((tick >>> (this.bits * level)) & this.mask);
+        entry.next = this.buckets[level][index];
+        this.buckets[level][index] = entry;
+    }
+
+    private long tickOf(Entry entry) {
+        //Rounded up, so an entry never expires before its deadline
+        return Math.floorDiv(entry.deadlineMillis + this.tickMillis - 1, this.tickMillis);
+    }
+
+    /**
+     * A scheduled reminder: the todo id as its two halves, the deadline and the stage, with the link to the next entry
+     * of its bucket.
+     */
+    static final class Entry {
+
+        final long idHigh;
+        final long idLow;
+        final long deadlineMillis;
+        final byte stage;
+        Entry next;
+
+        Entry(UUID id, long deadlineMillis, byte stage) {
+            this.idHigh = id.getMostSignificantBits();
+            this.idLow = id.getLeastSignificantBits();
+            this.deadlineMillis = deadlineMillis;
+            this.stage = stage;
+        }
+
+        UUID id() {
+            return new UUID(this.idHigh, this.idLow);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.jordi.solsona.todolistapplication.service.reminder;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by {@link TodoReminderService} when an open todo comes due, and again when it is still open
+ * {@code todo.reminders.overdue-after} later. Reminders are delivered at-least-once: a reminder fired just before the
+ * node that owns its slot stops can be fired again by the node taking the slot over.
+ * @param type the kind of reminder
+ * @param id the id of the todo
+ * @param dueDate the due date of the todo
+ */
+public record TodoReminderEvent(Type type, UUID id, Instant dueDate) {
+
+    /**
+     * The kinds of reminder, in the order they fire.
+     */
+    public enum Type {
+        TODO_DUE, TODO_OVERDUE
+    }
+}
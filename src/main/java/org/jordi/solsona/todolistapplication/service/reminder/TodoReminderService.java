@@ -0,0 +1,354 @@
+package org.jordi.solsona.todolistapplication.service.reminder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.config.TodoReminderProperties;
+import org.jordi.solsona.todolistapplication.domain.model.TodoState;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoReminderRepository;
+import org.jordi.solsona.todolistapplication.service.TodoChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fires a {@link TodoReminderEvent} when an open todo comes due, and another one when it is still open
+ * {@code todo.reminders.overdue-after} later, enabled with {@code todo.reminders.enabled}.
+ * <p>
+ * The todos are spread over {@code todo.reminders.slots} slots by id, and every slot is owned by one node at a time
+ * through a lease in {@code todo_reminder_leases}, so several nodes share the reminders without a coordinator. A node
+ * keeps the reminders of its slots for the next {@code todo.reminders.window} in a {@link HierarchicalTimingWheel},
+ * about 48 bytes each, and moves the window ahead every {@code todo.reminders.refresh-interval}. Creates and updates
+ * made on this node are scheduled as they commit; those made on other nodes are read back by their update time on
+ * every refresh. Entries are never cancelled: when a reminder comes up, the todo is read again and the reminder only
+ * fires if it is still open with the same due date, so deletes, completions and moved due dates need no bookkeeping.
+ * <p>
+ * A node that takes a slot over fires its reminders from the point the previous owner recorded in its lease, at most
+ * one window back, so the reminders missed while the slot had no owner still fire, late.
+ */
+@Service
+public class TodoReminderService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoReminderService.class);
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_LEVELS = 4;
+    private static final TodoReminderEvent.Type[] TYPES = TodoReminderEvent.Type.values();
+
+    private final TodoReminderRepository reminderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TodoReminderProperties properties;
+    private final String owner = UUID.randomUUID().toString();
+    private final Map<TodoReminderEvent.Type, Counter> fired = new LinkedHashMap<>();
+    private final Counter skipped;
+
+    //Guards the wheel, the owned slots and the window, which the ticks, the refreshes and the committed changes share
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Integer> owned = new HashSet<>();
+    private final List<HierarchicalTimingWheel.Entry> late = new ArrayList<>();
+    private HierarchicalTimingWheel wheel;
+    private Instant loadedUntil;
+    private Instant lastRefresh;
+
+    private volatile ScheduledExecutorService executor;
+
+    @Autowired
+    public TodoReminderService(TodoReminderRepository reminderRepository, PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher, TodoReminderProperties properties, MeterRegistry meterRegistry) {
+        this.reminderRepository = reminderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        for (TodoReminderEvent.Type type : TYPES) {
+            this.fired.put(type, Counter.builder("todo.reminders.fired").tag("type", type.name())
+                    .description("Reminders fired, by type").register(meterRegistry));
+        }
+        this.skipped = Counter.builder("todo.reminders.skipped")
+                .description("Scheduled reminders dropped because their todo was completed, deleted or moved").register(meterRegistry);
+        Gauge.builder("todo.reminders.scheduled", this, TodoReminderService::scheduled)
+                .description("Reminders held in memory").register(meterRegistry);
+        Gauge.builder("todo.reminders.slots.owned", this, reminders -> reminders.ownedSlots().size())
+                .description("Reminder slots owned by this node").register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        Instant now = Instant.now();
+        this.lock.lock();
+        try {
+            this.wheel = new HierarchicalTimingWheel(this.properties.tick().toMillis(), WHEEL_BITS, WHEEL_LEVELS, now.toEpochMilli());
+            this.loadedUntil = now;
+        } finally {
+            this.lock.unlock();
+        }
+        this.reminderRepository.createSlots(this.properties.slots());
+
+        //One thread for the ticks and the refreshes, so a refresh never runs while reminders fire
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("todo-reminders").daemon().factory());
+        this.executor.scheduleWithFixedDelay(this::refreshSafely, 0, this.properties.refreshInterval().toMillis(), TimeUnit.MILLISECONDS);
+        this.executor.scheduleAtFixedRate(this::tickSafely, this.properties.tick().toMillis(), this.properties.tick().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = this.executor;
+        this.executor = null;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(this.properties.refreshInterval().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.reminderRepository.release(this.owner, firedUntil());
+        this.lock.lock();
+        try {
+            this.owned.clear();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.executor != null;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return this.properties.enabled();
+    }
+
+    /**
+     * Schedules the reminders of a todo created or updated on this node, if its slot is owned here and its new due date
+     * falls in the loaded window. Changes that don't move the due date of an open todo schedule nothing new.
+     * @param event the {@link TodoChangeEvent} of the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChange(TodoChangeEvent event) {
+        TodoResponse todo = event.current();
+        if (!isRunning() || todo == null || todo.dueDate() == null || todo.status() == TodoStatus.COMPLETED) {
+            return;
+        }
+        TodoState previous = event.previous();
+        if (previous != null && previous.status() != TodoStatus.COMPLETED && Objects.equals(previous.dueDate(), todo.dueDate())) {
+            return;
+        }
+        int slot = TodoReminderRepository.slotOf(todo.id(), this.properties.slots());
+        this.lock.lock();
+        try {
+            if (this.owned.contains(slot)) {
+                for (TodoReminderEvent.Type type : TYPES) {
+                    schedule(todo.id(), todo.dueDate(), (byte) type.ordinal(), Instant.ofEpochMilli(this.wheel.currentMillis()), this.loadedUntil);
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Renews the leases, takes the free slots, loads the reminders of the slots taken from where their previous owner
+     * stopped, moves the window ahead and reads the changes made by the other nodes since the last refresh.
+     */
+    void refresh() {
+        Instant now = Instant.now();
+        Instant until = now.plus(this.properties.window());
+        Set<Integer> renewed = Set.of();
+        Set<Integer> current = ownedSlots();
+        if (!current.isEmpty()) {
+            renewed = this.reminderRepository.renew(this.owner, current, this.properties.leaseTtl(), firedUntil());
+        }
+        Map<Integer, Instant> acquired = this.reminderRepository.acquire(this.owner, this.properties.slots(),
+                this.properties.maxOwnedSlots() - renewed.size(), this.properties.leaseTtl());
+
+        Set<Integer> slots;
+        Instant from;
+        this.lock.lock();
+        try {
+            this.owned.retainAll(renewed);
+            this.owned.addAll(acquired.keySet());
+            slots = Set.copyOf(this.owned);
+            from = this.loadedUntil;
+        } finally {
+            this.lock.unlock();
+        }
+
+        Instant oldest = now.minus(this.properties.window());
+        acquired.forEach((slot, firedUntil) -> load(Set.of(slot), firedUntil.isBefore(oldest) ? oldest : firedUntil, from, null));
+        load(slots, from, until, null);
+        if (this.lastRefresh != null) {
+            //One more interval back, the update times are set by the clocks of the other nodes and of the database
+            load(slots, firedUntil(), until, this.lastRefresh.minus(this.properties.refreshInterval()));
+        }
+        this.lock.lock();
+        try {
+            this.loadedUntil = until;
+        } finally {
+            this.lock.unlock();
+        }
+        this.lastRefresh = now;
+    }
+
+    /**
+     * Advances the wheel to now and fires the reminders that came up, after checking their todos are still open with
+     * the same due date. Reminders of a slot this node lost are left to the new owner. When the check fails the
+     * reminders are kept for the next tick.
+     */
+    void tick() {
+        Map<Reminder, HierarchicalTimingWheel.Entry> expired = new LinkedHashMap<>();
+        this.lock.lock();
+        try {
+            this.late.forEach(entry -> collect(entry, expired));
+            this.late.clear();
+            this.wheel.advanceTo(System.currentTimeMillis(), entry -> collect(entry, expired));
+        } finally {
+            this.lock.unlock();
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, Instant> dueDates;
+        try {
+            dueDates = this.reminderRepository.findOpenDueDates(expired.keySet().stream().map(Reminder::id).distinct().toList());
+        } catch (RuntimeException e) {
+            this.lock.lock();
+            try {
+                this.late.addAll(expired.values());
+            } finally {
+                this.lock.unlock();
+            }
+            throw e;
+        }
+        for (Reminder reminder : expired.keySet()) {
+            Instant dueDate = dueDates.get(reminder.id());
+            if (dueDate == null || dueDate.toEpochMilli() != reminder.dueDate().toEpochMilli()) {
+                this.skipped.increment();
+                continue;
+            }
+            this.eventPublisher.publishEvent(new TodoReminderEvent(reminder.type(), reminder.id(), dueDate));
+            this.fired.get(reminder.type()).increment();
+        }
+    }
+
+    /**
+     * Adds the reminders of the open todos of the slots falling between the two times to the wheel.
+     */
+    private void load(Set<Integer> slots, Instant from, Instant to, Instant changedSince) {
+        this.transactionTemplate.executeWithoutResult(status -> this.reminderRepository.findReminders(slots, this.properties.slots(),
+                from, to, this.properties.overdueAfter(), changedSince, (id, dueDate, stage) -> {
+                    this.lock.lock();
+                    try {
+                        schedule(id, dueDate, stage, from, to);
+                    } finally {
+                        this.lock.unlock();
+                    }
+                }));
+    }
+
+    /**
+     * Adds a reminder to the wheel if its time falls between the two times, or to the reminders to fire on the next tick
+     * if it is already due. Must hold the lock.
+     */
+    private void schedule(UUID id, Instant dueDate, byte stage, Instant from, Instant to) {
+        Instant deadline = stage == 0 ? dueDate : dueDate.plus(this.properties.overdueAfter());
+        if (deadline.isBefore(from) || !deadline.isBefore(to)) {
+            return;
+        }
+        HierarchicalTimingWheel.Entry entry = new HierarchicalTimingWheel.Entry(id, deadline.toEpochMilli(), stage);
+        if (!this.wheel.add(entry)) {
+            this.late.add(entry);
+        }
+    }
+
+    /**
+     * Keeps the reminders of the owned slots, once: the same reminder can be scheduled both as its todo changed here and
+     * when the change was read back. Must hold the lock.
+     */
+    private void collect(HierarchicalTimingWheel.Entry entry, Map<Reminder, HierarchicalTimingWheel.Entry> expired) {
+        UUID id = entry.id();
+        if (!this.owned.contains(TodoReminderRepository.slotOf(id, this.properties.slots()))) {
+            return;
+        }
+        TodoReminderEvent.Type type = TYPES[entry.stage];
+        Duration delay = entry.stage == 0 ? Duration.ZERO : this.properties.overdueAfter();
+        expired.putIfAbsent(new Reminder(type, id, Instant.ofEpochMilli(entry.deadlineMillis).minus(delay)), entry);
+    }
+
+    /**
+     * @return the time up to which the reminders were fired: the wheel's, or the earliest reminder still to be fired
+     * again after a failed tick, so the next owner of its slot reloads it.
+     */
+    private Instant firedUntil() {
+        this.lock.lock();
+        try {
+            long firedUntil = this.wheel.currentMillis();
+            for (HierarchicalTimingWheel.Entry entry : this.late) {
+                firedUntil = Math.min(firedUntil, entry.deadlineMillis);
+            }
+            return Instant.ofEpochMilli(firedUntil);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Refreshing the reminders failed, retrying in {}", this.properties.refreshInterval(), e);
+        }
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            log.warn("Firing the reminders failed", e);
+        }
+    }
+
+    private int scheduled() {
+        this.lock.lock();
+        try {
+            return this.wheel == null ? 0 : this.wheel.size() + this.late.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private Set<Integer> ownedSlots() {
+        this.lock.lock();
+        try {
+            return Set.copyOf(this.owned);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private record Reminder(TodoReminderEvent.Type type, UUID id, Instant dueDate) {
+    }
+}
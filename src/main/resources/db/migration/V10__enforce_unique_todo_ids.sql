@@ -0,0 +1,19 @@
+-- The primary key of the partitioned todo_lists is (id, archived), it can't leave the partition key out, so each
+-- partition only keeps its own ids unique. A todo is always inserted in the active partition; this trigger rejects one
+-- whose id is already taken by an archived todo, as the primary key would for a single table.
+-- A todo moving between the partitions is deleted from one before it is inserted in the other, so it doesn't see itself.
+-- Two inserts of the same id both go to the active partition, where its primary key orders them.
+CREATE OR REPLACE FUNCTION todo_lists_check_unique_id() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM todo_lists WHERE id = NEW.id) THEN
+        RAISE unique_violation USING
+            MESSAGE = 'duplicate key value violates unique constraint "todo_lists_pkey"',
+            DETAIL = format('Key (id)=(%s) already exists.', NEW.id),
+            CONSTRAINT = 'todo_lists_pkey', TABLE = 'todo_lists';
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER todo_lists_check_unique_id BEFORE INSERT ON todo_lists
+    FOR EACH ROW EXECUTE FUNCTION todo_lists_check_unique_id();
@@ -0,0 +1,12 @@
+-- Schema previously created by hibernate ddl-auto, kept idempotent so existing databases can be baselined.
+CREATE TABLE IF NOT EXISTS todo_lists (
+    id          uuid         NOT NULL,
+    name        varchar(255),
+    description varchar(255),
+    status      varchar(255),
+    due_date    timestamp(6) with time zone,
+    created_at  timestamp(6) with time zone,
+    updated_at  timestamp(6) with time zone,
+    CONSTRAINT todo_lists_pkey PRIMARY KEY (id),
+    CONSTRAINT todo_lists_status_check CHECK (status IN ('NOT_STARTED', 'IN_PROGRESS', 'COMPLETED'))
+);
@@ -0,0 +1,11 @@
+-- Indexes matching the TodoSpecifications predicates and the default sortBy=dueDate, with id as the keyset tie-breaker.
+-- Built concurrently so existing tables stay writable; flyway runs this script outside a transaction.
+
+-- hasStatus + dueBefore, ordered by due date
+CREATE INDEX CONCURRENTLY idx_todo_lists_status_due_date_id ON todo_lists (status, due_date, id);
+
+-- dueBefore only or no filter, ordered by due date
+CREATE INDEX CONCURRENTLY idx_todo_lists_due_date_id ON todo_lists (due_date, id);
+
+-- open work, the hot set for overdue and due-soon lookups
+CREATE INDEX CONCURRENTLY idx_todo_lists_open_due_date_id ON todo_lists (due_date, id) WHERE status <> 'COMPLETED';
@@ -0,0 +1,53 @@
+-- Exact number of todos per status, kept current by statement level triggers so an exact count of a status filter is a
+-- lookup instead of a scan. Every statement adds its delta to one of 16 shards, picked by backend, so concurrent writers
+-- don't queue on a single counter row; a count is the sum of the shards. Todos without a status are counted under ''.
+CREATE TABLE todo_status_counts (
+    status varchar(255) NOT NULL,
+    shard  smallint     NOT NULL,
+    todos  bigint       NOT NULL,
+    CONSTRAINT todo_status_counts_pkey PRIMARY KEY (status, shard)
+);
+
+CREATE FUNCTION todo_status_counts_apply() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    v_shard smallint := pg_backend_pid() % 16;
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        DELETE FROM todo_status_counts;
+    ELSIF TG_OP = 'INSERT' THEN
+        INSERT INTO todo_status_counts (status, shard, todos)
+        SELECT coalesce(status, ''), v_shard, count(*) FROM new_rows GROUP BY 1 ORDER BY 1
+        ON CONFLICT (status, shard) DO UPDATE SET todos = todo_status_counts.todos + EXCLUDED.todos;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO todo_status_counts (status, shard, todos)
+        SELECT coalesce(status, ''), v_shard, -count(*) FROM old_rows GROUP BY 1 ORDER BY 1
+        ON CONFLICT (status, shard) DO UPDATE SET todos = todo_status_counts.todos + EXCLUDED.todos;
+    ELSE
+        INSERT INTO todo_status_counts (status, shard, todos)
+        SELECT status, v_shard, sum(delta)
+        FROM (SELECT coalesce(status, '') AS status, 1 AS delta FROM new_rows
+              UNION ALL
+              SELECT coalesce(status, ''), -1 FROM old_rows) AS changes
+        GROUP BY 1 HAVING sum(delta) <> 0 ORDER BY 1
+        ON CONFLICT (status, shard) DO UPDATE SET todos = todo_status_counts.todos + EXCLUDED.todos;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER todo_status_counts_insert AFTER INSERT ON todo_lists
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION todo_status_counts_apply();
+
+CREATE TRIGGER todo_status_counts_update AFTER UPDATE ON todo_lists
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION todo_status_counts_apply();
+
+CREATE TRIGGER todo_status_counts_delete AFTER DELETE ON todo_lists
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION todo_status_counts_apply();
+
+CREATE TRIGGER todo_status_counts_truncate AFTER TRUNCATE ON todo_lists
+    FOR EACH STATEMENT EXECUTE FUNCTION todo_status_counts_apply();
+
+-- The table is locked so no write slips between the initial count and the triggers taking over
+LOCK TABLE todo_lists IN SHARE MODE;
+INSERT INTO todo_status_counts (status, shard, todos)
+SELECT coalesce(status, ''), 0, count(*) FROM todo_lists GROUP BY 1;
@@ -0,0 +1,7 @@
+-- Optimistic locking version of each todo, bumped by every update. A constant default is only stored in the catalog,
+-- so existing rows aren't rewritten.
+ALTER TABLE todo_lists ADD COLUMN version bigint NOT NULL DEFAULT 0;
+
+-- The audit timestamps are set by JPA auditing, the defaults cover the rows inserted with COPY
+ALTER TABLE todo_lists ALTER COLUMN created_at SET DEFAULT now();
+ALTER TABLE todo_lists ALTER COLUMN updated_at SET DEFAULT now();
@@ -0,0 +1,7 @@
+-- Full-text document of each todo for GET /api/lists/search: the name weighs more than the description in the ranking.
+-- A stored generated column is computed once per write instead of for every row a search ranks. Adding it rewrites the
+-- table under an exclusive lock, so on a large table this migration should run in a quiet window.
+ALTER TABLE todo_lists ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'B')
+) STORED;
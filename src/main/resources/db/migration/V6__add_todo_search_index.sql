@@ -0,0 +1,3 @@
+-- Inverted index of the search documents, so a search only visits the todos containing its terms.
+-- Built concurrently so existing tables stay writable; flyway runs this script outside a transaction.
+CREATE INDEX CONCURRENTLY idx_todo_lists_search_vector ON todo_lists USING gin (search_vector);
@@ -0,0 +1,97 @@
+-- Splits todo_lists in two list partitions: todo_lists_active, with every todo, and todo_lists_archive, with the
+-- completed todos the archival job moved out of the way. Queries over active work filter on archived = false and only
+-- scan and index the active partition, however many completed todos pile up in the archive.
+-- The existing table becomes the active partition as is, so no row is copied, but its primary key has to be rebuilt to
+-- include the partition key: the migration holds an exclusive lock on todo_lists while it runs.
+
+ALTER TABLE todo_lists ADD COLUMN archived boolean NOT NULL DEFAULT false;
+
+-- The status counters move to the partitioned table, see below
+DROP TRIGGER todo_status_counts_insert ON todo_lists;
+DROP TRIGGER todo_status_counts_update ON todo_lists;
+DROP TRIGGER todo_status_counts_delete ON todo_lists;
+DROP TRIGGER todo_status_counts_truncate ON todo_lists;
+
+ALTER TABLE todo_lists DROP CONSTRAINT todo_lists_pkey;
+ALTER TABLE todo_lists RENAME TO todo_lists_active;
+ALTER INDEX idx_todo_lists_status_due_date_id RENAME TO todo_lists_active_status_due_date_id_idx;
+ALTER INDEX idx_todo_lists_due_date_id RENAME TO todo_lists_active_due_date_id_idx;
+ALTER INDEX idx_todo_lists_open_due_date_id RENAME TO todo_lists_active_open_due_date_id_idx;
+ALTER INDEX idx_todo_lists_search_vector RENAME TO todo_lists_active_search_vector_idx;
+
+CREATE TABLE todo_lists (
+    id            uuid         NOT NULL,
+    name          varchar(255),
+    description   varchar(255),
+    status        varchar(255),
+    due_date      timestamp(6) with time zone,
+    created_at    timestamp(6) with time zone DEFAULT now(),
+    updated_at    timestamp(6) with time zone DEFAULT now(),
+    version       bigint       NOT NULL DEFAULT 0,
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED,
+    archived      boolean      NOT NULL DEFAULT false,
+    -- A unique key of a partitioned table must include the partition key, ids are still unique as they are generated
+    CONSTRAINT todo_lists_pkey PRIMARY KEY (id, archived),
+    CONSTRAINT todo_lists_status_check CHECK (status IN ('NOT_STARTED', 'IN_PROGRESS', 'COMPLETED'))
+) PARTITION BY LIST (archived);
+
+ALTER TABLE todo_lists ATTACH PARTITION todo_lists_active FOR VALUES IN (false);
+CREATE TABLE todo_lists_archive PARTITION OF todo_lists FOR VALUES IN (true);
+CREATE INDEX todo_lists_archive_status_due_date_id_idx ON todo_lists_archive (status, due_date, id);
+CREATE INDEX todo_lists_archive_due_date_id_idx ON todo_lists_archive (due_date, id);
+CREATE INDEX todo_lists_archive_open_due_date_id_idx ON todo_lists_archive (due_date, id) WHERE status <> 'COMPLETED';
+CREATE INDEX todo_lists_archive_search_vector_idx ON todo_lists_archive USING gin (search_vector);
+
+-- Partitioned indexes, they adopt the matching indexes of both partitions
+CREATE INDEX idx_todo_lists_status_due_date_id ON todo_lists (status, due_date, id);
+CREATE INDEX idx_todo_lists_due_date_id ON todo_lists (due_date, id);
+CREATE INDEX idx_todo_lists_open_due_date_id ON todo_lists (due_date, id) WHERE status <> 'COMPLETED';
+CREATE INDEX idx_todo_lists_search_vector ON todo_lists USING gin (search_vector);
+
+-- Completed todos of the active partition by age, the batches of the archival job
+CREATE INDEX todo_lists_active_completed_updated_at_idx ON todo_lists_active (updated_at, id) WHERE status = 'COMPLETED';
+
+-- The status counters only count the active partition, the population the list counts. Archiving a todo is an update
+-- that moves it from an active row to an archived one, so it is counted out.
+CREATE OR REPLACE FUNCTION todo_status_counts_apply() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    v_shard smallint := pg_backend_pid() % 16;
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        DELETE FROM todo_status_counts;
+    ELSIF TG_OP = 'INSERT' THEN
+        INSERT INTO todo_status_counts (status, shard, todos)
+        SELECT coalesce(status, ''), v_shard, count(*) FROM new_rows WHERE NOT archived GROUP BY 1 ORDER BY 1
+        ON CONFLICT (status, shard) DO UPDATE SET todos = todo_status_counts.todos + EXCLUDED.todos;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO todo_status_counts (status, shard, todos)
+        SELECT coalesce(status, ''), v_shard, -count(*) FROM old_rows WHERE NOT archived GROUP BY 1 ORDER BY 1
+        ON CONFLICT (status, shard) DO UPDATE SET todos = todo_status_counts.todos + EXCLUDED.todos;
+    ELSE
+        INSERT INTO todo_status_counts (status, shard, todos)
+        SELECT status, v_shard, sum(delta)
+        FROM (SELECT coalesce(status, '') AS status, 1 AS delta FROM new_rows WHERE NOT archived
+              UNION ALL
+              SELECT coalesce(status, ''), -1 FROM old_rows WHERE NOT archived) AS changes
+        GROUP BY 1 HAVING sum(delta) <> 0 ORDER BY 1
+        ON CONFLICT (status, shard) DO UPDATE SET todos = todo_status_counts.todos + EXCLUDED.todos;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+-- Statement level triggers of a partitioned table see the rows of every partition in their transition tables
+CREATE TRIGGER todo_status_counts_insert AFTER INSERT ON todo_lists
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION todo_status_counts_apply();
+
+CREATE TRIGGER todo_status_counts_update AFTER UPDATE ON todo_lists
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION todo_status_counts_apply();
+
+CREATE TRIGGER todo_status_counts_delete AFTER DELETE ON todo_lists
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION todo_status_counts_apply();
+
+CREATE TRIGGER todo_status_counts_truncate AFTER TRUNCATE ON todo_lists
+    FOR EACH STATEMENT EXECUTE FUNCTION todo_status_counts_apply();
@@ -0,0 +1,11 @@
+-- Changes of the todos waiting to be relayed to downstream services, inserted in the transaction of the change itself
+-- and deleted once delivered. The index serves the relay's check that a row is the oldest one left of its todo.
+CREATE TABLE todo_outbox (
+    id         bigint      GENERATED ALWAYS AS IDENTITY,
+    todo_id    uuid        NOT NULL,
+    payload    jsonb       NOT NULL,
+    created_at timestamptz NOT NULL DEFAULT now(),
+    CONSTRAINT todo_outbox_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX todo_outbox_todo_id_idx ON todo_outbox (todo_id, id);
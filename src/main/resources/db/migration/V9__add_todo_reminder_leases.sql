@@ -0,0 +1,10 @@
+-- Ownership of the reminder slots, the todos being spread over the slots by id. A node owns a slot while it keeps
+-- renewing its lease; a lease that expired can be taken by any node, which fires the reminders of the slot from
+-- fired_until, the point the previous owner had reached. The rows are created by the nodes, for the configured slots.
+CREATE TABLE todo_reminder_leases (
+    slot        integer     NOT NULL,
+    owner       varchar(64),
+    expires_at  timestamptz,
+    fired_until timestamptz NOT NULL DEFAULT now(),
+    CONSTRAINT todo_reminder_leases_pkey PRIMARY KEY (slot)
+);
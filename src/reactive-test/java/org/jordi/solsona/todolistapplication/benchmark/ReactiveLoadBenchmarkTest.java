@@ -0,0 +1,61 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import org.jordi.solsona.todolistapplication.TodoListApplication;
+import org.jordi.solsona.todolistapplication.reactive.TodoListReactiveApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares throughput and p99 latency of the list endpoint served by the servlet stack, on Tomcat's platform thread
+ * pool, and by the reactive variant, on Netty's event loops, under the same many concurrent clients as
+ * {@link TodoLoadBenchmarkTest}. Run with {@code mvn test -Pbenchmark,reactive}.
+ */
+@Tag("benchmark")
+public class ReactiveLoadBenchmarkTest {
+
+    private static final String LIST_PATH = "/api/lists?status=IN_PROGRESS&size=10";
+
+    @Test
+    void listThroughputAndP99_servletVersusReactive() throws Exception {
+        TodoLoadBenchmarkTest.Result servlet = run(new SpringApplicationBuilder(TodoListApplication.class)
+                .properties("server.port=0", "spring.jpa.show-sql=false", "spring.cache.type=none"));
+        TodoLoadBenchmarkTest.Result reactive = run(new SpringApplicationBuilder(TodoListReactiveApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("server.port=0"));
+
+        System.out.printf("%n%-16s %10s %10s %10s %8s%n", "stack", "req/s", "p50 (ms)", "p99 (ms)", "errors");
+        System.out.printf("%-16s %10.0f %10.1f %10.1f %8d%n", "servlet", servlet.requestsPerSecond(), servlet.p50Millis(), servlet.p99Millis(), servlet.errors());
+        System.out.printf("%-16s %10.0f %10.1f %10.1f %8d%n", "reactive", reactive.requestsPerSecond(), reactive.p50Millis(), reactive.p99Millis(), reactive.errors());
+
+        assertThat(reactive.errors()).isZero();
+    }
+
+    private TodoLoadBenchmarkTest.Result run(SpringApplicationBuilder application) throws Exception {
+        try (ConfigurableApplicationContext context = application.run()) {
+            //The reactive variant has no JDBC data source, the rows are seeded through a connection of the test's own
+            Environment environment = context.getEnvironment();
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(environment.getRequiredProperty("spring.datasource.url"),
+                    environment.getRequiredProperty("spring.datasource.username"), environment.getRequiredProperty("spring.datasource.password")));
+            TodoLoadBenchmarkTest.seed(jdbcTemplate);
+            try {
+                int port = Integer.parseInt(environment.getRequiredProperty("local.server.port"));
+                URI uri = URI.create("http://localhost:" + port + LIST_PATH);
+                TodoLoadBenchmarkTest.load(uri, Duration.ofSeconds(2));
+                return TodoLoadBenchmarkTest.load(uri, Duration.ofSeconds(TodoLoadBenchmarkTest.SECONDS));
+            } finally {
+                jdbcTemplate.update("DELETE FROM todo_lists");
+            }
+        }
+    }
+}
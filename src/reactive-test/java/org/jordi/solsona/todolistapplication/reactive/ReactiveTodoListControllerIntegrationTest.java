@@ -0,0 +1,194 @@
+package org.jordi.solsona.todolistapplication.reactive;
+
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.integration.AbstractPostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The scenarios of {@code TodoListControllerIntegrationTest} for the endpoints the reactive variant serves, sent over
+ * HTTP the same way and expecting the same responses.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.main.web-application-type=reactive")
+public class ReactiveTodoListControllerIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @AfterEach
+    void tearDown() {
+        this.databaseClient.sql("DELETE FROM todo_lists").then().block();
+    }
+
+    @Test
+    void createAndGetTodo_shouldReturnTodoResponse() {
+        String requestBody = "{\"name\":\"Test Todo List\", \"status\":\"NOT_STARTED\", \"dueDate\":\"1766138400\"}";
+
+        ResponseEntity<TodoResponse> created = create(requestBody);
+        ResponseEntity<TodoResponse> fetched = this.restTemplate.getForEntity("/api/lists/" + created.getBody().id(), TodoResponse.class);
+
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        assertEquals("Test Todo List", created.getBody().name());
+        assertEquals("NOT_STARTED", created.getBody().status().name());
+        assertEquals(HttpStatus.OK, fetched.getStatusCode());
+        assertEquals(created.getBody(), fetched.getBody());
+    }
+
+    @Test
+    void createTodo_blankName_shouldReturnBadRequest() {
+        ResponseEntity<String> response = this.restTemplate.exchange("/api/lists", HttpMethod.POST,
+                new HttpEntity<>("{\"name\":\" \"}", this.getJsonHeaders()), String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void listTodo_withFiltersAndSort_shouldReturnMatchingPage() {
+        for (int i = 0; i < 4; i++) {
+            create("""
+                {
+                  "name": "Todo %d",
+                  "status": "%s",
+                  "dueDate": "%d"
+                }
+                """.formatted(i, i == 3 ? "COMPLETED" : "IN_PROGRESS", 1766138400 + i));
+        }
+
+        ResponseEntity<Map> response = this.restTemplate.getForEntity(
+                "/api/lists?status=IN_PROGRESS&dueTime=2025-12-19T10:00:01Z&page=1&size=1&orderDirection=DESC", Map.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<?> content = (List<?>) response.getBody().get("content");
+        assertEquals(1, content.size());
+        assertEquals("Todo 0", ((Map<?, ?>) content.get(0)).get("name"));
+        assertEquals(2, response.getBody().get("totalElements"));
+        assertTrue(response.getBody().containsKey("number"));
+        assertTrue(response.getBody().containsKey("size"));
+    }
+
+    @Test
+    void listTodo_countModes_shouldReturnExactOrNoTotal() {
+        for (int i = 0; i < 3; i++) {
+            create("{\"name\": \"Todo %d\", \"status\": \"IN_PROGRESS\"}".formatted(i));
+        }
+
+        ResponseEntity<Map> exact = this.restTemplate.getForEntity("/api/lists?status=IN_PROGRESS&size=1&count=EXACT", Map.class);
+        ResponseEntity<Map> none = this.restTemplate.getForEntity("/api/lists?status=IN_PROGRESS&size=1&count=NONE", Map.class);
+
+        assertEquals(3, exact.getBody().get("totalElements"));
+        assertEquals(1, ((List<?>) none.getBody().get("content")).size());
+        assertFalse(none.getBody().containsKey("totalElements"));
+        assertEquals(false, none.getBody().get("last"));
+    }
+
+    @Test
+    void getTodo_withMatchingIfNoneMatch_shouldReturnNotModified() {
+        UUID id = create("{\"name\": \"title\", \"status\": \"NOT_STARTED\"}").getBody().id();
+        ResponseEntity<TodoResponse> first = this.restTemplate.getForEntity("/api/lists/" + id, TodoResponse.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(first.getHeaders().getETag());
+
+        ResponseEntity<TodoResponse> second = this.restTemplate.exchange("/api/lists/" + id, HttpMethod.GET, new HttpEntity<>(headers), TodoResponse.class);
+        ResponseEntity<String> page = this.restTemplate.getForEntity("/api/lists", String.class);
+        headers.setIfNoneMatch(page.getHeaders().getETag());
+        ResponseEntity<String> samePage = this.restTemplate.exchange("/api/lists", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertEquals("\"0\"", first.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        assertNull(second.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, samePage.getStatusCode());
+    }
+
+    @Test
+    void updateTodo_withStaleIfMatch_shouldReturnPreconditionFailed() {
+        UUID id = create("{\"name\": \"title\", \"status\": \"NOT_STARTED\"}").getBody().id();
+        String requestBody = """
+                {"name": "renamed", "status": "IN_PROGRESS"}
+                """;
+        HttpHeaders headers = this.getJsonHeaders();
+        headers.setIfMatch("\"0\"");
+
+        ResponseEntity<TodoResponse> updated = this.restTemplate.exchange("/api/lists/" + id, HttpMethod.PUT, new HttpEntity<>(requestBody, headers), TodoResponse.class);
+        ResponseEntity<String> conflict = this.restTemplate.exchange("/api/lists/" + id, HttpMethod.PUT, new HttpEntity<>(requestBody, headers), String.class);
+
+        assertEquals(HttpStatus.OK, updated.getStatusCode());
+        assertEquals("\"1\"", updated.getHeaders().getETag());
+        assertEquals("renamed", updated.getBody().name());
+        assertEquals(1, updated.getBody().version());
+        assertEquals(HttpStatus.PRECONDITION_FAILED, conflict.getStatusCode());
+    }
+
+    @Test
+    void exportTodo_shouldStreamMatchingTodos() {
+        for (int i = 0; i < 3; i++) {
+            create("""
+                {
+                  "name": "Todo %d",
+                  "status": "%s",
+                  "dueDate": "%d"
+                }
+                """.formatted(i, i == 2 ? "COMPLETED" : "IN_PROGRESS", 1766138400 + i));
+        }
+
+        ResponseEntity<String> ndjson = this.restTemplate.getForEntity("/api/lists/export?status=IN_PROGRESS", String.class);
+        ResponseEntity<String> csv = this.restTemplate.getForEntity("/api/lists/export?format=CSV&dueTime=2025-12-19T10:00:00Z", String.class);
+
+        assertEquals(HttpStatus.OK, ndjson.getStatusCode());
+        assertEquals("application/x-ndjson", ndjson.getHeaders().getContentType().toString());
+        List<String> lines = ndjson.getBody().lines().toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"name\":\"Todo 0\""));
+        assertTrue(lines.get(1).contains("\"name\":\"Todo 1\""));
+
+        assertEquals(HttpStatus.OK, csv.getStatusCode());
+        assertEquals(List.of("id,name,description,dueDate,status", "Todo 0"),
+                csv.getBody().lines().map(line -> line.contains(",Todo") ? line.split(",")[1] : line).toList());
+    }
+
+    @Test
+    void deleteTodo_shouldReturnNoContentThenNotFound() {
+        UUID id = create("{\"name\": \"To Delete\", \"status\": \"NOT_STARTED\"}").getBody().id();
+
+        ResponseEntity<Void> deleteResponse = this.restTemplate.exchange("/api/lists/" + id, HttpMethod.DELETE, null, Void.class);
+        ResponseEntity<String> getResponse = this.restTemplate.getForEntity("/api/lists/" + id, String.class);
+
+        assertEquals(HttpStatus.NO_CONTENT, deleteResponse.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, getResponse.getStatusCode());
+    }
+
+    @Test
+    void updateAndDeleteTodo_missingTodo_shouldReturnNotFound() {
+        UUID missingId = UUID.randomUUID();
+
+        ResponseEntity<String> updateResponse = this.restTemplate.exchange("/api/lists/" + missingId, HttpMethod.PUT,
+                new HttpEntity<>("{\"name\": \"Missing\", \"status\": \"COMPLETED\"}", this.getJsonHeaders()), String.class);
+        ResponseEntity<String> deleteResponse = this.restTemplate.exchange("/api/lists/" + missingId, HttpMethod.DELETE, null, String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, updateResponse.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, deleteResponse.getStatusCode());
+    }
+
+    private ResponseEntity<TodoResponse> create(String requestBody) {
+        return this.restTemplate.exchange("/api/lists", HttpMethod.POST, new HttpEntity<>(requestBody, this.getJsonHeaders()), TodoResponse.class);
+    }
+
+    private HttpHeaders getJsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+}
@@ -0,0 +1,28 @@
+package org.jordi.solsona.todolistapplication.reactive;
+
+import org.jordi.solsona.todolistapplication.config.FlywayConfig;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * The WebFlux and R2DBC variant of the application, built with the {@code reactive} profile. It serves the same
+ * {@code /api/lists} contract against the same database, configured by the same {@code spring.datasource} properties,
+ * with a fixed number of event loop threads instead of a thread per request. There is no JDBC data source, so no JPA:
+ * Flyway gets its own short-lived connection from {@code todo-reactive.properties}.
+ */
+@SpringBootApplication(exclude = DataSourceAutoConfiguration.class)
+@ConfigurationPropertiesScan("org.jordi.solsona.todolistapplication.reactive.config")
+@Import(FlywayConfig.class)
+@PropertySource("classpath:todo-reactive.properties")
+public class TodoListReactiveApplication {
+
+    public static void main(String[] args) {
+        //The servlet stack is on the classpath too, it would be picked by default
+        new SpringApplicationBuilder(TodoListReactiveApplication.class).web(WebApplicationType.REACTIVE).run(args);
+    }
+}
@@ -0,0 +1,72 @@
+package org.jordi.solsona.todolistapplication.reactive.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.jordi.solsona.todolistapplication.commons.id.TodoIdGenerator;
+import org.jordi.solsona.todolistapplication.commons.id.UuidV7Generator;
+import org.jordi.solsona.todolistapplication.commons.mappers.TodoMapper;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@Configuration
+public class ReactiveDataConfig {
+
+    private static final String JDBC_PREFIX = "jdbc:";
+
+    /**
+     * A pool of R2DBC connections to the database of {@code spring.datasource}. The JDBC url is reused without its
+     * parameters, which are specific to the JDBC driver.
+     * @param url the JDBC url of the database
+     * @param username the database user
+     * @param password the database password
+     * @param properties the pool settings
+     * @return the {@link ConnectionPool}
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionPool(@Value("${spring.datasource.url}") String url,
+                                         @Value("${spring.datasource.username}") String username,
+                                         @Value("${spring.datasource.password}") String password,
+                                         TodoReactiveProperties properties) {
+        String location = url.startsWith(JDBC_PREFIX) ? url.substring(JDBC_PREFIX.length()) : url;
+        int parameters = location.indexOf('?');
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse("r2dbc:" + (parameters < 0 ? location : location.substring(0, parameters)))
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive")
+                .maxSize(properties.poolSize())
+                .maxAcquireTime(properties.maxAcquireTime())
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionPool connectionPool) {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * The mapper of the servlet variant, it is generated for Spring but has no dependencies.
+     * @return the {@link TodoMapper}
+     */
+    @Bean
+    public TodoMapper todoMapper() {
+        return Mappers.getMapper(TodoMapper.class);
+    }
+
+    /**
+     * Time ordered ids, like the default of the servlet variant.
+     * @return a {@link UuidV7Generator}
+     */
+    @Bean
+    public TodoIdGenerator todoIdGenerator() {
+        return new UuidV7Generator();
+    }
+}
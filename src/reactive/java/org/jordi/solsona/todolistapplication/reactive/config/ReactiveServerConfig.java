@@ -0,0 +1,43 @@
+package org.jordi.solsona.todolistapplication.reactive.config;
+
+import org.jordi.solsona.todolistapplication.api.controller.TodoQueryGuard;
+import org.jordi.solsona.todolistapplication.config.TodoQueryProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.netty.NettyRouteProvider;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TodoQueryProperties.class)
+public class ReactiveServerConfig {
+
+    /**
+     * Serves the requests with Reactor Netty. Tomcat, which the servlet variant brings along, would be picked otherwise,
+     * with its reactive adapter over the servlet API.
+     * @param serverCustomizers the customizers of the server, like Spring Boot's own
+     * @param routes the routes the server serves besides the application ones
+     * @return the {@link NettyReactiveWebServerFactory}
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(ObjectProvider<NettyServerCustomizer> serverCustomizers,
+                                                                       ObjectProvider<NettyRouteProvider> routes) {
+        NettyReactiveWebServerFactory serverFactory = new NettyReactiveWebServerFactory();
+        serverFactory.getServerCustomizers().addAll(serverCustomizers.orderedStream().toList());
+        serverFactory.addRouteProviders(routes.orderedStream().toArray(NettyRouteProvider[]::new));
+        return serverFactory;
+    }
+
+    /**
+     * The page size and sort limits of the servlet variant. Its concurrency limiter is not applied here: the pool of
+     * {@code todo.reactive.pool-size} connections already bounds the queries, and the rest wait without a thread.
+     * @param properties the {@code todo.query} limits
+     * @return the {@link TodoQueryGuard}
+     */
+    @Bean
+    public TodoQueryGuard todoQueryGuard(TodoQueryProperties properties) {
+        return new TodoQueryGuard(properties);
+    }
+}
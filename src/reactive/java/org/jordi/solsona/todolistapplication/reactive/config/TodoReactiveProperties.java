@@ -0,0 +1,15 @@
+package org.jordi.solsona.todolistapplication.reactive.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the reactive variant.
+ * @param poolSize the maximum number of R2DBC connections, the bound of the database concurrency
+ * @param maxAcquireTime how long a query waits for a connection before failing
+ */
+@ConfigurationProperties(prefix = "todo.reactive")
+public record TodoReactiveProperties(@DefaultValue("20") int poolSize, @DefaultValue("PT30S") Duration maxAcquireTime) {
+}
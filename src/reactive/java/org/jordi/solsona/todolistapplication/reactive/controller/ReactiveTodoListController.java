@@ -0,0 +1,184 @@
+package org.jordi.solsona.todolistapplication.reactive.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import org.jordi.solsona.todolistapplication.api.controller.TodoETags;
+import org.jordi.solsona.todolistapplication.api.controller.TodoQueryGuard;
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.PageResponse;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.export.ExportFormat;
+import org.jordi.solsona.todolistapplication.api.export.TodoExportWriter;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.CountMode;
+import org.jordi.solsona.todolistapplication.reactive.service.ReactiveTodoListService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The {@code /api/lists} endpoints of {@code TodoListController} on WebFlux: the same paths, parameters, bodies, status
+ * codes and entity tags, handled on the event loop. The cursor scroll, search, batch, import, stats and change feed
+ * endpoints are only served by the servlet variant.
+ */
+@RestController
+@RequestMapping("/api/lists")
+public class ReactiveTodoListController {
+
+    private final ReactiveTodoListService todoListService;
+    private final ObjectMapper objectMapper;
+    private final TodoQueryGuard queryGuard;
+
+    @Autowired
+    public ReactiveTodoListController(ReactiveTodoListService todoListService, ObjectMapper objectMapper, TodoQueryGuard queryGuard) {
+        this.todoListService = todoListService;
+        this.objectMapper = objectMapper;
+        this.queryGuard = queryGuard;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<TodoResponse>> create(@RequestBody @Valid CreateTodoRequest request) {
+        return this.todoListService.createTodo(request).map(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<TodoResponse>> get(@PathVariable UUID id,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return this.todoListService.getTodoById(id)
+                .map(response -> ResponseEntity.ok().eTag(TodoETags.of(response, accept)).varyBy(HttpHeaders.ACCEPT).body(response));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<PageResponse<TodoResponse>>> list(@RequestParam(required = false) TodoStatus status,
+                                                                 @RequestParam(required = false) Instant dueTime,
+                                                                 @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "10") int size,
+                                                                 @RequestParam(defaultValue = "dueDate") String sortBy,
+                                                                 @RequestParam(defaultValue = "ASC") Sort.Direction orderDirection,
+                                                                 @RequestParam(defaultValue = "EXACT") CountMode count,
+                                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        Pageable pageable = this.queryGuard.pageable(page, size, sortBy, orderDirection);
+        return this.todoListService.list(status, dueTime, includeArchived, pageable, count)
+                .map(todoListPage -> ResponseEntity.ok().eTag(TodoETags.of(todoListPage, accept)).varyBy(HttpHeaders.ACCEPT)
+                        .body(PageResponse.of(todoListPage)));
+    }
+
+    @GetMapping(params = "count=NONE")
+    public Mono<ResponseEntity<PageResponse<TodoResponse>>> listSlice(@RequestParam(required = false) TodoStatus status,
+                                                                      @RequestParam(required = false) Instant dueTime,
+                                                                      @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                                      @RequestParam(defaultValue = "0") int page,
+                                                                      @RequestParam(defaultValue = "10") int size,
+                                                                      @RequestParam(defaultValue = "dueDate") String sortBy,
+                                                                      @RequestParam(defaultValue = "ASC") Sort.Direction orderDirection,
+                                                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        Pageable pageable = this.queryGuard.pageable(page, size, sortBy, orderDirection);
+        return this.todoListService.listSlice(status, dueTime, includeArchived, pageable)
+                .map(todoListSlice -> ResponseEntity.ok().eTag(TodoETags.of(todoListSlice, accept)).varyBy(HttpHeaders.ACCEPT)
+                        .body(PageResponse.of(todoListSlice)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> export(@RequestParam(required = false) TodoStatus status,
+                                                   @RequestParam(required = false) Instant dueTime,
+                                                   @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                   @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+
+        //The servlet writers fill a small buffer that is sent whenever it has bytes, and the next todos are only read
+        //from the database once the client took them
+        Flux<DataBuffer> body = Flux.using(() -> new ExportBuffer(format, this.objectMapper),
+                buffer -> this.todoListService.export(status, dueTime, includeArchived)
+                        .<DataBuffer>handle((todo, sink) -> {
+                            buffer.write(todo);
+                            if (buffer.hasBytes()) {
+                                sink.next(buffer.take());
+                            }
+                        })
+                        .concatWith(Mono.fromCallable(buffer::finish)),
+                ExportBuffer::close);
+
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(format.fileName()).build().toString())
+                .body(body);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<TodoResponse>> update(@PathVariable UUID id, @RequestBody @Valid UpdateTodoRequest request,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return this.todoListService.update(id, request, TodoETags.expectedVersions(ifMatch))
+                .map(updated -> ResponseEntity.ok().eTag(TodoETags.of(updated, accept)).varyBy(HttpHeaders.ACCEPT).body(updated));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> delete(@PathVariable UUID id) {
+        return this.todoListService.delete(id);
+    }
+
+    /**
+     * An export writer over an in-memory buffer that is drained after every todo. The writers buffer on their own, so
+     * most todos only add to a chunk that is taken once it is full.
+     */
+    private static final class ExportBuffer {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final TodoExportWriter writer;
+        private boolean closed;
+
+        ExportBuffer(ExportFormat format, ObjectMapper objectMapper) throws IOException {
+            this.writer = format.writer(this.bytes, objectMapper);
+        }
+
+        void write(TodoResponse todo) {
+            this.writer.writeUnchecked(todo);
+        }
+
+        boolean hasBytes() {
+            return this.bytes.size() > 0;
+        }
+
+        DataBuffer take() {
+            DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(this.bytes.toByteArray());
+            this.bytes.reset();
+            return buffer;
+        }
+
+        DataBuffer finish() throws IOException {
+            close();
+            return take();
+        }
+
+        void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            try {
+                this.writer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.jordi.solsona.todolistapplication.reactive.repository;
+
+import io.r2dbc.spi.Readable;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * The queries of {@code TodoRepository}, written against {@code todo_lists} with the R2DBC {@link DatabaseClient}. Rows
+ * are read into {@link Todo} instances, so the servlet mapper turns them into responses. Multi-row results are
+ * {@link Flux} that emit the rows as the subscriber requests them; the driver stops reading the socket in between.
+ */
+@Repository
+public class ReactiveTodoRepository {
+
+    private static final String COLUMNS = "id, name, description, status, due_date, created_at, updated_at, version";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id", "name", "name", "description", "description", "status", "status", "dueDate", "due_date",
+            "createdAt", "created_at", "updatedAt", "updated_at", "version", "version");
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveTodoRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Todo> findById(UUID id) {
+        return this.databaseClient.sql("select " + COLUMNS + " from todo_lists where id = :id")
+                .bind("id", id)
+                .map(ReactiveTodoRepository::toTodo)
+                .one();
+    }
+
+    /**
+     * Inserts a todo, the database sets its audit timestamps and its first version.
+     * @param todo the todo to insert, with its id
+     * @return the inserted {@link Todo}
+     */
+    public Mono<Todo> insert(Todo todo) {
+        return this.databaseClient.sql("""
+                        insert into todo_lists (id, name, description, status, due_date)
+                        values (:id, :name, :description, :status, :dueDate)
+                        returning %s""".formatted(COLUMNS))
+                .bind("id", todo.getId())
+                .bind("name", Parameter.fromOrEmpty(todo.getName(), String.class))
+                .bind("description", Parameter.fromOrEmpty(todo.getDescription(), String.class))
+                .bind("status", Parameter.fromOrEmpty(todo.getStatus() == null ? null : todo.getStatus().name(), String.class))
+                .bind("dueDate", Parameter.fromOrEmpty(todo.getDueDate(), Instant.class))
+                .map(ReactiveTodoRepository::toTodo)
+                .one();
+    }
+
+    /**
+     * Updates a todo in a single statement, as {@code TodoRepository.updateReturning} does. A reopened todo moves back
+     * from the archive to the active todos.
+     * @param id the id of the todo to update
+     * @param name the new name
+     * @param description the new description
+     * @param dueDate the new due date
+     * @param status the new status
+     * @param expectedVersions the versions the todo may be at, or {@code null} to update whatever its version
+     * @return the updated {@link Todo}, or empty if there is no todo with that id at an expected version.
+     */
+    public Mono<Todo> update(UUID id, String name, String description, Instant dueDate, TodoStatus status, Set<Long> expectedVersions) {
+        String statusName = status == null ? null : status.name();
+        DatabaseClient.GenericExecuteSpec spec = this.databaseClient.sql("""
+                        update todo_lists
+                           set name = :name,
+                               description = :description,
+                               due_date = :dueDate,
+                               status = :status,
+                               updated_at = now(),
+                               version = version + 1,
+                               archived = archived and coalesce(cast(:status as varchar) = 'COMPLETED', false)
+                         where id = :id%s
+                        returning %s""".formatted(expectedVersions == null ? "" : " and version = any(:versions)", COLUMNS))
+                .bind("id", id)
+                .bind("name", Parameter.fromOrEmpty(name, String.class))
+                .bind("description", Parameter.fromOrEmpty(description, String.class))
+                .bind("dueDate", Parameter.fromOrEmpty(dueDate, Instant.class))
+                .bind("status", Parameter.fromOrEmpty(statusName, String.class));
+        if (expectedVersions != null) {
+            spec = spec.bind("versions", expectedVersions.toArray(Long[]::new));
+        }
+        return spec.map(ReactiveTodoRepository::toTodo).one();
+    }
+
+    /**
+     * @param id the id of the todo to delete
+     * @return true if the todo was deleted, false if there was none with that id.
+     */
+    public Mono<Boolean> delete(UUID id) {
+        return this.databaseClient.sql("delete from todo_lists where id = :id")
+                .bind("id", id)
+                .fetch().rowsUpdated()
+                .map(deleted -> deleted > 0);
+    }
+
+    /**
+     * Streams the todos matching the criteria, in the sort order, skipping the first {@code offset}.
+     * @param status the status criteria, or {@code null}
+     * @param dueTime the due time criteria, or {@code null}
+     * @param includeArchived true to include the archived todos
+     * @param sort the order, by {@link Todo} property names; the id breaks the ties
+     * @param offset the number of matching todos to skip
+     * @param limit the maximum number of todos, or -1 for all of them
+     * @return the matching {@link Todo}
+     * @throws IllegalArgumentException if the sort is by an unknown property.
+     */
+    public Flux<Todo> find(TodoStatus status, Instant dueTime, boolean includeArchived, Sort sort, long offset, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder("select ").append(COLUMNS).append(" from todo_lists")
+                .append(where(status, dueTime, includeArchived, parameters))
+                .append(" order by ").append(orderBy(sort));
+        if (limit >= 0) {
+            sql.append(" limit :limit offset :offset");
+            parameters.put("limit", limit);
+            parameters.put("offset", offset);
+        }
+        return bindAll(this.databaseClient.sql(sql.toString()), parameters).map(ReactiveTodoRepository::toTodo).all();
+    }
+
+    /**
+     * Counts the todos matching the criteria. Without a due time filter the active todos are counted from the
+     * per-status counters kept by the triggers of {@code todo_lists}, not from its rows.
+     * @param status the status criteria, or {@code null}
+     * @param dueTime the due time criteria, or {@code null}
+     * @param includeArchived true to include the archived todos
+     * @return the number of matching todos.
+     */
+    public Mono<Long> count(TodoStatus status, Instant dueTime, boolean includeArchived) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String sql;
+        if (dueTime == null && !includeArchived) {
+            sql = "select cast(coalesce(sum(todos), 0) as bigint) from todo_status_counts";
+            if (status != null) {
+                sql += " where status = :status";
+                parameters.put("status", status.name());
+            }
+        } else {
+            sql = "select count(*) from todo_lists" + where(status, dueTime, includeArchived, parameters);
+        }
+        return bindAll(this.databaseClient.sql(sql), parameters).map(row -> row.get(0, Long.class)).one();
+    }
+
+    private static String where(TodoStatus status, Instant dueTime, boolean includeArchived, Map<String, Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (!includeArchived) {
+            conditions.add("not archived");
+        }
+        if (status != null) {
+            conditions.add("status = :status");
+            parameters.put("status", status.name());
+        }
+        if (dueTime != null) {
+            conditions.add("due_date <= :dueTime");
+            parameters.put("dueTime", dueTime);
+        }
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    private static String orderBy(Sort sort) {
+        List<String> orders = sort.stream().map(order -> {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("No property " + order.getProperty() + " found for type Todo");
+            }
+            return column + (order.isAscending() ? " asc" : " desc");
+        }).collect(Collectors.toCollection(ArrayList::new));
+        if (sort.getOrderFor("id") == null) {
+            orders.add("id asc");
+        }
+        return String.join(", ", orders);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindAll(DatabaseClient.GenericExecuteSpec spec, Map<String, Object> parameters) {
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec;
+    }
+
+    private static Todo toTodo(Readable row) {
+        String status = row.get("status", String.class);
+        Todo todo = new Todo(row.get("id", UUID.class), row.get("name", String.class), row.get("description", String.class),
+                status == null ? null : TodoStatus.valueOf(status), row.get("due_date", Instant.class),
+                row.get("created_at", Instant.class), row.get("updated_at", Instant.class));
+        todo.setVersion(row.get("version", Long.class));
+        return todo;
+    }
+}
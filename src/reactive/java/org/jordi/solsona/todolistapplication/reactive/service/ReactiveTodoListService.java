@@ -0,0 +1,156 @@
+package org.jordi.solsona.todolistapplication.reactive.service;
+
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TodoNotFoundException;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TodoVersionMismatchException;
+import org.jordi.solsona.todolistapplication.commons.id.TodoIdGenerator;
+import org.jordi.solsona.todolistapplication.commons.mappers.TodoMapper;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.CountMode;
+import org.jordi.solsona.todolistapplication.reactive.repository.ReactiveTodoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The {@code TodoListService} operations of the {@code /api/lists} contract, without blocking: every method returns
+ * as soon as its queries are sent, and completes when the database answers. Responses are mapped with the servlet
+ * {@link TodoMapper}. There is no cache, change feed nor in-memory statistics here, those live in the servlet variant.
+ */
+@Service
+public class ReactiveTodoListService {
+
+    private final ReactiveTodoRepository todoRepository;
+    private final TodoMapper mapper;
+    private final TodoIdGenerator idGenerator;
+
+    @Autowired
+    public ReactiveTodoListService(ReactiveTodoRepository todoRepository, TodoMapper mapper, TodoIdGenerator idGenerator) {
+        this.todoRepository = todoRepository;
+        this.mapper = mapper;
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Creates a new todo.
+     * @param request the values of the todo
+     * @return the {@link TodoResponse} of the created todo.
+     */
+    public Mono<TodoResponse> createTodo(CreateTodoRequest request) {
+        Todo todo = this.mapper.toEntity(request);
+        todo.setId(this.idGenerator.generate());
+        return this.todoRepository.insert(todo).map(this.mapper::toResponse);
+    }
+
+    /**
+     * @param id the todo id
+     * @return the {@link TodoResponse} of the todo with the parameter id, or a {@link TodoNotFoundException}.
+     */
+    public Mono<TodoResponse> getTodoById(UUID id) {
+        return this.todoRepository.findById(id).map(this.mapper::toResponse)
+                .switchIfEmpty(Mono.error(() -> new TodoNotFoundException(id)));
+    }
+
+    /**
+     * Returns a page of the todos matching the parameter criteria. The total is skipped when the page itself tells it,
+     * e.g. a first page that isn't full. {@link CountMode#ESTIMATE} is counted exactly: the count is already served by
+     * the per-status counters when only the status is filtered.
+     * @param status the status criteria
+     * @param dueTime the due time criteria
+     * @param includeArchived true to include the archived todos
+     * @param pageable the page criteria
+     * @param countMode how the total is computed, {@link CountMode#NONE} is served by {@link #listSlice}
+     * @return the {@link Page} of the {@link TodoResponse} matching the criteria.
+     */
+    public Mono<Page<TodoResponse>> list(TodoStatus status, Instant dueTime, boolean includeArchived, Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.NONE) {
+            return Mono.error(new IllegalArgumentException("A page without count is a slice, use listSlice"));
+        }
+        return this.todoRepository.find(status, dueTime, includeArchived, pageable.getSort(), pageable.getOffset(), pageable.getPageSize())
+                .map(this.mapper::toResponse)
+                .collectList()
+                .flatMap(content -> {
+                    boolean lastPage = content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty());
+                    Mono<Long> total = lastPage
+                            ? Mono.just(pageable.getOffset() + content.size())
+                            : this.todoRepository.count(status, dueTime, includeArchived);
+                    return total.map(count -> new PageImpl<>(content, pageable, count));
+                });
+    }
+
+    /**
+     * Returns a page of the todos matching the parameter criteria without counting them. One extra todo is read to know
+     * if there is a next page.
+     * @param status the status criteria
+     * @param dueTime the due time criteria
+     * @param includeArchived true to include the archived todos
+     * @param pageable the page criteria
+     * @return a {@link Slice} of the {@link TodoResponse} matching the criteria.
+     */
+    public Mono<Slice<TodoResponse>> listSlice(TodoStatus status, Instant dueTime, boolean includeArchived, Pageable pageable) {
+        return this.todoRepository.find(status, dueTime, includeArchived, pageable.getSort(), pageable.getOffset(), pageable.getPageSize() + 1)
+                .map(this.mapper::toResponse)
+                .collectList()
+                .map(content -> {
+                    boolean hasNext = content.size() > pageable.getPageSize();
+                    List<TodoResponse> page = hasNext ? content.subList(0, pageable.getPageSize()) : content;
+                    return new SliceImpl<>(page, pageable, hasNext);
+                });
+    }
+
+    /**
+     * Streams all the todos matching the parameter criteria, ordered by due date. Todos are read from the database as
+     * fast as the subscriber, in the end the client, takes them, so they are never all held in memory.
+     * @param status the status criteria
+     * @param dueTime the due time criteria
+     * @param includeArchived true to include the archived todos
+     * @return the {@link TodoResponse} of every todo matching the criteria.
+     */
+    public Flux<TodoResponse> export(TodoStatus status, Instant dueTime, boolean includeArchived) {
+        return this.todoRepository.find(status, dueTime, includeArchived, Sort.by("dueDate", "id"), 0, -1).map(this.mapper::toResponse);
+    }
+
+    /**
+     * Updates an existing todo with the values sent in the request, in a single statement that also checks the version.
+     * When nothing is updated the todo is read again, only to tell a missing todo from a version mismatch.
+     * @param id the Id of the todo to update.
+     * @param request the request payload containing the new values.
+     * @param expectedVersions the versions the todo may be at, or {@code null} to update whatever its version
+     * @return the {@link TodoResponse} of the updated todo, or a {@link TodoNotFoundException} or a
+     * {@link TodoVersionMismatchException}.
+     */
+    public Mono<TodoResponse> update(UUID id, UpdateTodoRequest request, Set<Long> expectedVersions) {
+        return this.todoRepository.update(id, request.name(), request.description(), request.dueDate(), request.status(), expectedVersions)
+                .switchIfEmpty(Mono.defer(() -> expectedVersions == null
+                        ? Mono.error(new TodoNotFoundException(id))
+                        : this.todoRepository.findById(id)
+                                .flatMap(current -> Mono.<Todo>error(new TodoVersionMismatchException(id, expectedVersions, current.getVersion())))
+                                .switchIfEmpty(Mono.error(() -> new TodoNotFoundException(id)))))
+                .map(this.mapper::toResponse);
+    }
+
+    /**
+     * Deletes a todo.
+     * @param id the id of the todo to be deleted.
+     * @return completes when the todo is deleted, or a {@link TodoNotFoundException}.
+     */
+    public Mono<Void> delete(UUID id) {
+        return this.todoRepository.delete(id)
+                .flatMap(deleted -> deleted ? Mono.<Void>empty() : Mono.error(new TodoNotFoundException(id)));
+    }
+}
@@ -1,29 +1,61 @@
 package org.jordi.solsona.todolistapplication.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jordi.solsona.todolistapplication.api.changes.TodoChangeFeed;
 import org.jordi.solsona.todolistapplication.api.controller.TodoListController;
+import org.jordi.solsona.todolistapplication.api.controller.TodoQueryGuard;
+import org.jordi.solsona.todolistapplication.api.dto.BatchItemResult;
 import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.CursorPageResponse;
+import org.jordi.solsona.todolistapplication.api.dto.PageResponse;
 import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.api.dto.TodoStatsResponse;
 import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.export.ExportFormat;
+import org.jordi.solsona.todolistapplication.commons.exceptions.InvalidPageRequestException;
+import org.jordi.solsona.todolistapplication.commons.exceptions.WriteTimeoutException;
 import org.jordi.solsona.todolistapplication.commons.mappers.TodoMapper;
+import org.jordi.solsona.todolistapplication.config.TodoQueryProperties;
 import org.jordi.solsona.todolistapplication.domain.model.Todo;
 import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.CountMode;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoCursor;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoSearchCursor;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoSearchHit;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoView;
 import org.jordi.solsona.todolistapplication.service.TodoListService;
+import org.jordi.solsona.todolistapplication.service.TodoStatisticsService;
+import org.jordi.solsona.todolistapplication.service.TodoWriteBehindService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ExtendWith(MockitoExtension.class)
 public class TodoListControllerTest {
@@ -34,6 +66,21 @@ public class TodoListControllerTest {
     @Mock
     private TodoMapper todoMapper;
 
+    @Spy
+    private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Mock
+    private TodoStatisticsService todoStatisticsService;
+
+    @Mock
+    private TodoChangeFeed todoChangeFeed;
+
+    @Mock
+    private TodoWriteBehindService todoWriteBehindService;
+
+    @Spy
+    private TodoQueryGuard queryGuard = new TodoQueryGuard(new TodoQueryProperties(100, Set.of("dueDate", "id"), null));
+
     @InjectMocks
     private TodoListController todoListController;
 
@@ -57,7 +104,7 @@ public class TodoListControllerTest {
         this.todo.setDueDate(currentTime);
         this.todo.setStatus(TodoStatus.NOT_STARTED);
 
-        this.todoResponse = new TodoResponse(this.uuid, "Test Todo List", "Test description",this.currentTime, TodoStatus.NOT_STARTED);
+        this.todoResponse = new TodoResponse(this.uuid, "Test Todo List", "Test description",this.currentTime, TodoStatus.NOT_STARTED, 0);
 
         this.createRequest = new CreateTodoRequest("Test Todo List", "Test description", this.currentTime, TodoStatus.NOT_STARTED);
         this.updateRequest = new UpdateTodoRequest("Updated Todo List", "Updated description", this.currentTime, TodoStatus.IN_PROGRESS);
@@ -78,26 +125,36 @@ public class TodoListControllerTest {
 
     @Test
     public void get_shouldReturnTodoResponse() {
-        when(this.todoListService.getTodoById(any(UUID.class))).thenReturn(this.todo);
-        when(this.todoMapper.toResponse(this.todo)).thenReturn(this.todoResponse);
+        when(this.todoListService.getTodoById(any(UUID.class))).thenReturn(this.todoResponse);
 
-        ResponseEntity<TodoResponse> result = this.todoListController.get(this.uuid);
+        ResponseEntity<TodoResponse> result = this.todoListController.get(this.uuid, null);
 
         assertThat(result.getBody()).isEqualTo(this.todoResponse);
+        assertThat(result.getHeaders().getETag()).isEqualTo("\"0\"");
         verify(this.todoListService).getTodoById(any(UUID.class));
-        verify(this.todoMapper).toResponse(this.todo);
+    }
+
+    @Test
+    public void get_acceptingCbor_shouldTagTheCborRepresentation() {
+        when(this.todoListService.getTodoById(this.uuid)).thenReturn(this.todoResponse);
+
+        ResponseEntity<TodoResponse> result = this.todoListController.get(this.uuid, "application/json;q=0.5, application/cbor");
+
+        assertThat(result.getHeaders().getETag()).isEqualTo("\"0-cbor\"");
+        assertThat(result.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT);
+        assertThat(this.todoListController.get(this.uuid, "*/*").getHeaders().getETag()).isEqualTo("\"0\"");
     }
 
     @Test
     public void list_pageParameterIs0_shouldReturnEmptyPagedTodoResponses() {
         Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "dueDate"));
-        Page<Todo> page = Page.empty(pageable);
-        when(this.todoListService.list(any(), any(), eq(pageable))).thenReturn(page);
+        Page<TodoResponse> page = Page.empty(pageable);
+        when(this.todoListService.list(any(), any(), anyBoolean(), eq(pageable), eq(CountMode.EXACT))).thenReturn(page);
 
-        ResponseEntity<Page<TodoResponse>> result = this.todoListController.list(null, null, 0, 10, "dueDate", Sort.Direction.ASC);
+        ResponseEntity<PageResponse<TodoResponse>> result = this.todoListController.list(null, null, false, 0, 10, "dueDate", Sort.Direction.ASC, CountMode.EXACT, null);
 
-        assertThat(result.getBody().getContent()).isEmpty();
-        verify(this.todoListService).list(any(), any(), eq(pageable));
+        assertThat(result.getBody().content()).isEmpty();
+        verify(this.todoListService).list(any(), any(), anyBoolean(), eq(pageable), eq(CountMode.EXACT));
     }
 
 
@@ -105,35 +162,241 @@ public class TodoListControllerTest {
     public void list_shouldReturnPagedTodoResponses() {
 
         Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "dueDate"));
-        Page<Todo> page = new PageImpl<>(List.of(this.todo), pageable, 1);
-        when(this.todoListService.list(any(), any(), any(Pageable.class))).thenReturn(page);
-        when(todoMapper.toResponse(this.todo)).thenReturn(this.todoResponse);
+        Page<TodoResponse> page = new PageImpl<>(List.of(this.todoResponse), pageable, 1);
+        when(this.todoListService.list(any(), any(), anyBoolean(), any(Pageable.class), any())).thenReturn(page);
+
+        ResponseEntity<PageResponse<TodoResponse>> result = this.todoListController.list(null, null, false, 1, 10, "dueDate", Sort.Direction.ASC, CountMode.EXACT, null);
+
+        assertThat(result.getBody().content()).isNotEmpty();
+        assertThat(result.getBody().content().get(0).name()).isEqualTo("Test Todo List");
+        assertThat(result.getBody().totalElements()).isEqualTo(1);
+        verify(this.todoListService).list(any(), any(), anyBoolean(), any(Pageable.class), any());
+    }
+
+
+    @Test
+    public void list_pageTooLargeOrUnindexedSort_shouldThrowBeforeQuerying() {
+        assertThatThrownBy(() -> this.todoListController.list(null, null, false, 0, 1_000_000, "dueDate", Sort.Direction.ASC, CountMode.EXACT, null))
+                .isInstanceOf(InvalidPageRequestException.class);
+        assertThatThrownBy(() -> this.todoListController.list(null, null, false, -1, 10, "dueDate", Sort.Direction.ASC, CountMode.EXACT, null))
+                .isInstanceOf(InvalidPageRequestException.class);
+        assertThatThrownBy(() -> this.todoListController.listSlice(null, null, false, 0, 10, "description", Sort.Direction.ASC, null))
+                .isInstanceOf(InvalidPageRequestException.class);
+        //A crafted cursor can't bring an unindexed sort back either
+        String cursor = new TodoCursor("description", Sort.Direction.ASC, "x", UUID.randomUUID()).encode();
+        assertThatThrownBy(() -> this.todoListController.scroll(null, null, false, cursor, 10, "dueDate", Sort.Direction.ASC))
+                .isInstanceOf(InvalidPageRequestException.class);
+
+        verifyNoInteractions(this.todoListService);
+    }
+
+    @Test
+    public void stats_shouldReturnStatistics() {
+        TodoStatsResponse stats = new TodoStatsResponse(3, Map.of(TodoStatus.IN_PROGRESS, 3L), 1, Map.of("PT24H", 2L), this.currentTime);
+        when(this.todoStatisticsService.stats()).thenReturn(stats);
+
+        ResponseEntity<TodoStatsResponse> result = this.todoListController.stats();
+
+        assertThat(result.getBody()).isSameAs(stats);
+        verifyNoInteractions(this.todoListService);
+    }
+
+    @Test
+    public void changes_shouldSubscribeFromLastEventId() {
+        SseEmitter emitter = new SseEmitter();
+        when(this.todoChangeFeed.subscribe("epoch-3")).thenReturn(emitter);
+
+        SseEmitter result = this.todoListController.changes("epoch-3");
+
+        assertThat(result).isSameAs(emitter);
+        verifyNoInteractions(this.todoListService);
+    }
+
+    @Test
+    public void listSlice_shouldReturnSliceWithoutCount() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "dueDate"));
+        Slice<TodoResponse> slice = new SliceImpl<>(List.of(this.todoResponse), pageable, true);
+        when(this.todoListService.listSlice(any(), any(), eq(false), eq(pageable))).thenReturn(slice);
+
+        ResponseEntity<PageResponse<TodoResponse>> result = this.todoListController.listSlice(null, null, false, 0, 10, "dueDate", Sort.Direction.ASC, null);
 
-        ResponseEntity<Page<TodoResponse>> result = this.todoListController.list(null, null, 1, 10, "dueDate", Sort.Direction.ASC);
+        assertThat(result.getBody().content()).containsExactly(this.todoResponse);
+        assertThat(result.getBody().last()).isFalse();
+        assertThat(result.getBody().totalElements()).isNull();
+        verify(this.todoListService, never()).list(any(), any(), anyBoolean(), any(), any());
+    }
+
+
+    @Test
+    public void scroll_emptyCursor_shouldStartScrollAndReturnNextCursor() {
+        Slice<Todo> slice = new SliceImpl<>(List.of(this.todo), PageRequest.ofSize(1), true);
+        when(this.todoListService.scroll(any(), any(), eq(false), eq(TodoCursor.initial("dueDate", Sort.Direction.ASC)), eq(1))).thenReturn(slice);
+        when(this.todoMapper.toResponse(this.todo)).thenReturn(this.todoResponse);
+
+        ResponseEntity<CursorPageResponse<TodoResponse>> result = this.todoListController.scroll(null, null, false, "", 1, "dueDate", Sort.Direction.ASC);
 
-        assertThat(result.getBody().getContent()).isNotEmpty();
-        assertThat(result.getBody().getContent().get(0).name()).isEqualTo("Test Todo List");
-        verify(this.todoListService).list(any(), any(), any(Pageable.class));
+        assertThat(result.getBody().content()).containsExactly(this.todoResponse);
+        assertThat(result.getBody().hasNext()).isTrue();
+        assertThat(TodoCursor.decode(result.getBody().nextCursor()))
+                .isEqualTo(new TodoCursor("dueDate", Sort.Direction.ASC, this.currentTime.toString(), this.uuid));
     }
 
+    @Test
+    public void scroll_lastPage_shouldNotReturnNextCursor() {
+        TodoCursor cursor = new TodoCursor("dueDate", Sort.Direction.DESC, this.currentTime.toString(), UUID.randomUUID());
+        Slice<Todo> slice = new SliceImpl<>(List.of(this.todo), PageRequest.ofSize(10), false);
+        when(this.todoListService.scroll(any(), any(), eq(false), eq(cursor), eq(10))).thenReturn(slice);
+        when(this.todoMapper.toResponse(this.todo)).thenReturn(this.todoResponse);
+
+        ResponseEntity<CursorPageResponse<TodoResponse>> result = this.todoListController.scroll(null, null, false, cursor.encode(), 10, "dueDate", Sort.Direction.ASC);
+
+        assertThat(result.getBody().content()).hasSize(1);
+        assertThat(result.getBody().hasNext()).isFalse();
+        assertThat(result.getBody().nextCursor()).isNull();
+    }
+
+    @Test
+    public void search_moreHits_shouldReturnCursorOfLastHit() {
+        TodoView view = new TodoView(this.uuid, "Test Todo List", "Test description", this.currentTime, TodoStatus.NOT_STARTED, 0);
+        TodoSearchHit hit = new TodoSearchHit(view, 0.25f);
+        TodoSearchCursor cursor = new TodoSearchCursor(0.5f, UUID.randomUUID());
+        Slice<TodoSearchHit> slice = new SliceImpl<>(List.of(hit), PageRequest.ofSize(1), true);
+        when(this.todoListService.search(eq("milk"), eq(TodoStatus.NOT_STARTED), isNull(), eq(false), eq(cursor), eq(1))).thenReturn(slice);
+        when(this.todoMapper.toResponse(view)).thenReturn(this.todoResponse);
+
+        ResponseEntity<CursorPageResponse<TodoResponse>> result =
+                this.todoListController.search("milk", TodoStatus.NOT_STARTED, null, false, cursor.encode(), 1);
+
+        assertThat(result.getBody().content()).containsExactly(this.todoResponse);
+        assertThat(result.getBody().hasNext()).isTrue();
+        assertThat(TodoSearchCursor.decode(result.getBody().nextCursor())).isEqualTo(new TodoSearchCursor(0.25f, this.uuid));
+    }
+
+    @Test
+    public void export_csv_shouldWriteHeaderAndEscapedRows() throws Exception {
+        TodoResponse withComma = new TodoResponse(this.uuid, "Buy milk, eggs", "Say \"hi\"", null, TodoStatus.NOT_STARTED, 0);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TodoResponse>>getArgument(3).accept(withComma);
+            return null;
+        }).when(this.todoListService).export(eq(TodoStatus.NOT_STARTED), isNull(), eq(false), any());
+
+        ResponseEntity<StreamingResponseBody> result = this.todoListController.export(TodoStatus.NOT_STARTED, null, false, ExportFormat.CSV);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        result.getBody().writeTo(output);
+
+        assertThat(result.getHeaders().getContentType()).isEqualTo(ExportFormat.CSV.mediaType());
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,name,description,dueDate,status\r\n" + this.uuid + ",\"Buy milk, eggs\",\"Say \"\"hi\"\"\",,NOT_STARTED\r\n");
+    }
+
+    @Test
+    public void export_ndjson_shouldWriteOneJsonDocumentPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<TodoResponse> consumer = invocation.getArgument(3);
+            consumer.accept(this.todoResponse);
+            consumer.accept(this.todoResponse);
+            return null;
+        }).when(this.todoListService).export(isNull(), isNull(), eq(false), any());
+
+        ResponseEntity<StreamingResponseBody> result = this.todoListController.export(null, null, false, ExportFormat.NDJSON);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        result.getBody().writeTo(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(this.objectMapper.readValue(lines[1], TodoResponse.class)).isEqualTo(this.todoResponse);
+    }
 
     @Test
     public void update_shouldReturnUpdatedTodoResponse() {
-        when(this.todoListService.update(any(UUID.class), any(UpdateTodoRequest.class))).thenReturn(todo);
+        when(this.todoListService.update(any(UUID.class), any(UpdateTodoRequest.class), isNull())).thenReturn(todo);
         when(this.todoMapper.toResponse(this.todo)).thenReturn(this.todoResponse);
 
-        ResponseEntity<TodoResponse> result = this.todoListController.update(this.uuid, this.updateRequest);
+        ResponseEntity<TodoResponse> result = this.todoListController.update(this.uuid, this.updateRequest, null, null);
 
         assertThat(result.getBody()).isEqualTo(this.todoResponse);
-        verify(this.todoListService).update(any(UUID.class), any(UpdateTodoRequest.class));
+        assertThat(result.getHeaders().getETag()).isEqualTo("\"0\"");
+        verify(this.todoListService).update(any(UUID.class), any(UpdateTodoRequest.class), isNull());
         verify(this.todoMapper).toResponse(this.todo);
     }
 
+    @Test
+    public void update_withWriteBehind_whenTheCommitTimesOut_shouldThrowWriteTimeout() {
+        when(this.todoWriteBehindService.isEnabled()).thenReturn(true);
+        when(this.todoWriteBehindService.update(this.uuid, this.updateRequest, null))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+        assertThatThrownBy(() -> this.todoListController.update(this.uuid, this.updateRequest, null, null)).isInstanceOf(WriteTimeoutException.class);
+    }
+
+    @Test
+    public void update_withIfMatch_shouldExpectTheTaggedVersion() {
+        when(this.todoListService.update(this.uuid, this.updateRequest, Set.of(3L))).thenReturn(todo);
+        when(this.todoMapper.toResponse(this.todo)).thenReturn(this.todoResponse);
+
+        this.todoListController.update(this.uuid, this.updateRequest, "\"3\"", null);
+
+        verify(this.todoListService).update(this.uuid, this.updateRequest, Set.of(3L));
+    }
+
+    @Test
+    public void update_withIfMatchList_shouldExpectAnyOfTheTaggedVersions() {
+        when(this.todoListService.update(this.uuid, this.updateRequest, Set.of(1L, 2L))).thenReturn(todo);
+        when(this.todoMapper.toResponse(this.todo)).thenReturn(this.todoResponse);
+
+        this.todoListController.update(this.uuid, this.updateRequest, "\"1\", W/\"4\", \"2\"", null);
+
+        verify(this.todoListService).update(this.uuid, this.updateRequest, Set.of(1L, 2L));
+    }
+
+    @Test
+    public void update_withWeakIfMatch_shouldExpectNoVersion() {
+        when(this.todoListService.update(this.uuid, this.updateRequest, Set.of())).thenReturn(todo);
+        when(this.todoMapper.toResponse(this.todo)).thenReturn(this.todoResponse);
+
+        this.todoListController.update(this.uuid, this.updateRequest, "W/\"3\"", null);
+
+        verify(this.todoListService).update(this.uuid, this.updateRequest, Set.of());
+    }
+
+    @Test
+    public void update_withIfMatchOfABinaryRepresentation_shouldExpectItsVersion() {
+        when(this.todoListService.update(this.uuid, this.updateRequest, Set.of(3L, 4L))).thenReturn(todo);
+        when(this.todoMapper.toResponse(this.todo)).thenReturn(this.todoResponse);
+
+        ResponseEntity<TodoResponse> result = this.todoListController.update(this.uuid, this.updateRequest, "\"3-cbor\", \"4-smile\"",
+                "application/x-jackson-smile");
+
+        verify(this.todoListService).update(this.uuid, this.updateRequest, Set.of(3L, 4L));
+        assertThat(result.getHeaders().getETag()).isEqualTo("\"0-smile\"");
+    }
+
     @Test
     public void delete_shouldCallDeleteServiceMethod() {
         this.todoListController.delete(this.uuid);
 
         verify(this.todoListService).delete(any(UUID.class));
     }
-}
 
+    @Test
+    public void createBatch_shouldReturnMultiStatusWithItemResults() {
+        List<BatchItemResult> results = List.of(BatchItemResult.success(0, HttpStatus.CREATED, this.uuid, this.todoResponse));
+        when(this.todoListService.createTodos(List.of(this.createRequest))).thenReturn(results);
+
+        ResponseEntity<List<BatchItemResult>> result = this.todoListController.createBatch(List.of(this.createRequest));
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.MULTI_STATUS);
+        assertThat(result.getBody()).isEqualTo(results);
+    }
+
+    @Test
+    public void deleteBatch_shouldReturnMultiStatusWithItemResults() {
+        List<BatchItemResult> results = List.of(BatchItemResult.success(0, HttpStatus.NO_CONTENT, this.uuid, null));
+        when(this.todoListService.deleteTodos(List.of(this.uuid))).thenReturn(results);
+
+        ResponseEntity<List<BatchItemResult>> result = this.todoListController.deleteBatch(List.of(this.uuid));
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.MULTI_STATUS);
+        assertThat(result.getBody()).isEqualTo(results);
+    }
+}
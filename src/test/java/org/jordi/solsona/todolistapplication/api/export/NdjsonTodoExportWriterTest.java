@@ -0,0 +1,41 @@
+package org.jordi.solsona.todolistapplication.api.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NdjsonTodoExportWriterTest {
+
+    @Test
+    public void write_severalTodos_writesOneDocumentPerLineAndFlushesOnClose() throws Exception {
+        CountingOutputStream outputStream = new CountingOutputStream();
+
+        try (TodoExportWriter writer = new NdjsonTodoExportWriter(outputStream, new ObjectMapper())) {
+            writer.write(new TodoResponse(new UUID(0L, 1L), "Buy milk", null, null, TodoStatus.NOT_STARTED, 0));
+            writer.write(new TodoResponse(new UUID(0L, 2L), "Walk the dog", "Twice", null, TodoStatus.COMPLETED, 3));
+            assertThat(outputStream.flushes).isZero();
+        }
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"id\":\"00000000-0000-0000-0000-000000000001\",\"name\":\"Buy milk\",\"description\":null,\"dueDate\":null,\"status\":\"NOT_STARTED\",\"version\":0}\n"
+                + "{\"id\":\"00000000-0000-0000-0000-000000000002\",\"name\":\"Walk the dog\",\"description\":\"Twice\",\"dueDate\":null,\"status\":\"COMPLETED\",\"version\":3}\n");
+        assertThat(outputStream.flushes).isEqualTo(1);
+    }
+
+    private static class CountingOutputStream extends ByteArrayOutputStream {
+
+        private int flushes;
+
+        @Override
+        public void flush() {
+            this.flushes++;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.jordi.solsona.todolistapplication.api.imports;
+
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CsvTodoImportReaderTest {
+
+    @Test
+    public void next_recordLongerThanTheMaximum_failsItAndReadsOnFromTheNextLine() throws Exception {
+        String body = "name,description\n"
+                + "first,\"quoted, with a\nline break\"\n"
+                + "\"never closed, " + "x".repeat(100) + "\n"
+                + "second,\n";
+
+        try (TodoImportReader reader = new CsvTodoImportReader(new BufferedReader(new StringReader(body)), 40)) {
+            assertThat(reader.next()).isEqualTo(ImportRow.parsed(2, new CreateTodoRequest("first", "quoted, with a\nline break", null, null)));
+            assertThat(reader.next()).isEqualTo(ImportRow.failed(4, "The row is longer than 40 characters"));
+            assertThat(reader.next()).isEqualTo(ImportRow.parsed(5, new CreateTodoRequest("second", null, null, null)));
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    public void next_headerLongerThanTheMaximum_failsEveryRecord() throws Exception {
+        String body = "name," + "x".repeat(100) + "\nfirst\n";
+
+        try (TodoImportReader reader = new CsvTodoImportReader(new BufferedReader(new StringReader(body)), 32)) {
+            assertThat(reader.next()).isEqualTo(ImportRow.failed(2, "The header is longer than 32 characters"));
+            assertThat(reader.next()).isNull();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.jordi.solsona.todolistapplication.api.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NdjsonTodoImportReaderTest {
+
+    @Test
+    public void next_lineLongerThanTheMaximum_failsItAndReadsOnFromTheNextLine() throws Exception {
+        String body = "{\"name\": \"first\"}\n"
+                + "{\"name\": \"" + "x".repeat(100) + "\"}\n"
+                + "\r\n"
+                + "{\"name\": \"second\"}\r\n";
+
+        try (TodoImportReader reader = new NdjsonTodoImportReader(new BufferedReader(new StringReader(body)),
+                new ObjectMapper().findAndRegisterModules(), 32)) {
+            assertThat(reader.next()).isEqualTo(ImportRow.parsed(1, new CreateTodoRequest("first", null, null, null)));
+            assertThat(reader.next()).isEqualTo(ImportRow.failed(2, "The row is longer than 32 characters"));
+            assertThat(reader.next()).isEqualTo(ImportRow.parsed(4, new CreateTodoRequest("second", null, null, null)));
+            assertThat(reader.next()).isNull();
+        }
+    }
+}
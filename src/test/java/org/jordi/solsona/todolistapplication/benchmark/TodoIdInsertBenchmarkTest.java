@@ -0,0 +1,69 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import org.jordi.solsona.todolistapplication.commons.id.RandomUuidGenerator;
+import org.jordi.solsona.todolistapplication.commons.id.TodoIdGenerator;
+import org.jordi.solsona.todolistapplication.commons.id.UuidV7Generator;
+import org.jordi.solsona.todolistapplication.integration.AbstractPostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares insert throughput and primary key index size of random (v4) and time ordered (v7) ids. Run with
+ * {@code mvn test -Pbenchmark}; the number of rows can be changed with {@code -Dbenchmark.rows}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+public class TodoIdInsertBenchmarkTest extends AbstractPostgresIntegrationTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        this.jdbcTemplate.execute("DROP TABLE IF EXISTS benchmark_ids_v4, benchmark_ids_v7");
+    }
+
+    @Test
+    void insertThroughputAndIndexSize_v4VersusV7() {
+        Result v4 = insert("benchmark_ids_v4", new RandomUuidGenerator());
+        Result v7 = insert("benchmark_ids_v7", new UuidV7Generator());
+
+        System.out.printf("%n%-6s %12s %16s%n", "ids", "rows/s", "pkey size (KiB)");
+        System.out.printf("%-6s %12.0f %16d%n", "v4", v4.rowsPerSecond(), v4.indexBytes() / 1024);
+        System.out.printf("%-6s %12.0f %16d%n", "v7", v7.rowsPerSecond(), v7.indexBytes() / 1024);
+
+        //Appending keys fills the index leaf pages, random keys leave them split half empty
+        assertThat(v7.indexBytes()).isLessThan(v4.indexBytes());
+    }
+
+    private Result insert(String table, TodoIdGenerator generator) {
+        this.jdbcTemplate.execute("CREATE TABLE " + table + " (id uuid PRIMARY KEY, name varchar(255))");
+
+        long start = System.nanoTime();
+        for (int inserted = 0; inserted < ROWS; inserted += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(new Object[]{generator.generate(), "todo " + (inserted + i)});
+            }
+            this.jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id, name) VALUES (?, ?)", batch);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Long indexBytes = this.jdbcTemplate.queryForObject("SELECT pg_relation_size(?::regclass)", Long.class, table + "_pkey");
+        return new Result(ROWS / seconds, indexBytes);
+    }
+
+    private record Result(double rowsPerSecond, long indexBytes) {}
+}
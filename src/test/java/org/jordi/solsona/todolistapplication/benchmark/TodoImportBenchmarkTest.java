@@ -0,0 +1,65 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.ImportReport;
+import org.jordi.solsona.todolistapplication.api.imports.ImportRow;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.integration.AbstractPostgresIntegrationTest;
+import org.jordi.solsona.todolistapplication.service.TodoListService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares importing todos with COPY against creating them one by one through the JPA save path. Run with
+ * {@code mvn test -Pbenchmark}; the number of rows can be changed with {@code -Dbenchmark.rows}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class TodoImportBenchmarkTest extends AbstractPostgresIntegrationTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+
+    @Autowired
+    private TodoListService todoListService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        this.jdbcTemplate.update("DELETE FROM todo_lists");
+    }
+
+    @Test
+    void importThroughput_copyVersusSave() throws Exception {
+        Instant dueDate = Instant.now();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            this.todoListService.createTodo(new CreateTodoRequest("todo " + i, "saved", dueDate, TodoStatus.NOT_STARTED));
+        }
+        double saveSeconds = (System.nanoTime() - start) / 1e9;
+
+        int[] read = {0};
+        start = System.nanoTime();
+        ImportReport report = this.todoListService.importTodos(() -> read[0] < ROWS
+                ? ImportRow.parsed(read[0], new CreateTodoRequest("todo " + read[0]++, "copied", dueDate, TodoStatus.NOT_STARTED))
+                : null);
+        double copySeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%n%-6s %12s%n", "path", "rows/s");
+        System.out.printf("%-6s %12.0f%n", "save", ROWS / saveSeconds);
+        System.out.printf("%-6s %12.0f%n", "copy", ROWS / copySeconds);
+
+        assertThat(report.imported()).isEqualTo(ROWS);
+        assertThat(copySeconds).isLessThan(saveSeconds);
+    }
+}
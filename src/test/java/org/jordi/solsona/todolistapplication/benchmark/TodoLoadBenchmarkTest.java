@@ -0,0 +1,128 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import org.jordi.solsona.todolistapplication.TodoListApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares throughput and p99 latency of the list endpoint served by Tomcat's platform thread pool and by virtual
+ * threads, under many concurrent clients. Each mode runs in its own application against the configured database. Run
+ * with {@code mvn test -Pbenchmark}; {@code -Dbenchmark.clients} and {@code -Dbenchmark.seconds} change the load.
+ */
+@Tag("benchmark")
+public class TodoLoadBenchmarkTest {
+
+    static final int CLIENTS = Integer.getInteger("benchmark.clients", 1000);
+    static final int SECONDS = Integer.getInteger("benchmark.seconds", 20);
+    private static final int ROWS = 10_000;
+
+    @Test
+    void listThroughputAndP99_platformVersusVirtualThreads() throws Exception {
+        Result platform = run("default");
+        Result virtual = run("virtual-threads");
+
+        System.out.printf("%n%-16s %10s %10s %10s %8s%n", "mode", "req/s", "p50 (ms)", "p99 (ms)", "errors");
+        System.out.printf("%-16s %10.0f %10.1f %10.1f %8d%n", "platform", platform.requestsPerSecond(), platform.p50Millis(), platform.p99Millis(), platform.errors());
+        System.out.printf("%-16s %10.0f %10.1f %10.1f %8d%n", "virtual-threads", virtual.requestsPerSecond(), virtual.p50Millis(), virtual.p99Millis(), virtual.errors());
+
+        assertThat(virtual.errors()).isZero();
+    }
+
+    private Result run(String profile) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoListApplication.class)
+                .profiles(profile)
+                .properties("server.port=0", "spring.jpa.show-sql=false", "spring.cache.type=none", "todo.query.limiter.enabled=false")
+                .run()) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            seed(jdbcTemplate);
+            try {
+                int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+                URI uri = URI.create("http://localhost:" + port + "/api/lists?status=IN_PROGRESS&size=10");
+                load(uri, Duration.ofSeconds(2));
+                return load(uri, Duration.ofSeconds(SECONDS));
+            } finally {
+                jdbcTemplate.update("DELETE FROM todo_lists");
+            }
+        }
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate) {
+        Instant now = Instant.now();
+        List<Object[]> rows = IntStream.range(0, ROWS)
+                .mapToObj(i -> new Object[]{UUID.randomUUID(), "todo " + i, i % 2 == 0 ? "IN_PROGRESS" : "COMPLETED", Timestamp.from(now.plusSeconds(i))})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO todo_lists (id, name, status, due_date) VALUES (?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE todo_lists");
+    }
+
+    /**
+     * Every client loops on its own virtual thread, so the client side is never the one running out of threads.
+     */
+    static Result load(URI uri, Duration duration) throws InterruptedException {
+        return load(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build(), 200, duration);
+    }
+
+    /**
+     * @param request the request every client sends in a loop
+     * @param expectedStatus the status of a successful response, any other counts as an error
+     */
+    static Result load(HttpRequest request, int expectedStatus, Duration duration) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                clients.submit(() -> {
+                    List<Long> own = new ArrayList<>();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == expectedStatus) {
+                                own.add(System.nanoTime() - start);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    latencies.add(own.stream().mapToLong(Long::longValue).toArray());
+                });
+            }
+        }
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all.length / (double) duration.toSeconds(), percentile(all, 0.50), percentile(all, 0.99), errors.get());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    record Result(double requestsPerSecond, double p50Millis, double p99Millis, long errors) {}
+}
@@ -0,0 +1,59 @@
+package org.jordi.solsona.todolistapplication.benchmark;
+
+import org.jordi.solsona.todolistapplication.TodoListApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the create throughput and p99 latency of committing every create in its own transaction and of the
+ * write-behind group commit, under the same many concurrent clients as {@link TodoLoadBenchmarkTest}. Each mode runs in
+ * its own application against the configured database. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class TodoWriteBehindBenchmarkTest {
+
+    private static final String BODY = "{\"name\": \"benchmark\", \"status\": \"NOT_STARTED\", \"dueDate\": \"1766138400\"}";
+
+    @Test
+    void createThroughputAndP99_transactionPerCreateVersusGroupCommit() throws Exception {
+        TodoLoadBenchmarkTest.Result perCreate = run(false);
+        TodoLoadBenchmarkTest.Result grouped = run(true);
+
+        System.out.printf("%n%-16s %10s %10s %10s %8s%n", "commit", "req/s", "p50 (ms)", "p99 (ms)", "errors");
+        System.out.printf("%-16s %10.0f %10.1f %10.1f %8d%n", "per create", perCreate.requestsPerSecond(), perCreate.p50Millis(), perCreate.p99Millis(), perCreate.errors());
+        System.out.printf("%-16s %10.0f %10.1f %10.1f %8d%n", "write-behind", grouped.requestsPerSecond(), grouped.p50Millis(), grouped.p99Millis(), grouped.errors());
+
+        assertThat(grouped.errors()).isZero();
+    }
+
+    private TodoLoadBenchmarkTest.Result run(boolean writeBehind) throws Exception {
+        //The queue is sized for every client to have a create in flight, the benchmark measures commits, not rejections
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoListApplication.class)
+                .properties("server.port=0", "spring.jpa.show-sql=false", "todo.write-behind.enabled=" + writeBehind,
+                        "todo.write-behind.capacity=" + 2 * TodoLoadBenchmarkTest.CLIENTS)
+                .run()) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            try {
+                int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/lists"))
+                        .timeout(Duration.ofSeconds(30))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(BODY))
+                        .build();
+                TodoLoadBenchmarkTest.load(request, 201, Duration.ofSeconds(2));
+                return TodoLoadBenchmarkTest.load(request, 201, Duration.ofSeconds(TodoLoadBenchmarkTest.SECONDS));
+            } finally {
+                jdbcTemplate.update("DELETE FROM todo_lists");
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.jordi.solsona.todolistapplication.commons.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+
+    @Test
+    public void read_withoutPreviousWrite_goesToTheReplicas() throws Exception {
+        assertThat(primaryRequired(request("GET", "client-1"), HttpServletResponse.SC_OK)).isFalse();
+    }
+
+    @Test
+    public void read_afterWriteOfTheSameClient_goesToThePrimary() throws Exception {
+        primaryRequired(request("POST", "client-1"), HttpServletResponse.SC_CREATED);
+
+        assertThat(primaryRequired(request("GET", "client-1"), HttpServletResponse.SC_OK)).isTrue();
+        assertThat(primaryRequired(request("GET", "client-2"), HttpServletResponse.SC_OK)).isFalse();
+        assertThat(ReplicaRoutingDataSource.isPrimaryRequired()).isFalse();
+    }
+
+    @Test
+    public void read_afterFailedWrite_goesToTheReplicas() throws Exception {
+        primaryRequired(request("PUT", "client-1"), HttpServletResponse.SC_BAD_REQUEST);
+
+        assertThat(primaryRequired(request("GET", "client-1"), HttpServletResponse.SC_OK)).isFalse();
+    }
+
+    @Test
+    public void read_whileWriteOfTheSameClientIsInProgress_goesToThePrimary() throws Exception {
+        AtomicBoolean concurrentReadOnPrimary = new AtomicBoolean();
+        FilterChain write = (servletRequest, servletResponse) -> {
+            Thread read = new Thread(() -> {
+                try {
+                    concurrentReadOnPrimary.set(primaryRequired(request("GET", "client-1"), HttpServletResponse.SC_OK));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            read.start();
+            try {
+                read.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        this.filter.doFilter(request("PATCH", "client-1"), new MockHttpServletResponse(), write);
+
+        assertThat(concurrentReadOnPrimary).isTrue();
+    }
+
+    @Test
+    public void read_afterFailedWriteFollowingASuccessfulOne_goesToThePrimary() throws Exception {
+        primaryRequired(request("POST", "client-1"), HttpServletResponse.SC_CREATED);
+        primaryRequired(request("PUT", "client-1"), HttpServletResponse.SC_CONFLICT);
+
+        assertThat(primaryRequired(request("GET", "client-1"), HttpServletResponse.SC_OK)).isTrue();
+    }
+
+    @Test
+    public void read_withoutClientId_isTrackedByAddress() throws Exception {
+        primaryRequired(request("DELETE", null), HttpServletResponse.SC_NO_CONTENT);
+
+        assertThat(primaryRequired(request("GET", null), HttpServletResponse.SC_OK)).isTrue();
+    }
+
+    private boolean primaryRequired(MockHttpServletRequest request, int status) throws Exception {
+        AtomicBoolean primaryRequired = new AtomicBoolean();
+        FilterChain chain = (servletRequest, servletResponse) -> {
+            primaryRequired.set(ReplicaRoutingDataSource.isPrimaryRequired());
+            ((HttpServletResponse) servletResponse).setStatus(status);
+        };
+        this.filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return primaryRequired.get();
+    }
+
+    private static MockHttpServletRequest request(String method, String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/todos");
+        if (clientId != null) {
+            request.addHeader(ReadYourWritesFilter.CLIENT_ID_HEADER, clientId);
+        }
+        return request;
+    }
+}
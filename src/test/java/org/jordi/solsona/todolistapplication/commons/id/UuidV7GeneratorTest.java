@@ -0,0 +1,65 @@
+package org.jordi.solsona.todolistapplication.commons.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UuidV7GeneratorTest {
+
+    @Test
+    public void generate_setsVersionVariantAndTimestamp() {
+        UuidV7Generator generator = new UuidV7Generator(() -> 1766138400000L);
+
+        UUID id = generator.generate();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(1766138400000L);
+    }
+
+    @Test
+    public void generate_sameMillisecond_isStrictlyIncreasing() {
+        UuidV7Generator generator = new UuidV7Generator(() -> 1766138400000L);
+
+        List<UUID> ids = IntStream.range(0, 10000).mapToObj(i -> generator.generate()).toList();
+
+        assertThat(ids).isSortedAccordingTo(UUID::compareTo).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void generate_clockMovesBackwards_isStillIncreasing() {
+        long[] now = {1766138400000L};
+        UuidV7Generator generator = new UuidV7Generator(() -> now[0]);
+
+        UUID first = generator.generate();
+        now[0] -= 1000;
+        UUID second = generator.generate();
+
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    public void generate_concurrentThreads_producesUniqueIds() throws Exception {
+        UuidV7Generator generator = new UuidV7Generator();
+        ConcurrentLinkedQueue<UUID> ids = new ConcurrentLinkedQueue<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = IntStream.range(0, 8)
+                    .<Future<?>>mapToObj(t -> executor.submit(() -> IntStream.range(0, 10000).forEach(i -> ids.add(generator.generate()))))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(ids).hasSize(80000).doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,67 @@
+package org.jordi.solsona.todolistapplication.commons.limits;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AimdConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    public void tryAcquire_limitReached_isRejectedUntilReleased() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 10, 100 * MILLIS, 0.5, 0);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        limiter.release(10 * MILLIS, 20 * MILLIS, false);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    public void release_fastQueriesAtTheLimit_growTheLimitByAboutOnePerLimitCompleted() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 1, 10, 100 * MILLIS, 0.5, 0);
+
+        //A single query on a limit of 4 doesn't use it enough to grow it
+        limiter.tryAcquire();
+        limiter.release(10 * MILLIS, 20 * MILLIS, false);
+        assertThat(limiter.limit()).isEqualTo(4);
+
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+        for (int i = 0; i < 4; i++) {
+            limiter.release(10 * MILLIS, 20 * MILLIS, false);
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.limit()).isEqualTo(4);
+        limiter.release(10 * MILLIS, 20 * MILLIS, false);
+
+        assertThat(limiter.limit()).isEqualTo(5);
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void release_slowOrFailedQueries_cutTheLimitOncePerBurst() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(8, 2, 10, 100 * MILLIS, 0.5, 0);
+        for (int i = 0; i < 8; i++) {
+            limiter.tryAcquire();
+        }
+
+        //Started together, they are the same overload
+        limiter.release(10 * MILLIS, 500 * MILLIS, false);
+        limiter.release(10 * MILLIS, 510 * MILLIS, false);
+        limiter.release(10 * MILLIS, 20 * MILLIS, true);
+        assertThat(limiter.limit()).isEqualTo(4);
+
+        //Started after the cut
+        limiter.release(600 * MILLIS, 610 * MILLIS, true);
+        limiter.release(700 * MILLIS, 710 * MILLIS, true);
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+}
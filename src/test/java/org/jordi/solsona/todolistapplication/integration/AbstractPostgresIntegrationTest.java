@@ -0,0 +1,28 @@
+package org.jordi.solsona.todolistapplication.integration;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Base class for integration tests that need a PostgreSQL database. When Docker is available a throwaway PostgreSQL
+ * container is started and shared by all the tests, otherwise the datasource configured in application.yaml is used.
+ */
+public abstract class AbstractPostgresIntegrationTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = DockerClientFactory.instance().isDockerAvailable()
+            ? new PostgreSQLContainer<>("postgres:15-alpine").withDatabaseName("todolist_db")
+            : null;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        if (POSTGRES == null) {
+            return;
+        }
+        POSTGRES.start();
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+}
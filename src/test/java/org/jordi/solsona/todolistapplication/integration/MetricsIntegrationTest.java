@@ -0,0 +1,51 @@
+package org.jordi.solsona.todolistapplication.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that every layer reports to the Prometheus endpoint: requests, service methods, the connection pool and
+ * Hibernate.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+public class MetricsIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        this.jdbcTemplate.update("DELETE FROM todo_lists");
+    }
+
+    @Test
+    void prometheus_shouldExposeRequestServicePoolAndQueryMetrics() {
+        this.restTemplate.getForEntity("/api/lists?status=IN_PROGRESS", String.class);
+
+        ResponseEntity<String> response = this.restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/api/lists\"")
+                .contains("todo_service_seconds_bucket{")
+                .contains("method=\"list\"")
+                .contains("hikaricp_connections_active")
+                .contains("hibernate_query_executions_total")
+                .contains("todo_query_limit")
+                .contains("todo_query_rejected_total");
+    }
+}
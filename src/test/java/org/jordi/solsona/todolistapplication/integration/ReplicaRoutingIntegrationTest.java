@@ -0,0 +1,126 @@
+package org.jordi.solsona.todolistapplication.integration;
+
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.commons.datasource.ReplicaPool;
+import org.jordi.solsona.todolistapplication.commons.datasource.ReplicaRoutingDataSource;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.service.TodoListService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes transactions between the primary and two replicas: the database under test, seen as replica-1 through its
+ * application name, and a replica that is down. Replica-1 reads the tables of the {@code lagging} schema first, where a
+ * test can leave a stale copy of {@code todo_lists}.
+ */
+@SpringBootTest(properties = {
+        "todo.datasource.replicas[0].url=${spring.datasource.url}&currentSchema=lagging,public",
+        "todo.datasource.replicas[1].url=jdbc:postgresql://localhost:1/todolist_db",
+        "todo.datasource.connect-timeout=PT0.5S"})
+public class ReplicaRoutingIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    private static final String APPLICATION_NAME = "select current_setting('application_name')";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    private TodoListService todoListService;
+
+    @BeforeEach
+    void setUp() {
+        this.jdbcTemplate.execute("CREATE SCHEMA lagging");
+        this.jdbcTemplate.execute("CREATE TABLE lagging.todo_lists (LIKE public.todo_lists)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.requirePrimary(false);
+        this.jdbcTemplate.execute("DROP SCHEMA lagging CASCADE");
+        this.jdbcTemplate.update("DELETE FROM todo_lists");
+    }
+
+    @Test
+    void readOnlyTransactions_shouldOnlyGoToTheHealthyReplica() {
+        assertThat(this.replicaPool.healthyCount()).isEqualTo(1);
+
+        IntStream.range(0, 4).forEach(i -> assertThat(applicationName(true)).isEqualTo("replica-1"));
+    }
+
+    @Test
+    void readWriteTransactions_shouldGoToThePrimary() {
+        assertThat(applicationName(false)).isNotEqualTo("replica-1");
+    }
+
+    @Test
+    void readOnlyTransactions_whenThePrimaryIsRequired_shouldGoToThePrimary() {
+        ReplicaRoutingDataSource.requirePrimary(true);
+
+        assertThat(applicationName(true)).isNotEqualTo("replica-1");
+    }
+
+    @Test
+    void asyncTasks_ofAThreadRequiringThePrimary_shouldGoToThePrimary() throws Exception {
+        ReplicaRoutingDataSource.requirePrimary(true);
+
+        assertThat(this.applicationTaskExecutor.submit(() -> applicationName(true)).get(10, TimeUnit.SECONDS)).isNotEqualTo("replica-1");
+        ReplicaRoutingDataSource.requirePrimary(false);
+        assertThat(this.applicationTaskExecutor.submit(() -> applicationName(true)).get(10, TimeUnit.SECONDS)).isEqualTo("replica-1");
+    }
+
+    @Test
+    void getTodoById_afterAWriteTheReplicaHasNotReplayed_shouldCacheTheTodoOfThePrimary() {
+        UUID id = this.todoListService.createTodo(new CreateTodoRequest("before", null, null, TodoStatus.NOT_STARTED)).getId();
+        this.jdbcTemplate.update("INSERT INTO lagging.todo_lists SELECT * FROM public.todo_lists WHERE id = ?", id);
+        this.todoListService.update(id, new UpdateTodoRequest("after", null, null, TodoStatus.IN_PROGRESS), null);
+        assertThat(readOnly(() -> this.jdbcTemplate.queryForObject("SELECT name FROM todo_lists WHERE id = ?", String.class, id)))
+                .isEqualTo("before");
+
+        TodoResponse read = this.todoListService.getTodoById(id);
+        TodoResponse cached = this.todoListService.getTodoById(id);
+
+        assertThat(read.name()).isEqualTo("after");
+        assertThat(cached.version()).isEqualTo(1);
+        assertThat(ReplicaRoutingDataSource.isPrimaryRequired()).isFalse();
+    }
+
+    private String applicationName(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> this.jdbcTemplate.queryForObject(APPLICATION_NAME, String.class));
+    }
+
+    private <T> T readOnly(Supplier<T> read) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> read.get());
+    }
+}
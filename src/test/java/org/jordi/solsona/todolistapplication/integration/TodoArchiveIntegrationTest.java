@@ -0,0 +1,202 @@
+package org.jordi.solsona.todolistapplication.integration;
+
+import org.jordi.solsona.todolistapplication.api.dto.TodoStatsResponse;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.jordi.solsona.todolistapplication.service.TodoArchiveService;
+import org.jordi.solsona.todolistapplication.service.TodoStatisticsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Archives completed todos into the archive partition and reads them back through the list, search and export endpoints,
+ * and checks the writes, statistics and ids of archived todos.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class TodoArchiveIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TodoArchiveService todoArchiveService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TodoStatisticsService todoStatisticsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UUID oldCompleted;
+
+    @BeforeEach
+    void setUp() {
+        Instant longAgo = Instant.now().minus(90, ChronoUnit.DAYS);
+        this.oldCompleted = insert("done long ago", "COMPLETED", longAgo);
+        insert("done yesterday", "COMPLETED", Instant.now().minus(1, ChronoUnit.DAYS));
+        insert("open for long", "IN_PROGRESS", longAgo);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.jdbcTemplate.update("DELETE FROM todo_lists");
+    }
+
+    @Test
+    void archive_shouldMoveOldCompletedTodosOutOfTheDefaultList() {
+        int archived = this.todoArchiveService.archive();
+
+        assertThat(archived).isEqualTo(1);
+        assertThat(this.jdbcTemplate.queryForList("SELECT id FROM todo_lists_archive", UUID.class)).containsExactly(this.oldCompleted);
+        assertThat(totalElements("/api/lists?status=COMPLETED")).isEqualTo(1);
+        assertThat(totalElements("/api/lists?status=COMPLETED&includeArchived=true")).isEqualTo(2);
+        assertThat(totalElements("/api/lists")).isEqualTo(2);
+        assertThat(this.todoRepository.findById(this.oldCompleted)).isPresent();
+        ResponseEntity<Map> archivedTodo = this.restTemplate.getForEntity("/api/lists/" + this.oldCompleted, Map.class);
+        assertThat(archivedTodo.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void archive_shouldLeaveArchivedTodosOutOfSearchAndExport() {
+        this.todoArchiveService.archive();
+
+        assertThat(searchedNames("/api/lists/search?q=done")).containsExactly("done yesterday");
+        assertThat(searchedNames("/api/lists/search?q=done&includeArchived=true")).containsExactlyInAnyOrder("done yesterday", "done long ago");
+        assertThat(this.restTemplate.getForObject("/api/lists/export", String.class)).doesNotContain(this.oldCompleted.toString());
+        assertThat(this.restTemplate.getForObject("/api/lists/export?includeArchived=true", String.class)).contains(this.oldCompleted.toString());
+    }
+
+    @Test
+    void update_reopeningArchivedTodo_shouldMoveItBackToActiveTodos() {
+        this.todoArchiveService.archive();
+
+        this.restTemplate.put("/api/lists/" + this.oldCompleted, Map.of("name", "done long ago", "status", "IN_PROGRESS"));
+
+        assertThat(this.jdbcTemplate.queryForObject("SELECT count(*) FROM todo_lists_archive", Long.class)).isZero();
+        assertThat(totalElements("/api/lists?status=IN_PROGRESS")).isEqualTo(2);
+    }
+
+    @Test
+    void batchUpdate_reopeningArchivedTodo_shouldMoveItBackToActiveTodos() {
+        this.todoArchiveService.archive();
+        String body = """
+                [{"id": "%s", "name": "done long ago", "status": "IN_PROGRESS"}]
+                """.formatted(this.oldCompleted);
+
+        ResponseEntity<List> response = this.restTemplate.exchange("/api/lists/batch", HttpMethod.PATCH,
+                new HttpEntity<>(body, jsonHeaders()), List.class);
+
+        assertThat(((Map<?, ?>) response.getBody().get(0)).get("status")).isEqualTo(200);
+        assertThat(this.jdbcTemplate.queryForObject("SELECT count(*) FROM todo_lists_archive", Long.class)).isZero();
+        assertThat(totalElements("/api/lists?status=IN_PROGRESS")).isEqualTo(2);
+    }
+
+    @Test
+    void stats_shouldLeaveArchivedTodosOut() {
+        this.todoArchiveService.archive();
+        UUID archivedOverdue = insert("archived overdue", "IN_PROGRESS", Instant.now());
+        this.jdbcTemplate.update("UPDATE todo_lists SET archived = true, due_date = ? WHERE id = ?",
+                Timestamp.from(Instant.now().minus(1, ChronoUnit.DAYS)), archivedOverdue);
+        this.todoStatisticsService.reconcile();
+        assertThat(this.todoStatisticsService.stats().total()).isEqualTo(2);
+        assertThat(this.todoStatisticsService.stats().overdue()).isZero();
+
+        this.restTemplate.put("/api/lists/" + this.oldCompleted, Map.of("name", "still done", "status", "COMPLETED"));
+        assertThat(this.todoStatisticsService.stats().total()).isEqualTo(2);
+        this.restTemplate.delete("/api/lists/" + this.oldCompleted);
+        assertThat(this.todoStatisticsService.stats().total()).isEqualTo(2);
+
+        this.todoStatisticsService.reconcile();
+        TodoStatsResponse stats = this.todoStatisticsService.stats();
+        assertThat(stats.total()).isEqualTo(2);
+        assertThat(stats.byStatus()).containsEntry(TodoStatus.COMPLETED, 1L);
+    }
+
+    @Test
+    void update_ofTodoArchivedConcurrently_shouldAnswerConflict() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(this.transactionManager);
+        ResponseEntity<Map> response = transaction.execute(status -> {
+            this.jdbcTemplate.update("UPDATE todo_lists SET archived = true WHERE id = ?", this.oldCompleted);
+            CompletableFuture<ResponseEntity<Map>> update = CompletableFuture.supplyAsync(() -> this.restTemplate.exchange(
+                    "/api/lists/" + this.oldCompleted, HttpMethod.PUT,
+                    new HttpEntity<>(Map.of("name", "renamed", "status", "COMPLETED"), jsonHeaders()), Map.class));
+            //The update waits on the lock of the row being archived, the commit moves the row under it
+            while (this.jdbcTemplate.queryForObject("SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'", Long.class) == 0) {
+                Thread.onSpinWait();
+            }
+            return update;
+        }).get(10, TimeUnit.SECONDS);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(this.jdbcTemplate.queryForObject("SELECT name FROM todo_lists_archive WHERE id = ?", String.class, this.oldCompleted))
+                .isEqualTo("done long ago");
+    }
+
+    @Test
+    void insert_ofTheIdOfAnArchivedTodo_shouldBeRejected() {
+        this.todoArchiveService.archive();
+
+        assertThatThrownBy(() -> insert(this.oldCompleted, "duplicate", "NOT_STARTED", Instant.now()))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(this.jdbcTemplate.queryForObject("SELECT count(*) FROM todo_lists WHERE id = ?", Long.class, this.oldCompleted))
+                .isEqualTo(1);
+    }
+
+    private UUID insert(String name, String status, Instant updatedAt) {
+        return insert(UUID.randomUUID(), name, status, updatedAt);
+    }
+
+    private UUID insert(UUID id, String name, String status, Instant updatedAt) {
+        this.jdbcTemplate.update("INSERT INTO todo_lists (id, name, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                id, name, status, Timestamp.from(updatedAt), Timestamp.from(updatedAt));
+        return id;
+    }
+
+    private HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+
+    private Number totalElements(String url) {
+        return (Number) this.restTemplate.getForObject(url, Map.class).get("totalElements");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> searchedNames(String url) {
+        List<Map<String, Object>> content = (List<Map<String, Object>>) this.restTemplate.getForObject(url, Map.class).get("content");
+        return content.stream().map(todo -> todo.get("name")).toList();
+    }
+}
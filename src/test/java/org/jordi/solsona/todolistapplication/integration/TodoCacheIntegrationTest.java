@@ -0,0 +1,78 @@
+package org.jordi.solsona.todolistapplication.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TodoNotFoundException;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.service.TodoListService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that getTodoById is served from the cache, and that writes through the service evict it. Rows are changed
+ * with plain JDBC where the test needs the database and the cache to disagree.
+ */
+@SpringBootTest
+public class TodoCacheIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private TodoListService todoListService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        this.jdbcTemplate.update("DELETE FROM todo_lists");
+    }
+
+    @Test
+    void getTodoById_secondRead_isServedFromCache() {
+        UUID id = this.todoListService.createTodo(new CreateTodoRequest("cached", null, null, TodoStatus.NOT_STARTED)).getId();
+        double hits = cacheGets("hit");
+
+        this.todoListService.getTodoById(id);
+        this.jdbcTemplate.update("UPDATE todo_lists SET name = 'changed behind the cache' WHERE id = ?", id);
+        TodoResponse cached = this.todoListService.getTodoById(id);
+
+        assertThat(cached.name()).isEqualTo("cached");
+        assertThat(cacheGets("hit")).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void update_evictsCachedTodo() {
+        UUID id = this.todoListService.createTodo(new CreateTodoRequest("cached", null, null, TodoStatus.NOT_STARTED)).getId();
+        this.todoListService.getTodoById(id);
+
+        this.todoListService.update(id, new UpdateTodoRequest("updated", null, null, TodoStatus.COMPLETED), null);
+
+        assertThat(this.todoListService.getTodoById(id).name()).isEqualTo("updated");
+    }
+
+    @Test
+    void delete_evictsCachedTodo() {
+        UUID id = this.todoListService.createTodo(new CreateTodoRequest("cached", null, null, TodoStatus.NOT_STARTED)).getId();
+        this.todoListService.getTodoById(id);
+
+        this.todoListService.delete(id);
+
+        assertThrows(TodoNotFoundException.class, () -> this.todoListService.getTodoById(id));
+    }
+
+    private double cacheGets(String result) {
+        return this.meterRegistry.get("cache.gets").tag("cache", "todos").tag("result", result).functionCounter().count();
+    }
+}
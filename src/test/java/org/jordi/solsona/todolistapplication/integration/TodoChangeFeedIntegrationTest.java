@@ -0,0 +1,173 @@
+package org.jordi.solsona.todolistapplication.integration;
+
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.jordi.solsona.todolistapplication.service.TodoListService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Subscribes to the change feed over HTTP and reads the events as they are sent. The ring only holds a few changes, so
+ * the tests can overflow it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "todo.changes.buffer-size=" + TodoChangeFeedIntegrationTest.BUFFER_SIZE)
+public class TodoChangeFeedIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    static final int BUFFER_SIZE = 4;
+
+    //The subscriptions are only closed once every test ran: the feed finds a closed one on its next send, which would
+    //race with the subscriptions of the next test. A client no longer referenced is shut down, closing them as well
+    private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
+    private static final List<Stream<String>> SUBSCRIPTIONS = new CopyOnWriteArrayList<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TodoListService todoListService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @AfterEach
+    void tearDown() {
+        this.todoRepository.deleteAll();
+    }
+
+    @AfterAll
+    static void closeSubscriptions() {
+        SUBSCRIPTIONS.forEach(Stream::close);
+    }
+
+    @Test
+    void changes_shouldStreamCommittedChanges() throws Exception {
+        BlockingQueue<String> lines = subscribe(null);
+
+        Todo todo = this.todoListService.createTodo(createRequest("Write the feed"));
+
+        List<String> event = nextEvent(lines);
+        assertThat(event).contains("event:CREATED");
+        assertThat(event).anyMatch(line -> line.startsWith("data:") && line.contains(todo.getId().toString())
+                && line.contains("\"type\":\"CREATED\""));
+    }
+
+    @Test
+    void changes_shouldResumeAfterLastEventId() throws Exception {
+        BlockingQueue<String> lines = subscribe(null);
+        Todo todo = this.todoListService.createTodo(createRequest("Resume the feed"));
+        String lastEventId = idOf(nextEvent(lines));
+        this.todoListService.update(todo.getId(), new UpdateTodoRequest("Resumed", null, todo.getDueDate(), TodoStatus.COMPLETED), null);
+
+        List<String> event = nextEvent(subscribe(lastEventId));
+
+        assertThat(event).contains("event:UPDATED");
+        assertThat(event).anyMatch(line -> line.startsWith("data:") && line.contains("\"name\":\"Resumed\""));
+    }
+
+    @Test
+    void changes_shouldAskToResyncWhenLastEventIdIsUnknown() throws Exception {
+        List<String> event = nextEvent(subscribe("previous-epoch-42"));
+
+        assertThat(event).contains("event:RESYNC");
+        assertThat(idOf(event)).isNotEqualTo("previous-epoch-42");
+    }
+
+    @Test
+    void changes_shouldAskToResyncWhenLastEventIdFellOutOfTheRing() throws Exception {
+        BlockingQueue<String> lines = subscribe(null);
+        this.todoListService.createTodo(createRequest("Overwritten"));
+        String overwrittenId = idOf(nextEvent(lines));
+        String lastId = overwrittenId;
+        //The ring then holds the last BUFFER_SIZE changes, not the one after the overwritten id
+        for (int i = 0; i <= BUFFER_SIZE; i++) {
+            this.todoListService.createTodo(createRequest("Overflow " + i));
+            lastId = idOf(nextEvent(lines));
+        }
+
+        List<String> resync = nextEvent(subscribe(overwrittenId));
+
+        assertThat(resync).contains("event:RESYNC");
+        assertThat(idOf(resync)).isEqualTo(lastId);
+    }
+
+    @Test
+    void changes_shouldResumeFromTheResyncEvent() throws Exception {
+        List<String> resync = nextEvent(subscribe("previous-epoch-42"));
+        BlockingQueue<String> lines = subscribe(idOf(resync));
+
+        Todo todo = this.todoListService.createTodo(createRequest("After the resync"));
+
+        List<String> event = nextEvent(lines);
+        assertThat(event).contains("event:CREATED");
+        assertThat(event).anyMatch(line -> line.startsWith("data:") && line.contains(todo.getId().toString()));
+    }
+
+    private BlockingQueue<String> subscribe(String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + "/api/lists/changes"))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        //The response starts once the subscription is registered, so changes made after this returns are received
+        HttpResponse<Stream<String>> response = HTTP_CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        SUBSCRIPTIONS.add(response.body());
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                response.body().forEach(lines::add);
+            } catch (RuntimeException e) {
+                //The subscription was closed by the test
+            }
+        });
+        return lines;
+    }
+
+    /**
+     * @return the lines of the next event, skipping the heartbeat comments.
+     */
+    private static List<String> nextEvent(BlockingQueue<String> lines) throws InterruptedException {
+        List<String> event = new ArrayList<>();
+        while (true) {
+            String line = lines.poll(10, TimeUnit.SECONDS);
+            assertThat(line).as("no event received").isNotNull();
+            if (line.isEmpty() && !event.isEmpty()) {
+                return event;
+            }
+            if (!line.isEmpty() && !line.startsWith(":")) {
+                event.add(line);
+            }
+        }
+    }
+
+    private static String idOf(List<String> event) {
+        return event.stream().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3);
+    }
+
+    private static CreateTodoRequest createRequest(String name) {
+        return new CreateTodoRequest(name, null, Instant.now().plus(1, ChronoUnit.DAYS), TodoStatus.NOT_STARTED);
+    }
+}
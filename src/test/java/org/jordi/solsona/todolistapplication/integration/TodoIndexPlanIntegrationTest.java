@@ -0,0 +1,89 @@
+package org.jordi.solsona.todolistapplication.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts the query plans of the list filters, so a schema change can't silently drop the indexes they rely on, nor
+ * the pruning of the archive partition.
+ * The planner runs with its default settings on the statistics of a realistic fixture, so the assertions hold for the
+ * plans production gets. Every test runs in a rolled back transaction, the fixture rows never leak.
+ */
+@SpringBootTest
+@Transactional
+public class TodoIndexPlanIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        //Keeps autovacuum from analyzing the table concurrently and replacing the statistics of the fixture
+        this.jdbcTemplate.execute("LOCK TABLE todo_lists IN SHARE UPDATE EXCLUSIVE MODE");
+        Instant now = Instant.now();
+        List<Object[]> rows = IntStream.range(0, 20000)
+                .mapToObj(i -> new Object[]{UUID.randomUUID(), "todo " + i, statusOf(i), Timestamp.from(now.plus(i, ChronoUnit.MINUTES)), i % 100 >= 30})
+                .toList();
+        this.jdbcTemplate.batchUpdate("INSERT INTO todo_lists (id, name, status, due_date, archived) VALUES (?, ?, ?, ?, ?)", rows);
+        this.jdbcTemplate.execute("ANALYZE todo_lists");
+    }
+
+    @Test
+    void statusAndDueBeforeOrderedByDueDate_usesStatusDueDateIndexWithoutSort() {
+        String plan = explain("SELECT * FROM todo_lists WHERE status = 'IN_PROGRESS' AND due_date <= now() + interval '1 day' "
+                + "AND NOT archived ORDER BY due_date, id LIMIT 10");
+
+        assertThat(plan).contains("todo_lists_active_status_due_date_id_idx").doesNotContain("Sort").doesNotContain("todo_lists_archive");
+    }
+
+    @Test
+    void dueBeforeOrderedByDueDate_usesDueDateIndexWithoutSort() {
+        String plan = explain("SELECT * FROM todo_lists WHERE due_date <= now() + interval '1 day' AND NOT archived "
+                + "ORDER BY due_date, id LIMIT 10");
+
+        assertThat(plan).contains("todo_lists_active_due_date_id_idx").doesNotContain("Sort").doesNotContain("todo_lists_archive");
+    }
+
+    @Test
+    void openTodosOrderedByDueDate_usesPartialOpenIndex() {
+        String plan = explain("SELECT * FROM todo_lists WHERE status <> 'COMPLETED' AND NOT archived ORDER BY due_date, id LIMIT 10");
+
+        assertThat(plan).contains("todo_lists_active_open_due_date_id_idx").doesNotContain("Sort").doesNotContain("todo_lists_archive");
+    }
+
+    @Test
+    void searchText_usesSearchVectorIndex() {
+        String plan = explain("SELECT * FROM todo_lists WHERE search_vector @@ websearch_to_tsquery('english', 'todo 42') AND NOT archived");
+
+        assertThat(plan).contains("todo_lists_active_search_vector_idx").doesNotContain("todo_lists_archive");
+    }
+
+    /**
+     * Mimics a mature table: most todos are completed, a few are in progress, and most of the completed ones were
+     * archived already (the fixture archives those with {@code i % 100 >= 30}).
+     */
+    private static String statusOf(int i) {
+        return switch (i % 100) {
+            case 0 -> "IN_PROGRESS";
+            case 1, 2, 3, 4, 5, 6, 7, 8, 9 -> "NOT_STARTED";
+            default -> "COMPLETED";
+        };
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", this.jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
@@ -1,9 +1,13 @@
 package org.jordi.solsona.todolistapplication.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
 import org.jordi.solsona.todolistapplication.domain.model.Todo;
 import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
 import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.jordi.solsona.todolistapplication.service.TodoStatisticsService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,15 +16,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.*;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
-public class TodoListControllerIntegrationTest {
+public class TodoListControllerIntegrationTest extends AbstractPostgresIntegrationTest {
 
     @Autowired
     private TestRestTemplate restTemplate;
@@ -28,6 +34,9 @@ public class TodoListControllerIntegrationTest {
     @Autowired
     private TodoRepository todoRepository;
 
+    @Autowired
+    private TodoStatisticsService todoStatisticsService;
+
     private Todo todo;
 
     @BeforeEach
@@ -124,6 +133,341 @@ public class TodoListControllerIntegrationTest {
         assertTrue(response.getBody().containsKey("totalElements"));
         assertTrue(response.getBody().containsKey("number"));
         assertTrue(response.getBody().containsKey("size"));
+        assertFalse(response.getBody().containsKey("pageable"));
+        assertFalse(response.getBody().containsKey("sort"));
+    }
+
+    @Test
+    void listTodo_pageTooLargeOrUnindexedSort_shouldReturnBadRequest() {
+        ResponseEntity<String> tooLarge = restTemplate.getForEntity("/api/lists?size=1000000", String.class);
+        ResponseEntity<String> unindexed = restTemplate.getForEntity("/api/lists?sortBy=description", String.class);
+        ResponseEntity<String> unknown = restTemplate.getForEntity("/api/lists?count=NONE&sortBy=nope", String.class);
+        ResponseEntity<String> search = restTemplate.getForEntity("/api/lists/search?q=milk&size=0", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, tooLarge.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, unindexed.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, unknown.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, search.getStatusCode());
+    }
+
+    @Test
+    void createAndListTodo_inCborAndSmile_shouldNegotiateTheFormat() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        SmileMapper smileMapper = new SmileMapper();
+        HttpHeaders cborHeaders = new HttpHeaders();
+        cborHeaders.setContentType(MediaType.valueOf("application/cbor"));
+        cborHeaders.setAccept(List.of(MediaType.valueOf("application/cbor")));
+        byte[] requestBody = cborMapper.writeValueAsBytes(Map.of("name", "Binary todo", "status", "IN_PROGRESS", "dueDate", "2025-12-19T10:00:00Z"));
+
+        ResponseEntity<byte[]> created = this.restTemplate.exchange("/api/lists", HttpMethod.POST, new HttpEntity<>(requestBody, cborHeaders), byte[].class);
+        HttpHeaders smileHeaders = new HttpHeaders();
+        smileHeaders.setAccept(List.of(MediaType.valueOf("application/x-jackson-smile")));
+        ResponseEntity<byte[]> page = this.restTemplate.exchange("/api/lists", HttpMethod.GET, new HttpEntity<>(smileHeaders), byte[].class);
+        ResponseEntity<String> json = this.restTemplate.getForEntity("/api/lists", String.class);
+
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        assertEquals("application/cbor", created.getHeaders().getContentType().toString());
+        TodoResponse todo = cborMapper.findAndRegisterModules().readValue(created.getBody(), TodoResponse.class);
+        assertEquals("Binary todo", todo.name());
+        assertEquals(Instant.parse("2025-12-19T10:00:00Z"), todo.dueDate());
+
+        assertEquals("application/x-jackson-smile", page.getHeaders().getContentType().toString());
+        JsonNode pageNode = smileMapper.readTree(page.getBody());
+        assertEquals(1, pageNode.get("totalElements").asInt());
+        assertEquals("Binary todo", pageNode.get("content").get(0).get("name").asText());
+        assertEquals(MediaType.APPLICATION_JSON, json.getHeaders().getContentType());
+        assertTrue(page.getBody().length < json.getBody().getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void getTodo_inCbor_shouldTagTheCborRepresentation() {
+        ResponseEntity<TodoResponse> created = this.restTemplate.exchange("/api/lists", HttpMethod.POST,
+                new HttpEntity<>(Map.of("name", "Tagged todo", "status", "IN_PROGRESS"), this.getJsonHeaders()), TodoResponse.class);
+        String url = "/api/lists/" + created.getBody().id();
+        HttpHeaders cborHeaders = new HttpHeaders();
+        cborHeaders.setAccept(List.of(MediaType.valueOf("application/cbor")));
+
+        ResponseEntity<byte[]> cbor = this.restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(cborHeaders), byte[].class);
+        ResponseEntity<String> json = this.restTemplate.getForEntity(url, String.class);
+        cborHeaders.setIfNoneMatch(cbor.getHeaders().getETag());
+        ResponseEntity<byte[]> cborRevalidated = this.restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(cborHeaders), byte[].class);
+        HttpHeaders jsonHeaders = new HttpHeaders();
+        jsonHeaders.setIfNoneMatch(cbor.getHeaders().getETag());
+        ResponseEntity<String> jsonRevalidated = this.restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(jsonHeaders), String.class);
+
+        assertEquals("\"0-cbor\"", cbor.getHeaders().getETag());
+        assertEquals("\"0\"", json.getHeaders().getETag());
+        assertTrue(cbor.getHeaders().getVary().contains(HttpHeaders.ACCEPT));
+        assertEquals(HttpStatus.NOT_MODIFIED, cborRevalidated.getStatusCode());
+        assertEquals(HttpStatus.OK, jsonRevalidated.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, jsonRevalidated.getHeaders().getContentType());
+    }
+
+    @Test
+    void listTodo_withFiltersAndSort_shouldReturnMatchingPage() {
+        for (int i = 0; i < 4; i++) {
+            String requestBody = """
+                {
+                  "name": "Todo %d",
+                  "status": "%s",
+                  "dueDate": "%d"
+                }
+                """.formatted(i, i == 3 ? "COMPLETED" : "IN_PROGRESS", 1766138400 + i);
+            this.restTemplate.exchange("/api/lists", HttpMethod.POST, new HttpEntity<>(requestBody, this.getJsonHeaders()), Map.class);
+        }
+
+        ResponseEntity<Map> response = restTemplate.getForEntity(
+                "/api/lists?status=IN_PROGRESS&dueTime=2025-12-19T10:00:01Z&page=1&size=1&orderDirection=DESC", Map.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<?> content = (List<?>) response.getBody().get("content");
+        assertEquals(1, content.size());
+        assertEquals("Todo 0", ((Map<?, ?>) content.get(0)).get("name"));
+        assertEquals(2, response.getBody().get("totalElements"));
+    }
+
+    @Test
+    void searchTodo_shouldRankNameMatchesFirstAndScrollWithCursor() {
+        todoRepository.saveAll(List.of(
+                new Todo(null, "Call the plumber", "kitchen sink leaks", TodoStatus.NOT_STARTED, Instant.now(), null, null),
+                new Todo(null, "Weekend chores", "ask the plumber about the boiler", TodoStatus.NOT_STARTED, Instant.now(), null, null),
+                new Todo(null, "Plumber invoice", "pay the plumbers", TodoStatus.COMPLETED, Instant.now(), null, null),
+                new Todo(null, "Groceries", "milk and bread", TodoStatus.NOT_STARTED, Instant.now(), null, null)));
+
+        ResponseEntity<Map> first = restTemplate.getForEntity("/api/lists/search?q=plumbers&status=NOT_STARTED&size=1", Map.class);
+        ResponseEntity<Map> second = restTemplate.getForEntity(
+                "/api/lists/search?q=plumbers&status=NOT_STARTED&size=1&cursor=" + first.getBody().get("nextCursor"), Map.class);
+        ResponseEntity<String> blank = restTemplate.getForEntity("/api/lists/search?q= ", String.class);
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals("Call the plumber", ((Map<?, ?>) ((List<?>) first.getBody().get("content")).get(0)).get("name"));
+        assertEquals(true, first.getBody().get("hasNext"));
+        assertEquals("Weekend chores", ((Map<?, ?>) ((List<?>) second.getBody().get("content")).get(0)).get("name"));
+        assertEquals(false, second.getBody().get("hasNext"));
+        assertEquals(HttpStatus.BAD_REQUEST, blank.getStatusCode());
+    }
+
+    @Test
+    void getTodo_withMatchingIfNoneMatch_shouldReturnNotModified() {
+        Todo saved = todoRepository.save(this.todo);
+        ResponseEntity<TodoResponse> first = restTemplate.getForEntity("/api/lists/" + saved.getId(), TodoResponse.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(first.getHeaders().getETag());
+
+        ResponseEntity<TodoResponse> second = restTemplate.exchange("/api/lists/" + saved.getId(), HttpMethod.GET, new HttpEntity<>(headers), TodoResponse.class);
+        ResponseEntity<String> page = restTemplate.getForEntity("/api/lists", String.class);
+        headers.setIfNoneMatch(page.getHeaders().getETag());
+        ResponseEntity<String> samePage = restTemplate.exchange("/api/lists", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertEquals("\"0\"", first.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        assertNull(second.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, samePage.getStatusCode());
+    }
+
+    @Test
+    void updateTodo_withStaleIfMatch_shouldReturnPreconditionFailed() {
+        Todo saved = todoRepository.save(this.todo);
+        String requestBody = """
+                {"name": "renamed", "status": "IN_PROGRESS"}
+                """;
+        HttpHeaders headers = this.getJsonHeaders();
+        headers.setIfMatch("\"0\"");
+
+        ResponseEntity<TodoResponse> updated = restTemplate.exchange("/api/lists/" + saved.getId(), HttpMethod.PUT, new HttpEntity<>(requestBody, headers), TodoResponse.class);
+        ResponseEntity<String> conflict = restTemplate.exchange("/api/lists/" + saved.getId(), HttpMethod.PUT, new HttpEntity<>(requestBody, headers), String.class);
+
+        assertEquals(HttpStatus.OK, updated.getStatusCode());
+        assertEquals("\"1\"", updated.getHeaders().getETag());
+        assertEquals(1, updated.getBody().version());
+        assertEquals(HttpStatus.PRECONDITION_FAILED, conflict.getStatusCode());
+        Todo stored = todoRepository.findById(saved.getId()).orElseThrow();
+        assertNotNull(stored.getCreatedAt());
+        assertTrue(stored.getUpdatedAt().isAfter(stored.getCreatedAt()));
+    }
+
+    @Test
+    void updateTodo_withIfMatchList_shouldMatchAnyOfTheTags() {
+        Todo saved = todoRepository.save(this.todo);
+        String requestBody = """
+                {"name": "renamed", "status": "IN_PROGRESS"}
+                """;
+        HttpHeaders headers = this.getJsonHeaders();
+        headers.set(HttpHeaders.IF_MATCH, "\"5\", \"0\"");
+
+        ResponseEntity<TodoResponse> updated = restTemplate.exchange("/api/lists/" + saved.getId(), HttpMethod.PUT, new HttpEntity<>(requestBody, headers), TodoResponse.class);
+        ResponseEntity<String> conflict = restTemplate.exchange("/api/lists/" + saved.getId(), HttpMethod.PUT, new HttpEntity<>(requestBody, headers), String.class);
+
+        assertEquals(HttpStatus.OK, updated.getStatusCode());
+        assertEquals(1, updated.getBody().version());
+        assertEquals(HttpStatus.PRECONDITION_FAILED, conflict.getStatusCode());
+    }
+
+    @Test
+    void stats_shouldFollowCommittedWrites() {
+        this.todoStatisticsService.reconcile();
+        String overdue = """
+                {"name": "overdue", "status": "IN_PROGRESS", "dueDate": "%s"}
+                """.formatted(Instant.now().minusSeconds(3600));
+        String dueSoon = """
+                {"name": "due soon", "status": "NOT_STARTED", "dueDate": "%s"}
+                """.formatted(Instant.now().plusSeconds(3600));
+        ResponseEntity<Map> created = this.restTemplate.exchange("/api/lists", HttpMethod.POST, new HttpEntity<>(overdue, this.getJsonHeaders()), Map.class);
+        this.restTemplate.exchange("/api/lists", HttpMethod.POST, new HttpEntity<>(dueSoon, this.getJsonHeaders()), Map.class);
+        Object id = created.getBody().get("id");
+        this.restTemplate.exchange("/api/lists/" + id, HttpMethod.PUT,
+                new HttpEntity<>(overdue.replace("IN_PROGRESS", "COMPLETED"), this.getJsonHeaders()), Map.class);
+
+        ResponseEntity<Map> response = restTemplate.getForEntity("/api/lists/stats", Map.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().get("total"));
+        assertEquals(Map.of("NOT_STARTED", 1, "IN_PROGRESS", 0, "COMPLETED", 1), response.getBody().get("byStatus"));
+        assertEquals(0, response.getBody().get("overdue"));
+        assertEquals(Map.of("PT24H", 1, "PT168H", 1), response.getBody().get("dueWithin"));
+
+        this.restTemplate.delete("/api/lists/" + id);
+        assertEquals(1, restTemplate.getForEntity("/api/lists/stats", Map.class).getBody().get("total"));
+    }
+
+    @Test
+    void listTodo_countModes_shouldReturnExactEstimatedOrNoTotal() {
+        for (int i = 0; i < 3; i++) {
+            String requestBody = """
+                {
+                  "name": "Todo %d",
+                  "status": "IN_PROGRESS"
+                }
+                """.formatted(i);
+            this.restTemplate.exchange("/api/lists", HttpMethod.POST, new HttpEntity<>(requestBody, this.getJsonHeaders()), Map.class);
+        }
+
+        ResponseEntity<Map> exact = restTemplate.getForEntity("/api/lists?status=IN_PROGRESS&size=1&count=EXACT", Map.class);
+        ResponseEntity<Map> estimate = restTemplate.getForEntity("/api/lists?status=IN_PROGRESS&size=1&count=ESTIMATE", Map.class);
+        ResponseEntity<Map> none = restTemplate.getForEntity("/api/lists?status=IN_PROGRESS&size=1&count=NONE", Map.class);
+
+        assertEquals(3, exact.getBody().get("totalElements"));
+        //The estimate depends on the table statistics, but never drops below the rows already seen
+        assertTrue(((Number) estimate.getBody().get("totalElements")).longValue() >= 1);
+        assertEquals(1, ((List<?>) none.getBody().get("content")).size());
+        assertFalse(none.getBody().containsKey("totalElements"));
+        assertEquals(false, none.getBody().get("last"));
+    }
+
+    @Test
+    void exportTodo_shouldStreamMatchingTodos() {
+        for (int i = 0; i < 3; i++) {
+            String requestBody = """
+                {
+                  "name": "Todo %d",
+                  "status": "%s",
+                  "dueDate": "%d"
+                }
+                """.formatted(i, i == 2 ? "COMPLETED" : "IN_PROGRESS", 1766138400 + i);
+            this.restTemplate.exchange("/api/lists", HttpMethod.POST, new HttpEntity<>(requestBody, this.getJsonHeaders()), Map.class);
+        }
+
+        ResponseEntity<String> ndjson = restTemplate.getForEntity("/api/lists/export?status=IN_PROGRESS", String.class);
+        ResponseEntity<String> csv = restTemplate.getForEntity("/api/lists/export?format=CSV&dueTime=2025-12-19T10:00:00Z", String.class);
+
+        assertEquals(HttpStatus.OK, ndjson.getStatusCode());
+        assertEquals("application/x-ndjson", ndjson.getHeaders().getContentType().toString());
+        List<String> lines = ndjson.getBody().lines().toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"name\":\"Todo 0\""));
+        assertTrue(lines.get(1).contains("\"name\":\"Todo 1\""));
+
+        assertEquals(HttpStatus.OK, csv.getStatusCode());
+        assertEquals(List.of("id,name,description,dueDate,status", "Todo 0"),
+                csv.getBody().lines().map(line -> line.contains(",Todo") ? line.split(",")[1] : line).toList());
+    }
+
+    @Test
+    void importTodo_ndjson_shouldImportValidRowsAndReportTheRest() {
+        String body = """
+                {"name": "Imported 1", "status": "IN_PROGRESS", "dueDate": "1766138400"}
+                {"name": "", "status": "IN_PROGRESS"}
+
+                not json
+                {"name": "Imported 2", "description": "tab\\tand\\\\backslash"}
+                """;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+
+        ResponseEntity<Map> response = restTemplate.exchange("/api/lists/import", HttpMethod.POST, new HttpEntity<>(body, headers), Map.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(4, response.getBody().get("rows"));
+        assertEquals(2, response.getBody().get("imported"));
+        assertEquals(2, response.getBody().get("rejected"));
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) response.getBody().get("errors");
+        assertEquals(List.of(2, 4), errors.stream().map(error -> error.get("line")).toList());
+        assertEquals(2, todoRepository.count());
+        assertTrue(todoRepository.findAll().stream().anyMatch(todo -> "tab\tand\\backslash".equals(todo.getDescription())));
+    }
+
+    @Test
+    void importTodo_csv_shouldImportWhatExportWrites() {
+        String body = "status,name,dueDate\r\n"
+                + "NOT_STARTED,\"Buy milk, eggs\",2025-12-19T10:00:00Z\r\n"
+                + "COMPLETED,\"Multi\nline \"\"quoted\"\"\",\r\n"
+                + "DONE,Bad status,\r\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+        ResponseEntity<Map> response = restTemplate.exchange("/api/lists/import", HttpMethod.POST, new HttpEntity<>(body, headers), Map.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().get("imported"));
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) response.getBody().get("errors");
+        assertEquals(5, errors.get(0).get("line"));
+        assertTrue(todoRepository.findAll().stream().anyMatch(todo -> "Multi\nline \"quoted\"".equals(todo.getName())));
+    }
+
+    @Test
+    void scrollTodo_shouldReturnAllTodosAcrossCursorPages() {
+        for (int i = 0; i < 3; i++) {
+            String requestBody = """
+                {
+                  "name": "Todo %d",
+                  "status": "NOT_STARTED",
+                  "dueDate": "%d"
+                }
+                """.formatted(i, 1766138400 + i);
+
+            this.restTemplate.exchange(
+                    "/api/lists",
+                    HttpMethod.POST,
+                    new HttpEntity<>(requestBody, this.getJsonHeaders()),
+                    Map.class
+            );
+        }
+
+        ResponseEntity<Map> firstPage =
+                restTemplate.getForEntity("/api/lists?cursor=&size=2", Map.class);
+
+        assertEquals(HttpStatus.OK, firstPage.getStatusCode());
+        assertEquals(2, ((List<?>) firstPage.getBody().get("content")).size());
+        assertEquals(true, firstPage.getBody().get("hasNext"));
+        assertFalse(firstPage.getBody().containsKey("totalElements"));
+
+        ResponseEntity<Map> secondPage =
+                restTemplate.getForEntity("/api/lists?size=2&cursor=" + firstPage.getBody().get("nextCursor"), Map.class);
+
+        assertEquals(HttpStatus.OK, secondPage.getStatusCode());
+        List<?> content = (List<?>) secondPage.getBody().get("content");
+        assertEquals(1, content.size());
+        assertEquals("Todo 2", ((Map<?, ?>) content.get(0)).get("name"));
+        assertEquals(false, secondPage.getBody().get("hasNext"));
+        assertNull(secondPage.getBody().get("nextCursor"));
+    }
+
+    @Test
+    void scrollTodo_invalidCursor_shouldReturnBadRequest() {
+        ResponseEntity<String> response =
+                restTemplate.getForEntity("/api/lists?cursor=not-a-cursor", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
     @Test
@@ -196,6 +540,105 @@ public class TodoListControllerIntegrationTest {
         assertEquals(HttpStatus.NOT_FOUND, getResponse.getStatusCode());
     }
 
+    @Test
+    void updateAndDeleteTodo_missingTodo_shouldReturnNotFound() {
+        String requestBody = """
+                {
+                  "name": "Missing",
+                  "status": "COMPLETED"
+                }
+                """;
+        UUID missingId = UUID.randomUUID();
+
+        ResponseEntity<String> updateResponse = restTemplate.exchange(
+                "/api/lists/" + missingId,
+                HttpMethod.PUT,
+                new HttpEntity<>(requestBody, getJsonHeaders()),
+                String.class
+        );
+        ResponseEntity<String> deleteResponse = restTemplate.exchange(
+                "/api/lists/" + missingId,
+                HttpMethod.DELETE,
+                null,
+                String.class
+        );
+
+        assertEquals(HttpStatus.NOT_FOUND, updateResponse.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, deleteResponse.getStatusCode());
+    }
+
+    @Test
+    void batchTodos_shouldReportEachItemStatus() {
+        String createBody = """
+                [
+                  {"name": "First", "status": "NOT_STARTED", "dueDate": "1766138400"},
+                  {"name": "", "status": "NOT_STARTED"},
+                  {"name": "Second", "status": "IN_PROGRESS", "dueDate": "1766138400"}
+                ]
+                """;
+
+        ResponseEntity<List> createResponse = restTemplate.exchange(
+                "/api/lists/batch",
+                HttpMethod.POST,
+                new HttpEntity<>(createBody, getJsonHeaders()),
+                List.class
+        );
+
+        assertEquals(HttpStatus.MULTI_STATUS, createResponse.getStatusCode());
+        List<Map<String, Object>> created = createResponse.getBody();
+        assertEquals(List.of(201, 400, 201), created.stream().map(item -> item.get("status")).toList());
+        assertEquals(2, todoRepository.count());
+
+        String firstId = (String) created.get(0).get("id");
+        UUID missingId = UUID.randomUUID();
+        String updateBody = """
+                [
+                  {"id": "%s", "name": "First renamed", "status": "COMPLETED"},
+                  {"id": "%s", "name": "Missing", "status": "COMPLETED"}
+                ]
+                """.formatted(firstId, missingId);
+
+        ResponseEntity<List> updateResponse = restTemplate.exchange(
+                "/api/lists/batch",
+                HttpMethod.PATCH,
+                new HttpEntity<>(updateBody, getJsonHeaders()),
+                List.class
+        );
+
+        List<Map<String, Object>> updated = updateResponse.getBody();
+        assertEquals(List.of(200, 404), updated.stream().map(item -> item.get("status")).toList());
+        Todo stored = todoRepository.findById(UUID.fromString(firstId)).orElseThrow();
+        assertEquals(TodoStatus.COMPLETED, stored.getStatus());
+        //The response carries the version the update wrote, not the one it read
+        assertEquals(1, stored.getVersion());
+        assertEquals(1, ((Map<?, ?>) updated.get(0).get("todo")).get("version"));
+
+        ResponseEntity<List> deleteResponse = restTemplate.exchange(
+                "/api/lists/batch",
+                HttpMethod.DELETE,
+                new HttpEntity<>(List.of(firstId, missingId.toString()), getJsonHeaders()),
+                List.class
+        );
+
+        List<Map<String, Object>> deleted = deleteResponse.getBody();
+        assertEquals(List.of(204, 404), deleted.stream().map(item -> item.get("status")).toList());
+        assertEquals(1, todoRepository.count());
+    }
+
+    @Test
+    void batchTodos_tooManyItems_shouldReturnBadRequest() {
+        List<String> ids = Stream.generate(() -> UUID.randomUUID().toString()).limit(1001).toList();
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/api/lists/batch",
+                HttpMethod.DELETE,
+                new HttpEntity<>(ids, getJsonHeaders()),
+                String.class
+        );
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     private HttpHeaders getJsonHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
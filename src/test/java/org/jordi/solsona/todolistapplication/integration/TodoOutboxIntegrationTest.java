@@ -0,0 +1,133 @@
+package org.jordi.solsona.todolistapplication.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TodoVersionMismatchException;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.service.TodoListService;
+import org.jordi.solsona.todolistapplication.service.outbox.InMemoryTodoOutboxSink;
+import org.jordi.solsona.todolistapplication.service.outbox.TodoOutboxMessage;
+import org.jordi.solsona.todolistapplication.service.outbox.TodoOutboxRelay;
+import org.jordi.solsona.todolistapplication.service.outbox.TodoOutboxSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that the changes made through the service are recorded in {@code todo_outbox} with them, and that the relay
+ * delivers each todo's changes in order, skipping the todos whose oldest change another relay holds. The relay is run
+ * by the tests, not on its schedule.
+ */
+@SpringBootTest(properties = {"todo.outbox.enabled=true", "todo.outbox.sink=memory", "todo.outbox.batch-size=2",
+        "todo.outbox.interval=PT1H"})
+public class TodoOutboxIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private TodoListService todoListService;
+
+    @Autowired
+    private TodoOutboxRelay relay;
+
+    @Autowired
+    private TodoOutboxSink sink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        this.jdbcTemplate.update("DELETE FROM todo_lists");
+        this.jdbcTemplate.update("DELETE FROM todo_outbox");
+        ((InMemoryTodoOutboxSink) this.sink).clear();
+    }
+
+    @Test
+    void changes_areRelayedInOrderPerTodoAndDeleted() throws Exception {
+        UUID first = create("first");
+        UUID second = create("second");
+        this.todoListService.update(first, new UpdateTodoRequest("first", null, null, TodoStatus.IN_PROGRESS), Set.of(0L));
+        this.todoListService.update(first, new UpdateTodoRequest("first", null, null, TodoStatus.COMPLETED), Set.of(1L));
+        this.todoListService.delete(second);
+
+        int relayed = this.relay.relay();
+
+        assertThat(relayed).isEqualTo(5);
+        assertThat(changes(first)).containsExactly("CREATED:0", "UPDATED:1", "UPDATED:2");
+        assertThat(changes(second)).containsExactly("CREATED:0", "DELETED:-");
+        assertThat(this.jdbcTemplate.queryForObject("SELECT count(*) FROM todo_outbox", Long.class)).isZero();
+    }
+
+    @Test
+    void rolledBackChange_isNotRecorded() {
+        UUID id = create("title");
+        this.relay.relay();
+
+        assertThrows(TodoVersionMismatchException.class,
+                () -> this.todoListService.update(id, new UpdateTodoRequest("stale", null, null, TodoStatus.COMPLETED), Set.of(5L)));
+
+        assertThat(this.jdbcTemplate.queryForObject("SELECT count(*) FROM todo_outbox", Long.class)).isZero();
+    }
+
+    @Test
+    void lockedChange_holdsBackTheLaterChangesOfItsTodoOnly() throws Exception {
+        UUID locked = create("locked");
+        UUID free = create("free");
+        this.todoListService.update(locked, new UpdateTodoRequest("locked", null, null, TodoStatus.COMPLETED), null);
+        long head = this.jdbcTemplate.queryForObject("SELECT min(id) FROM todo_outbox WHERE todo_id = ?", Long.class, locked);
+
+        //Another relay holding the oldest change of the todo
+        try (Connection connection = this.dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement("SELECT id FROM todo_outbox WHERE id = ? FOR UPDATE")) {
+                statement.setLong(1, head);
+                statement.executeQuery().close();
+            }
+            assertThat(this.relay.relay()).isEqualTo(1);
+            connection.rollback();
+        }
+        int relayed = this.relay.relay();
+
+        assertThat(changes(free)).containsExactly("CREATED:0");
+        assertThat(relayed).isEqualTo(2);
+        assertThat(changes(locked)).containsExactly("CREATED:0", "UPDATED:1");
+    }
+
+    private UUID create(String name) {
+        return this.todoListService.createTodo(new CreateTodoRequest(name, null, null, TodoStatus.NOT_STARTED)).getId();
+    }
+
+    /**
+     * @return the type and version of the delivered changes of a todo, in delivery order.
+     */
+    private List<String> changes(UUID todoId) throws Exception {
+        List<TodoOutboxMessage> messages = ((InMemoryTodoOutboxSink) this.sink).messages().stream()
+                .filter(message -> message.todoId().equals(todoId)).toList();
+        List<String> changes = new ArrayList<>();
+        for (TodoOutboxMessage message : messages) {
+            JsonNode change = this.objectMapper.readTree(message.change());
+            changes.add(change.get("type").asText() + ":" + (change.get("todo").isNull() ? "-" : change.get("todo").get("version").asText()));
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,137 @@
+package org.jordi.solsona.todolistapplication.integration;
+
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoReminderRepository;
+import org.jordi.solsona.todolistapplication.service.TodoListService;
+import org.jordi.solsona.todolistapplication.service.reminder.TodoReminderEvent;
+import org.jordi.solsona.todolistapplication.service.reminder.TodoReminderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Checks that the reminders of the open todos fire on time, once per stage, even after a failed tick, and that completed
+ * todos fire none. Short ticks, intervals and overdue delay keep the tests quick.
+ */
+@SpringBootTest(properties = {"todo.reminders.enabled=true", "todo.reminders.tick=PT0.05S", "todo.reminders.refresh-interval=PT0.3S",
+        "todo.reminders.lease-ttl=PT2S", "todo.reminders.overdue-after=PT1S"})
+public class TodoReminderIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private TodoListService todoListService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReminderRecorder recorder;
+
+    @Autowired
+    private TodoReminderService reminderService;
+
+    @SpyBean
+    private TodoReminderRepository reminderRepository;
+
+    @AfterEach
+    void tearDown() {
+        this.jdbcTemplate.update("DELETE FROM todo_lists");
+        this.recorder.events.clear();
+    }
+
+    @Test
+    void openTodo_firesDueThenOverdue() throws InterruptedException {
+        Instant dueDate = Instant.now().plusMillis(1500).truncatedTo(ChronoUnit.MILLIS);
+        UUID id = create("due", dueDate);
+
+        TodoReminderEvent due = this.recorder.events.poll(5, TimeUnit.SECONDS);
+        Instant dueFiredAt = Instant.now();
+        TodoReminderEvent overdue = this.recorder.events.poll(5, TimeUnit.SECONDS);
+
+        assertThat(due).isEqualTo(new TodoReminderEvent(TodoReminderEvent.Type.TODO_DUE, id, dueDate));
+        assertThat(dueFiredAt).isAfterOrEqualTo(dueDate);
+        assertThat(overdue).isEqualTo(new TodoReminderEvent(TodoReminderEvent.Type.TODO_OVERDUE, id, dueDate));
+        assertThat(this.recorder.events.poll(1, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void completedTodo_firesNothing() throws InterruptedException {
+        Instant dueDate = Instant.now().plusMillis(800);
+        UUID completed = create("completed", dueDate);
+        UUID moved = create("moved", dueDate);
+        this.todoListService.update(completed, new UpdateTodoRequest("completed", null, dueDate, TodoStatus.COMPLETED), null);
+        this.todoListService.update(moved, new UpdateTodoRequest("moved", null, dueDate.plus(Duration.ofHours(1)), TodoStatus.IN_PROGRESS), null);
+
+        assertThat(this.recorder.events.poll(3, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void openTodo_whenTheDueDateCheckFails_firesOnALaterTick() throws InterruptedException {
+        //A spy can't be stubbed while another thread calls it: the reminders of the previous tests could fire meanwhile
+        this.reminderService.stop();
+        doThrow(new DataAccessResourceFailureException("database down")).doCallRealMethod()
+                .when(this.reminderRepository).findOpenDueDates(anyCollection());
+        this.reminderService.start();
+        Instant dueDate = Instant.now().plusMillis(500).truncatedTo(ChronoUnit.MILLIS);
+        UUID id = create("due", dueDate);
+
+        TodoReminderEvent due = this.recorder.events.poll(5, TimeUnit.SECONDS);
+
+        assertThat(due).isEqualTo(new TodoReminderEvent(TodoReminderEvent.Type.TODO_DUE, id, dueDate));
+        verify(this.reminderRepository, atLeast(2)).findOpenDueDates(argThat(ids -> ids.contains(id)));
+    }
+
+    @Test
+    void leases_areOwnedByThisNode() {
+        Long owned = this.jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM todo_reminder_leases WHERE owner IS NOT NULL AND expires_at > now()", Long.class);
+
+        assertThat(owned).isEqualTo(16);
+    }
+
+    private UUID create(String name, Instant dueDate) {
+        return this.todoListService.createTodo(new CreateTodoRequest(name, null, dueDate, TodoStatus.NOT_STARTED)).getId();
+    }
+
+    @TestConfiguration
+    static class ReminderRecorderConfig {
+
+        @Bean
+        ReminderRecorder reminderRecorder() {
+            return new ReminderRecorder();
+        }
+    }
+
+    static class ReminderRecorder {
+
+        final BlockingQueue<TodoReminderEvent> events = new LinkedBlockingQueue<>();
+
+        @EventListener
+        void onReminder(TodoReminderEvent event) {
+            this.events.add(event);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.jordi.solsona.todolistapplication.integration;
+
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoCopyRepository;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the per-status counters maintained by the triggers on {@code todo_lists} always agree with a count of the
+ * rows, whatever statement changed them.
+ */
+@SpringBootTest
+public class TodoStatusCountsIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TodoCopyRepository todoCopyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        this.jdbcTemplate.update("DELETE FROM todo_lists");
+    }
+
+    @Test
+    void counters_followInsertsUpdatesAndDeletes() {
+        for (int i = 0; i < 5; i++) {
+            this.jdbcTemplate.update("INSERT INTO todo_lists (id, name, status) VALUES (?, ?, ?)",
+                    UUID.randomUUID(), "todo " + i, i < 3 ? "NOT_STARTED" : null);
+        }
+        assertCountersMatchRows();
+
+        this.jdbcTemplate.update("UPDATE todo_lists SET status = 'COMPLETED' WHERE status = 'NOT_STARTED' AND name <> 'todo 0'");
+        this.jdbcTemplate.update("UPDATE todo_lists SET name = 'renamed'");
+        assertCountersMatchRows();
+
+        this.jdbcTemplate.update("DELETE FROM todo_lists WHERE status IS NULL OR status = 'COMPLETED'");
+        assertCountersMatchRows();
+        assertThat(this.todoRepository.countByStatusFromCounters(null)).isEqualTo(1);
+    }
+
+    @Test
+    void counters_followCopyAndRollback() {
+        List<Todo> todos = List.of(new Todo(null, "copied", null, TodoStatus.IN_PROGRESS, null, null, null),
+                new Todo(null, "copied", null, TodoStatus.IN_PROGRESS, null, null, null));
+        this.transactionTemplate.executeWithoutResult(status -> this.todoCopyRepository.copy(todos));
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.jdbcTemplate.update("DELETE FROM todo_lists");
+            status.setRollbackOnly();
+        });
+
+        assertThat(this.todoRepository.countByStatusFromCounters("IN_PROGRESS")).isEqualTo(2);
+        assertCountersMatchRows();
+    }
+
+    private void assertCountersMatchRows() {
+        for (TodoStatus status : TodoStatus.values()) {
+            Long rows = this.jdbcTemplate.queryForObject("SELECT count(*) FROM todo_lists WHERE status = ?", Long.class, status.name());
+            assertThat(this.todoRepository.countByStatusFromCounters(status.name())).as(status.name()).isEqualTo(rows);
+        }
+        Long rows = this.jdbcTemplate.queryForObject("SELECT count(*) FROM todo_lists", Long.class);
+        assertThat(this.todoRepository.countByStatusFromCounters(null)).isEqualTo(rows);
+    }
+}
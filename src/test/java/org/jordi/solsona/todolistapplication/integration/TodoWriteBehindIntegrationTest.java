@@ -0,0 +1,105 @@
+package org.jordi.solsona.todolistapplication.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The create and update scenarios of {@code TodoListControllerIntegrationTest} with the write-behind mode enabled:
+ * concurrent writes are committed in groups, and every request still gets its own response once committed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "todo.write-behind.enabled=true", "todo.write-behind.max-delay=PT0.02S"})
+public class TodoWriteBehindIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        this.jdbcTemplate.update("DELETE FROM todo_lists");
+    }
+
+    @Test
+    void concurrentCreates_shouldAllBeCommittedInGroups() throws Exception {
+        long groups = this.meterRegistry.get("todo.writebehind.batch.size").summary().count();
+
+        List<ResponseEntity<TodoResponse>> responses;
+        try (ExecutorService clients = Executors.newFixedThreadPool(20)) {
+            List<Future<ResponseEntity<TodoResponse>>> futures = IntStream.range(0, 40)
+                    .mapToObj(i -> clients.submit(() -> create("{\"name\": \"Todo %d\", \"status\": \"NOT_STARTED\"}".formatted(i))))
+                    .toList();
+            responses = futures.stream().map(future -> {
+                try {
+                    return future.get();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+        }
+
+        for (ResponseEntity<TodoResponse> response : responses) {
+            assertEquals(HttpStatus.CREATED, response.getStatusCode());
+            assertNotNull(response.getBody().id());
+        }
+        assertEquals(40, this.jdbcTemplate.queryForObject("SELECT count(*) FROM todo_lists", Long.class));
+        assertTrue(this.meterRegistry.get("todo.writebehind.batch.size").summary().count() - groups < 40);
+    }
+
+    @Test
+    void updateTodo_shouldEvictCacheAndRejectStaleIfMatch() {
+        UUID id = create("{\"name\": \"title\", \"status\": \"NOT_STARTED\"}").getBody().id();
+        this.restTemplate.getForEntity("/api/lists/" + id, TodoResponse.class);
+        HttpHeaders headers = this.getJsonHeaders();
+        headers.setIfMatch("\"0\"");
+        String requestBody = "{\"name\": \"renamed\", \"status\": \"IN_PROGRESS\"}";
+
+        ResponseEntity<TodoResponse> updated = this.restTemplate.exchange("/api/lists/" + id, HttpMethod.PUT, new HttpEntity<>(requestBody, headers), TodoResponse.class);
+        ResponseEntity<String> conflict = this.restTemplate.exchange("/api/lists/" + id, HttpMethod.PUT, new HttpEntity<>(requestBody, headers), String.class);
+        ResponseEntity<TodoResponse> fetched = this.restTemplate.getForEntity("/api/lists/" + id, TodoResponse.class);
+
+        assertEquals(HttpStatus.OK, updated.getStatusCode());
+        assertEquals("\"1\"", updated.getHeaders().getETag());
+        assertEquals(HttpStatus.PRECONDITION_FAILED, conflict.getStatusCode());
+        assertEquals("renamed", fetched.getBody().name());
+    }
+
+    @Test
+    void updateTodo_missingTodo_shouldReturnNotFound() {
+        ResponseEntity<String> response = this.restTemplate.exchange("/api/lists/" + UUID.randomUUID(), HttpMethod.PUT,
+                new HttpEntity<>("{\"name\": \"Missing\", \"status\": \"COMPLETED\"}", this.getJsonHeaders()), String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    private ResponseEntity<TodoResponse> create(String requestBody) {
+        return this.restTemplate.exchange("/api/lists", HttpMethod.POST, new HttpEntity<>(requestBody, this.getJsonHeaders()), TodoResponse.class);
+    }
+
+    private HttpHeaders getJsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+}
@@ -0,0 +1,57 @@
+package org.jordi.solsona.todolistapplication.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jordi.solsona.todolistapplication.config.TodoArchiveProperties;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TodoArchiveServiceTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private TodoStatisticsService todoStatisticsService;
+
+    @Test
+    void archive_fullBatches_continuesUntilShortBatchAndReconcilesStatistics() {
+        TodoArchiveService service = service(true);
+        when(todoRepository.archiveCompletedBefore(any(Instant.class), eq(2))).thenReturn(2, 2, 1);
+
+        int archived = service.archive();
+
+        assertThat(archived).isEqualTo(5);
+        verify(todoRepository, times(3)).archiveCompletedBefore(any(Instant.class), eq(2));
+        verify(todoStatisticsService).reconcile();
+    }
+
+    @Test
+    void archive_nothingToArchive_keepsStatistics() {
+        TodoArchiveService service = service(true);
+        when(todoRepository.archiveCompletedBefore(any(Instant.class), eq(2))).thenReturn(0);
+
+        assertThat(service.archive()).isZero();
+        verifyNoInteractions(todoStatisticsService);
+    }
+
+    @Test
+    void archive_disabled_doesNothing() {
+        assertThat(service(false).archive()).isZero();
+        verifyNoInteractions(todoRepository, todoStatisticsService);
+    }
+
+    private TodoArchiveService service(boolean enabled) {
+        TodoArchiveProperties properties = new TodoArchiveProperties(enabled, Duration.ofDays(30), Duration.ofHours(1), 2);
+        return new TodoArchiveService(todoRepository, todoStatisticsService, properties, new SimpleMeterRegistry());
+    }
+}
@@ -1,28 +1,58 @@
 package org.jordi.solsona.todolistapplication.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Path;
+import jakarta.validation.Validator;
+import org.jordi.solsona.todolistapplication.api.dto.BatchItemResult;
+import org.jordi.solsona.todolistapplication.api.dto.BatchUpdateTodoRequest;
 import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.ImportReport;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
 import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.imports.ImportRow;
+import org.jordi.solsona.todolistapplication.commons.exceptions.BatchTooLargeException;
+import org.jordi.solsona.todolistapplication.commons.exceptions.InvalidSearchQueryException;
 import org.jordi.solsona.todolistapplication.commons.exceptions.TodoNotFoundException;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TodoVersionMismatchException;
 import org.jordi.solsona.todolistapplication.commons.mappers.TodoMapper;
+import org.jordi.solsona.todolistapplication.config.TodoBatchProperties;
+import org.jordi.solsona.todolistapplication.config.TodoImportProperties;
 import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoState;
 import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.CountMode;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoCopyRepository;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoCursor;
 import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoSearchHit;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoUpdate;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -40,6 +70,21 @@ public class TodoListServiceTest {
     @Mock
     private TodoMapper todoMapper;
 
+    @Mock
+    private Validator validator;
+
+    @Spy
+    private TodoBatchProperties batchProperties = new TodoBatchProperties(2);
+
+    @Mock
+    private TodoCopyRepository todoCopyRepository;
+
+    @Spy
+    private TodoImportProperties importProperties = new TodoImportProperties(2, 1, 4096);
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private Todo todo;
     private CreateTodoRequest createRequest;
     private UpdateTodoRequest updateRequest;
@@ -62,11 +107,13 @@ public class TodoListServiceTest {
     @Test
     public void getById_todoExists_returnsTodoList() {
 
+        TodoResponse response = new TodoResponse(this.uuid, "testTodoList", "A description", this.currentTime, TodoStatus.NOT_STARTED, 0);
         when(this.todoRepository.findById(this.uuid))
                 .thenReturn(Optional.of(this.todo));
+        when(this.todoMapper.toResponse(this.todo)).thenReturn(response);
 
-        Todo returnedList = this.todoListService.getTodoById(this.uuid);
-        assertThat(returnedList).isSameAs(this.todo);
+        TodoResponse returnedList = this.todoListService.getTodoById(this.uuid);
+        assertThat(returnedList).isSameAs(response);
         verify(this.todoRepository).findById(this.uuid);
     }
 
@@ -87,22 +134,28 @@ public class TodoListServiceTest {
 
         when(this.todoMapper.toEntity(this.createRequest)).thenReturn(this.todo);
         when(this.todoRepository.save(any(Todo.class))).thenReturn(this.todo);
+        TodoResponse response = new TodoResponse(this.uuid, "testTodoList", "A description", this.currentTime, TodoStatus.NOT_STARTED, 0);
+        when(this.todoMapper.toResponse(this.todo)).thenReturn(response);
         Todo createdList = this.todoListService.createTodo(this.createRequest);
 
         assertThat(createdList).isSameAs(this.todo);
         verify(this.todoRepository).save(any(Todo.class));
+        verify(this.eventPublisher).publishEvent(TodoChangeEvent.created(response));
     }
 
     @Test
     public void update_existingTodo_udpatesFieldsAndSavesList() {
 
+        TodoState previous = TodoState.of(this.todo);
         Todo updatedList = this.todo;
         updatedList.setStatus(TodoStatus.IN_PROGRESS);
 
-        when(this.todoRepository.findById(this.uuid)).thenReturn(Optional.of(this.todo));
-        when(this.todoRepository.save(any(Todo.class))).thenReturn(updatedList);
+        when(this.todoRepository.updateReturning(this.uuid, "testTodoList", "A description", this.currentTime, TodoStatus.IN_PROGRESS, null))
+                .thenReturn(Optional.of(new TodoUpdate(updatedList, previous)));
+        TodoResponse response = new TodoResponse(this.uuid, "testTodoList", "A description", this.currentTime, TodoStatus.IN_PROGRESS, 1);
+        when(this.todoMapper.toResponse(updatedList)).thenReturn(response);
 
-        Todo result = this.todoListService.update(this.uuid, this.updateRequest);
+        Todo result = this.todoListService.update(this.uuid, this.updateRequest, null);
 
 
         assertThat(result.getName()).isEqualTo("testTodoList");
@@ -110,49 +163,278 @@ public class TodoListServiceTest {
         assertThat(result.getDueDate()).isEqualTo(updatedList.getDueDate());
         assertThat(result.getStatus()).isEqualTo(TodoStatus.IN_PROGRESS);
 
-        verify(this.todoRepository).save(any(Todo.class));
+        verify(this.todoRepository, never()).findById(any());
+        verify(this.todoRepository, never()).findStateById(any());
+        verify(this.todoRepository, never()).save(any(Todo.class));
+        verify(this.eventPublisher).publishEvent(TodoChangeEvent.updated(previous, response));
     }
 
     @Test
     public void update_missingTodo_throwsException() {
 
-        Todo updatedList = this.todo;
-        updatedList.setStatus(TodoStatus.IN_PROGRESS);
+        when(this.todoRepository.updateReturning(this.uuid, "testTodoList", "A description", this.currentTime, TodoStatus.IN_PROGRESS, null))
+                .thenReturn(Optional.empty());
+
+        assertThrows(TodoNotFoundException.class, () -> {
+            this.todoListService.update(this.uuid, this.updateRequest, null);
+        });
+        verifyNoInteractions(this.eventPublisher);
+    }
+
+    @Test
+    public void update_staleVersion_throwsVersionMismatch() {
+
+        when(this.todoRepository.updateReturning(this.uuid, "testTodoList", "A description", this.currentTime, TodoStatus.IN_PROGRESS, Set.of(1L)))
+                .thenReturn(Optional.empty());
+        when(this.todoRepository.findStateById(this.uuid)).thenReturn(Optional.of(TodoState.of(this.todo)));
+
+        assertThrows(TodoVersionMismatchException.class, () -> {
+            this.todoListService.update(this.uuid, this.updateRequest, Set.of(1L));
+        });
+        verifyNoInteractions(this.eventPublisher);
+    }
+
+    @Test
+    public void update_missingTodoWithVersion_throwsException() {
 
-        when(this.todoRepository.findById(updatedList.getId()))
+        when(this.todoRepository.updateReturning(this.uuid, "testTodoList", "A description", this.currentTime, TodoStatus.IN_PROGRESS, Set.of(1L)))
                 .thenReturn(Optional.empty());
+        when(this.todoRepository.findStateById(this.uuid)).thenReturn(Optional.empty());
 
         assertThrows(TodoNotFoundException.class, () -> {
-            this.todoListService.update(this.uuid, this.updateRequest);
+            this.todoListService.update(this.uuid, this.updateRequest, Set.of(1L));
         });
     }
 
+    @Test
+    void delete_existingTodo_deletesWithoutLoading() {
+
+        when(this.todoRepository.deleteReturning(this.uuid)).thenReturn(Optional.of(this.todo));
+        this.todoListService.delete(this.uuid);
+
+        verify(this.todoRepository, never()).findById(any());
+        verify(this.eventPublisher).publishEvent(TodoChangeEvent.deleted(TodoState.of(this.todo)));
+    }
+
     @Test
     void delete_missingTodo_throwsException() {
 
-        doThrow(new IllegalArgumentException()).when(this.todoRepository).deleteById(this.uuid);
+        when(this.todoRepository.deleteReturning(this.uuid)).thenReturn(Optional.empty());
         assertThrows(TodoNotFoundException.class, () -> {
             this.todoListService.delete(this.uuid);
         });
+        verifyNoInteractions(this.eventPublisher);
     }
 
 
     @Test
     void list_withFilters_returnsTodoPage() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Todo> page = new PageImpl<>(List.of(this.todo), pageable, 1);
+        TodoView view = new TodoView(this.uuid, "testTodoList", "A description", this.currentTime, TodoStatus.NOT_STARTED, 0);
+        TodoResponse response = new TodoResponse(this.uuid, "testTodoList", "A description", this.currentTime, TodoStatus.NOT_STARTED, 0);
+        Page<TodoView> page = new PageImpl<>(List.of(view), pageable, 1);
 
-        when(todoRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
+        when(todoRepository.findViews(any(Specification.class), eq(pageable), any(LongSupplier.class))).thenReturn(page);
+        when(this.todoMapper.toResponse(view)).thenReturn(response);
 
-        Page<Todo> result = todoListService.list(TodoStatus.NOT_STARTED, null, pageable);
+        Page<TodoResponse> result = todoListService.list(TodoStatus.NOT_STARTED, null, false, pageable, CountMode.EXACT);
 
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0)).isSameAs(this.todo);
+        assertThat(result.getContent().get(0)).isSameAs(response);
+        verify(this.todoRepository, never()).findAll(any(Specification.class), any(Pageable.class));
     }
 
+    @Test
+    void list_exactCountWithStatusOnly_readsStatusCounters() {
+        Pageable pageable = PageRequest.of(0, 10);
+        ArgumentCaptor<LongSupplier> total = ArgumentCaptor.forClass(LongSupplier.class);
+        when(todoRepository.findViews(any(Specification.class), eq(pageable), total.capture())).thenReturn(Page.empty(pageable));
+        when(todoRepository.countByStatusFromCounters("NOT_STARTED")).thenReturn(42L);
 
+        todoListService.list(TodoStatus.NOT_STARTED, null, false, pageable, CountMode.EXACT);
 
+        assertThat(total.getValue().getAsLong()).isEqualTo(42L);
+        verify(this.todoRepository, never()).count(any(Specification.class));
+    }
 
-}
+    @Test
+    void list_exactCountWithDueTime_countsMatchingRows() {
+        Pageable pageable = PageRequest.of(0, 10);
+        ArgumentCaptor<LongSupplier> total = ArgumentCaptor.forClass(LongSupplier.class);
+        when(todoRepository.findViews(any(Specification.class), eq(pageable), total.capture())).thenReturn(Page.empty(pageable));
+        when(todoRepository.count(any(Specification.class))).thenReturn(7L);
+
+        todoListService.list(TodoStatus.NOT_STARTED, this.currentTime, false, pageable, CountMode.EXACT);
 
+        assertThat(total.getValue().getAsLong()).isEqualTo(7L);
+        verify(this.todoRepository, never()).countByStatusFromCounters(any());
+    }
+
+    @Test
+    void list_exactCountIncludingArchived_countsMatchingRows() {
+        Pageable pageable = PageRequest.of(0, 10);
+        ArgumentCaptor<LongSupplier> total = ArgumentCaptor.forClass(LongSupplier.class);
+        when(todoRepository.findViews(any(Specification.class), eq(pageable), total.capture())).thenReturn(Page.empty(pageable));
+        when(todoRepository.count(any(Specification.class))).thenReturn(9L);
+
+        todoListService.list(TodoStatus.COMPLETED, null, true, pageable, CountMode.EXACT);
+
+        assertThat(total.getValue().getAsLong()).isEqualTo(9L);
+        verify(this.todoRepository, never()).countByStatusFromCounters(any());
+    }
+
+    @Test
+    void list_estimatedCount_usesPlannerEstimate() {
+        Pageable pageable = PageRequest.of(0, 10);
+        ArgumentCaptor<LongSupplier> total = ArgumentCaptor.forClass(LongSupplier.class);
+        when(todoRepository.findViews(any(Specification.class), eq(pageable), total.capture())).thenReturn(Page.empty(pageable));
+        when(todoRepository.estimateCount(null, this.currentTime, false)).thenReturn(1000L);
+
+        todoListService.list(null, this.currentTime, false, pageable, CountMode.ESTIMATE);
+
+        assertThat(total.getValue().getAsLong()).isEqualTo(1000L);
+        verify(this.todoRepository, never()).count(any(Specification.class));
+    }
 
+    @Test
+    void list_noCount_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> todoListService.list(null, null, false, PageRequest.of(0, 10), CountMode.NONE));
+    }
+
+    @Test
+    void export_passesEveryStreamedTodoToConsumer() {
+        TodoView view = new TodoView(this.uuid, "testTodoList", "A description", this.currentTime, TodoStatus.NOT_STARTED, 0);
+        TodoResponse response = new TodoResponse(this.uuid, "testTodoList", "A description", this.currentTime, TodoStatus.NOT_STARTED, 0);
+        when(todoRepository.streamViews(any(Specification.class), eq(Sort.by("dueDate", "id")))).thenReturn(Stream.of(view, view));
+        when(this.todoMapper.toResponse(view)).thenReturn(response);
+        List<TodoResponse> exported = new ArrayList<>();
+
+        todoListService.export(TodoStatus.NOT_STARTED, null, false, exported::add);
+
+        assertThat(exported).containsExactly(response, response);
+    }
+
+    @Test
+    void scroll_moreRowsThanSize_returnsSliceWithNext() {
+        Todo other = new Todo();
+        other.setId(new UUID(0L, 2L));
+
+        when(todoRepository.findBy(any(Specification.class), any())).thenReturn(List.of(this.todo, other));
+
+        Slice<Todo> result = todoListService.scroll(null, null, false, TodoCursor.initial("dueDate", Sort.Direction.ASC), 1);
+
+        assertThat(result.getContent()).containsExactly(this.todo);
+        assertThat(result.hasNext()).isTrue();
+    }
+
+    @Test
+    void search_moreHitsThanSize_returnsSliceWithNext() {
+        TodoSearchHit best = new TodoSearchHit(new TodoView(this.todo.getId(), "Buy milk", null, null, null, 0), 0.6f);
+        TodoSearchHit other = new TodoSearchHit(new TodoView(new UUID(0L, 2L), "Milk the cow", null, null, null, 0), 0.3f);
+        when(todoRepository.search(eq("milk"), any(Specification.class), eq(2))).thenReturn(List.of(best, other));
+
+        Slice<TodoSearchHit> result = todoListService.search("milk", TodoStatus.NOT_STARTED, null, false, null, 1);
+
+        assertThat(result.getContent()).containsExactly(best);
+        assertThat(result.hasNext()).isTrue();
+    }
+
+    @Test
+    void search_blankText_throwsInvalidSearchQuery() {
+        assertThrows(InvalidSearchQueryException.class, () -> todoListService.search(" ", null, null, false, null, 10));
+
+        verifyNoInteractions(todoRepository);
+    }
+
+    @Test
+    void scroll_lastPage_returnsSliceWithoutNext() {
+        when(todoRepository.findBy(any(Specification.class), any())).thenReturn(List.of(this.todo));
+
+        Slice<Todo> result = todoListService.scroll(TodoStatus.NOT_STARTED, null, false, TodoCursor.initial("dueDate", Sort.Direction.ASC), 10);
+
+        assertThat(result.getContent()).containsExactly(this.todo);
+        assertThat(result.hasNext()).isFalse();
+    }
+
+    @Test
+    void createTodos_invalidItem_createsTheValidOnes() {
+        CreateTodoRequest invalid = new CreateTodoRequest("", null, null, null);
+        ConstraintViolation<Object> violation = mock(ConstraintViolation.class);
+        Path path = mock(Path.class);
+        when(path.toString()).thenReturn("name");
+        when(violation.getPropertyPath()).thenReturn(path);
+        when(violation.getMessage()).thenReturn("must not be blank");
+        when(this.validator.validate(any())).thenReturn(Set.of());
+        doReturn(Set.of(violation)).when(this.validator).validate(invalid);
+        when(this.todoMapper.toEntity(this.createRequest)).thenReturn(this.todo);
+
+        List<BatchItemResult> results = this.todoListService.createTodos(List.of(this.createRequest, invalid));
+
+        assertThat(results).extracting(BatchItemResult::status).containsExactly(201, 400);
+        assertThat(results.get(0).id()).isEqualTo(this.uuid);
+        assertThat(results.get(1).error()).isEqualTo("name must not be blank");
+        verify(this.todoRepository).saveAll(List.of(this.todo));
+    }
+
+    @Test
+    void createTodos_tooManyItems_throwsException() {
+        assertThrows(BatchTooLargeException.class, () -> {
+            this.todoListService.createTodos(List.of(this.createRequest, this.createRequest, this.createRequest));
+        });
+        verifyNoInteractions(this.todoRepository);
+    }
+
+    @Test
+    void updateTodos_missingTodo_updatesTheExistingOnes() {
+        UUID missing = new UUID(0L, 2L);
+        BatchUpdateTodoRequest existingRequest = new BatchUpdateTodoRequest(this.uuid, "renamed", null, null, TodoStatus.COMPLETED);
+        BatchUpdateTodoRequest missingRequest = new BatchUpdateTodoRequest(missing, "renamed", null, null, TodoStatus.COMPLETED);
+        when(this.validator.validate(any())).thenReturn(Set.of());
+        when(this.todoRepository.findAllById(Set.of(this.uuid, missing))).thenReturn(List.of(this.todo));
+
+        List<BatchItemResult> results = this.todoListService.updateTodos(List.of(existingRequest, missingRequest));
+
+        assertThat(results).extracting(BatchItemResult::status).containsExactly(200, 404);
+        assertThat(this.todo.getName()).isEqualTo("renamed");
+        assertThat(this.todo.getStatus()).isEqualTo(TodoStatus.COMPLETED);
+    }
+
+    @Test
+    void deleteTodos_missingTodo_deletesTheExistingOnes() {
+        UUID missing = new UUID(0L, 2L);
+        TodoState existing = TodoState.of(this.todo);
+        when(this.todoRepository.findStatesForUpdate(List.of(this.uuid, missing))).thenReturn(List.of(existing));
+
+        List<BatchItemResult> results = this.todoListService.deleteTodos(List.of(this.uuid, missing));
+
+        assertThat(results).extracting(BatchItemResult::status).containsExactly(204, 404);
+        verify(this.todoRepository).deleteAllByIdInBatch(Set.of(this.uuid));
+        verify(this.eventPublisher).publishEvent(TodoChangeEvent.deleted(existing));
+    }
+
+    @Test
+    void importTodos_copiesValidRowsInChunksAndReportsTheRest() throws Exception {
+        CreateTodoRequest tooLong = new CreateTodoRequest("x".repeat(256), null, null, null);
+        Iterator<ImportRow> rows = List.of(
+                ImportRow.parsed(1, this.createRequest),
+                ImportRow.failed(2, "Unexpected character"),
+                ImportRow.parsed(3, this.createRequest),
+                ImportRow.parsed(4, tooLong),
+                ImportRow.parsed(5, this.createRequest)).iterator();
+        when(this.validator.validate(any())).thenReturn(Set.of());
+        when(this.todoMapper.toEntity(this.createRequest)).thenAnswer(invocation -> new Todo());
+        List<Integer> chunkSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            chunkSizes.add(invocation.<List<Todo>>getArgument(0).size());
+            return (long) chunkSizes.get(chunkSizes.size() - 1);
+        }).when(this.todoCopyRepository).copy(anyList());
+
+        ImportReport report = this.todoListService.importTodos(() -> rows.hasNext() ? rows.next() : null);
+
+        assertThat(chunkSizes).containsExactly(2, 1);
+        assertThat(report.rows()).isEqualTo(5);
+        assertThat(report.imported()).isEqualTo(3);
+        assertThat(report.rejected()).isEqualTo(2);
+        assertThat(report.errors()).containsExactly(new ImportReport.RowError(2, "Unexpected character"));
+    }
+}
@@ -0,0 +1,79 @@
+package org.jordi.solsona.todolistapplication.service;
+
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.api.dto.TodoStatsResponse;
+import org.jordi.solsona.todolistapplication.config.TodoStatsProperties;
+import org.jordi.solsona.todolistapplication.domain.model.TodoState;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TodoStatisticsServiceTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Spy
+    private TodoStatsProperties properties = new TodoStatsProperties(Duration.ofMinutes(1), List.of(Duration.ofHours(24), Duration.ofDays(7)));
+
+    @InjectMocks
+    private TodoStatisticsService todoStatisticsService;
+
+    private final UUID uuid = new UUID(0L, 1L);
+
+    @BeforeEach
+    void setUp() {
+        when(this.todoRepository.countByStatusFromCounters(null)).thenReturn(10L);
+        when(this.todoRepository.countByStatusFromCounters("NOT_STARTED")).thenReturn(4L);
+        when(this.todoRepository.countByStatusFromCounters("IN_PROGRESS")).thenReturn(3L);
+        when(this.todoRepository.countByStatusFromCounters("COMPLETED")).thenReturn(2L);
+        when(this.todoRepository.countOpenDueBefore(any())).thenReturn(1L);
+        when(this.todoRepository.countOpenDueBetween(any(), any())).thenReturn(2L, 5L);
+    }
+
+    @Test
+    void stats_neverReconciled_reconcilesFromDatabase() {
+        TodoStatsResponse stats = this.todoStatisticsService.stats();
+
+        assertThat(stats.total()).isEqualTo(10L);
+        assertThat(stats.byStatus()).containsEntry(TodoStatus.NOT_STARTED, 4L).containsEntry(TodoStatus.COMPLETED, 2L);
+        assertThat(stats.overdue()).isEqualTo(1L);
+        assertThat(stats.dueWithin()).containsExactly(entry("PT24H", 2L), entry("PT168H", 5L));
+    }
+
+    @Test
+    void stats_afterChanges_appliesThemWithoutQueries() {
+        this.todoStatisticsService.reconcile();
+        Instant now = Instant.now();
+
+        this.todoStatisticsService.onTodoChange(new TodoChangeEvent(null, new TodoResponse(this.uuid, "created", null, now.plus(Duration.ofHours(1)), TodoStatus.IN_PROGRESS, 0)));
+        this.todoStatisticsService.onTodoChange(new TodoChangeEvent(new TodoState(this.uuid, TodoStatus.NOT_STARTED, now.minus(Duration.ofDays(1)), 0),
+                new TodoResponse(this.uuid, "completed", null, now.minus(Duration.ofDays(1)), TodoStatus.COMPLETED, 1)));
+        this.todoStatisticsService.onTodoChange(new TodoChangeEvent(new TodoState(this.uuid, null, null, 0), null));
+        TodoStatsResponse stats = this.todoStatisticsService.stats();
+
+        assertThat(stats.total()).isEqualTo(10L);
+        assertThat(stats.byStatus()).containsEntry(TodoStatus.NOT_STARTED, 3L).containsEntry(TodoStatus.IN_PROGRESS, 4L)
+                .containsEntry(TodoStatus.COMPLETED, 3L);
+        assertThat(stats.overdue()).isEqualTo(0L);
+        assertThat(stats.dueWithin()).containsExactly(entry("PT24H", 3L), entry("PT168H", 6L));
+        verify(this.todoRepository, times(1)).countOpenDueBefore(any());
+    }
+}
@@ -0,0 +1,180 @@
+package org.jordi.solsona.todolistapplication.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jordi.solsona.todolistapplication.api.dto.CreateTodoRequest;
+import org.jordi.solsona.todolistapplication.api.dto.TodoResponse;
+import org.jordi.solsona.todolistapplication.api.dto.UpdateTodoRequest;
+import org.jordi.solsona.todolistapplication.commons.exceptions.TodoVersionMismatchException;
+import org.jordi.solsona.todolistapplication.commons.exceptions.WriteQueueFullException;
+import org.jordi.solsona.todolistapplication.commons.mappers.TodoMapper;
+import org.jordi.solsona.todolistapplication.config.CacheConfig;
+import org.jordi.solsona.todolistapplication.config.TodoWriteBehindProperties;
+import org.jordi.solsona.todolistapplication.domain.model.Todo;
+import org.jordi.solsona.todolistapplication.domain.model.TodoState;
+import org.jordi.solsona.todolistapplication.domain.model.TodoStatus;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoRepository;
+import org.jordi.solsona.todolistapplication.domain.repository.TodoUpdate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TodoWriteBehindServiceTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private TodoMapper todoMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    private final CreateTodoRequest createRequest = new CreateTodoRequest("title", null, null, TodoStatus.NOT_STARTED);
+
+    @Test
+    void create_whenQueueIsFull_shouldRejectAndStopShouldDrainTheRest() throws Exception {
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            committing.countDown();
+            release.await();
+            return new SimpleTransactionStatus();
+        });
+        stubCreates();
+        TodoWriteBehindService service = service(1, 1);
+        service.start();
+
+        CompletableFuture<TodoResponse> first = service.create(this.createRequest);
+        assertThat(committing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<TodoResponse> second = service.create(this.createRequest);
+        assertThrows(WriteQueueFullException.class, () -> service.create(this.createRequest));
+
+        release.countDown();
+        service.stop();
+
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        verify(this.transactionManager, times(2)).commit(any());
+        assertThrows(IllegalStateException.class, () -> service.create(this.createRequest));
+    }
+
+    @Test
+    void writes_queuedTogether_shouldBeCommittedInOneTransaction() {
+        when(this.transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        stubCreates();
+        UUID id = UUID.randomUUID();
+        when(this.todoRepository.updateReturning(id, "renamed", null, null, TodoStatus.COMPLETED, Set.of(2L))).thenReturn(Optional.empty());
+        when(this.todoRepository.findStateById(id)).thenReturn(Optional.of(new TodoState(id, TodoStatus.NOT_STARTED, null, 3)));
+        //The writer waits longer than the test for a group to fill, the stop is what ends it
+        TodoWriteBehindService service = service(10, 10, Duration.ofSeconds(10));
+        service.start();
+
+        CompletableFuture<TodoResponse> created = service.create(this.createRequest);
+        CompletableFuture<TodoResponse> stale = service.update(id, new UpdateTodoRequest("renamed", null, null, TodoStatus.COMPLETED), Set.of(2L));
+        service.stop();
+
+        assertThat(created.join()).isNotNull();
+        CompletionException error = assertThrows(CompletionException.class, stale::join);
+        assertThat(error.getCause()).isInstanceOf(TodoVersionMismatchException.class);
+        verify(this.transactionManager).commit(any());
+        verify(this.eventPublisher, times(1)).publishEvent(any(TodoChangeEvent.class));
+    }
+
+    @Test
+    void writes_whenTheCacheEvictionFails_shouldNotBeCommittedAgain() {
+        when(this.transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        Cache cache = mock(Cache.class);
+        when(this.cacheManager.getCache(CacheConfig.TODOS_CACHE)).thenReturn(cache);
+        doThrow(new IllegalStateException("cache down")).when(cache).evict(any());
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UpdateTodoRequest request = new UpdateTodoRequest("renamed", null, null, TodoStatus.COMPLETED);
+        when(this.todoRepository.updateReturning(any(), eq("renamed"), isNull(), isNull(), eq(TodoStatus.COMPLETED), isNull()))
+                .thenAnswer(invocation -> Optional.of(new TodoUpdate(new Todo(), TodoState.of(new Todo()))));
+        when(this.todoMapper.toResponse(any(Todo.class)))
+                .thenAnswer(invocation -> new TodoResponse(UUID.randomUUID(), "renamed", null, null, TodoStatus.COMPLETED, 1));
+        TodoWriteBehindService service = service(10, 10, Duration.ofSeconds(10));
+        service.start();
+
+        CompletableFuture<TodoResponse> firstUpdate = service.update(first, request, null);
+        CompletableFuture<TodoResponse> secondUpdate = service.update(second, request, null);
+        service.stop();
+
+        assertThat(firstUpdate.join()).isNotNull();
+        assertThat(secondUpdate.join()).isNotNull();
+        verify(this.transactionManager).commit(any());
+        verify(this.todoRepository, times(2)).updateReturning(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void write_notCommittedInTime_shouldTimeOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            release.await();
+            return new SimpleTransactionStatus();
+        });
+        stubCreates();
+        TodoWriteBehindService service = new TodoWriteBehindService(this.todoRepository, this.todoMapper, this.transactionManager,
+                this.eventPublisher, this.cacheManager,
+                new TodoWriteBehindProperties(true, 10, 10, Duration.ZERO, Duration.ofSeconds(5), Duration.ofMillis(50)),
+                new SimpleMeterRegistry());
+        service.start();
+
+        CompletableFuture<TodoResponse> created = service.create(this.createRequest);
+
+        CompletionException error = assertThrows(CompletionException.class, created::join);
+        assertThat(error.getCause()).isInstanceOf(TimeoutException.class);
+        release.countDown();
+        service.stop();
+        verify(this.transactionManager).commit(any());
+    }
+
+    private void stubCreates() {
+        when(this.todoMapper.toEntity(any(CreateTodoRequest.class))).thenAnswer(invocation -> new Todo());
+        when(this.todoRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(this.todoMapper.toResponse(any(Todo.class)))
+                .thenAnswer(invocation -> new TodoResponse(UUID.randomUUID(), "title", null, null, TodoStatus.NOT_STARTED, 0));
+    }
+
+    private TodoWriteBehindService service(int capacity, int maxBatchSize) {
+        return service(capacity, maxBatchSize, Duration.ofMillis(50));
+    }
+
+    private TodoWriteBehindService service(int capacity, int maxBatchSize, Duration maxDelay) {
+        return new TodoWriteBehindService(this.todoRepository, this.todoMapper, this.transactionManager, this.eventPublisher,
+                this.cacheManager, new TodoWriteBehindProperties(true, capacity, maxBatchSize, maxDelay, Duration.ofSeconds(5), Duration.ofSeconds(5)),
+                new SimpleMeterRegistry());
+    }
+}
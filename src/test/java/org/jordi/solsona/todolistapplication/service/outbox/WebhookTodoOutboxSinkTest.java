@@ -0,0 +1,68 @@
+package org.jordi.solsona.todolistapplication.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WebhookTodoOutboxSinkTest {
+
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicReference<String> body = new AtomicReference<>();
+    private HttpServer server;
+    private WebhookTodoOutboxSink sink;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/changes", exchange -> {
+            this.body.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(this.status.get(), -1);
+            exchange.close();
+        });
+        this.server.start();
+        this.sink = new WebhookTodoOutboxSink(URI.create("http://localhost:" + this.server.getAddress().getPort() + "/changes"),
+                Duration.ofSeconds(5), new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.server.stop(0);
+    }
+
+    @Test
+    void publish_shouldPostOneLinePerMessage() throws IOException {
+        UUID todoId = UUID.randomUUID();
+
+        this.sink.publish(List.of(new TodoOutboxMessage(1, todoId, Instant.EPOCH, "{\"type\":\"CREATED\"}"),
+                new TodoOutboxMessage(2, todoId, Instant.EPOCH, "{\"type\":\"DELETED\"}")));
+
+        List<String> lines = this.body.get().lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("\"id\":1", "\"todoId\":\"" + todoId + "\"", "\"change\":{\"type\":\"CREATED\"}");
+        assertThat(lines.get(1)).contains("\"id\":2", "\"change\":{\"type\":\"DELETED\"}");
+    }
+
+    @Test
+    void publish_whenWebhookFails_shouldThrow() {
+        this.status.set(503);
+
+        assertThrows(IOException.class, () -> this.sink.publish(List.of(new TodoOutboxMessage(1, UUID.randomUUID(), Instant.EPOCH, "{}"))));
+    }
+}
@@ -0,0 +1,58 @@
+package org.jordi.solsona.todolistapplication.service.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HierarchicalTimingWheelTest {
+
+    @Test
+    public void advanceTo_firesEntriesOnTheFirstTickAtOrAfterTheirDeadline() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(100, 2, 3, 1000);
+        HierarchicalTimingWheel.Entry entry = new HierarchicalTimingWheel.Entry(UUID.randomUUID(), 1250, (byte) 0);
+        List<HierarchicalTimingWheel.Entry> expired = new ArrayList<>();
+
+        assertThat(wheel.add(entry)).isTrue();
+        wheel.advanceTo(1299, expired::add);
+        assertThat(expired).isEmpty();
+        wheel.advanceTo(1300, expired::add);
+
+        assertThat(expired).containsExactly(entry);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void advanceTo_cascadesEntriesFromTheHigherLevelsAndBeyondTheLastOne() {
+        //4 buckets of 1, 4 and 16 ticks, so the deadlines past 64 ticks wait in the top level and are cascaded again
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, 2, 3, 3);
+        List<Long> deadlines = List.of(5L, 17L, 18L, 63L, 64L, 150L, 1000L);
+        deadlines.forEach(deadline -> wheel.add(new HierarchicalTimingWheel.Entry(UUID.randomUUID(), deadline, (byte) 1)));
+        List<Long> expired = new ArrayList<>();
+
+        for (long now = 4; now <= 1000; now++) {
+            long tick = now;
+            wheel.advanceTo(now, entry -> {
+                assertThat(entry.deadlineMillis).isEqualTo(tick);
+                expired.add(entry.deadlineMillis);
+            });
+        }
+
+        assertThat(expired).containsExactlyElementsOf(deadlines);
+    }
+
+    @Test
+    public void add_reachedDeadline_isRejected() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(100, 8, 4, 1000);
+        UUID id = UUID.randomUUID();
+
+        assertThat(wheel.add(new HierarchicalTimingWheel.Entry(id, 950, (byte) 0))).isFalse();
+        assertThat(wheel.add(new HierarchicalTimingWheel.Entry(id, 1000, (byte) 0))).isFalse();
+        assertThat(wheel.add(new HierarchicalTimingWheel.Entry(id, 1001, (byte) 0))).isTrue();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.currentMillis()).isEqualTo(1000);
+    }
+}